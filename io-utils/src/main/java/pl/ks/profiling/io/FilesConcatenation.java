@@ -17,10 +17,15 @@ package pl.ks.profiling.io;
 
 import org.apache.commons.math3.util.Pair;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -29,6 +34,8 @@ import java.util.stream.Collectors;
 
 public class FilesConcatenation {
     private static final byte[] NEW_LINE_BYTES = "\n".getBytes();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long TRANSFER_STEP_BYTES = 64 * 1024 * 1024;
 
     public static <T, U extends Comparable<? super U>> List<T> sortBy(List<T> items, Function<T, U> extractCompareObject) {
         if (extractCompareObject != null) {
@@ -39,12 +46,49 @@ public class FilesConcatenation {
     }
 
     public static void concatenate(List<File> files, File selectedFile, Consumer<ConcatenationProgress> callback) throws IOException {
-        FileOutputStream fileOutputStream = new FileOutputStream(selectedFile);
+        concatenate(files, selectedFile, OutputCompression.NONE, callback);
+    }
+
+    public static void concatenate(List<File> files, File selectedFile, OutputCompression compression, Consumer<ConcatenationProgress> callback) throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(selectedFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (compression == OutputCompression.NONE) {
+                concatenate(files, outputChannel, callback);
+            } else {
+                try (OutputStream compressed = compression.compress(new BufferedOutputStream(Channels.newOutputStream(outputChannel), BUFFER_SIZE))) {
+                    concatenate(files, Channels.newChannel(compressed), callback);
+                }
+            }
+        }
+    }
+
+    private static void concatenate(List<File> files, WritableByteChannel output, Consumer<ConcatenationProgress> callback) throws IOException {
         int numberOfFiles = files.size();
         long allFilesSize = filesSize(files);
         long processedFilesSize = 0;
 
         int fileNumber = 1;
+        notifyProgress(callback, fileNumber, numberOfFiles, allFilesSize, processedFilesSize);
+        for (File f : files) {
+            if (fileNumber > 1) {
+                output.write(ByteBuffer.wrap(NEW_LINE_BYTES));
+            }
+            try (FileChannel inputChannel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                long size = inputChannel.size();
+                long position = 0;
+                long transferred;
+                do {
+                    // transferTo may move fewer bytes than requested, large files are also reported in steps
+                    transferred = inputChannel.transferTo(position, Math.min(TRANSFER_STEP_BYTES, size - position), output);
+                    position += transferred;
+                    notifyProgress(callback, fileNumber, numberOfFiles, allFilesSize, processedFilesSize + position);
+                } while (position < size && transferred > 0);
+                processedFilesSize += position;
+            }
+            fileNumber++;
+        }
+    }
+
+    private static void notifyProgress(Consumer<ConcatenationProgress> callback, int fileNumber, int numberOfFiles, long allFilesSize, long processedFilesSize) {
         if (callback != null) {
             callback.accept(new ConcatenationProgress(
                     fileNumber,
@@ -53,23 +97,6 @@ public class FilesConcatenation {
                     processedFilesSize
             ));
         }
-        for (File f : files) {
-            if (fileNumber > 1) {
-                fileOutputStream.write(NEW_LINE_BYTES);
-            }
-            FileInputStream fileInputStream = new FileInputStream(f);
-            fileInputStream.transferTo(fileOutputStream);
-            processedFilesSize += f.length();
-            if (callback != null) {
-                callback.accept(new ConcatenationProgress(
-                        fileNumber,
-                        numberOfFiles,
-                        allFilesSize,
-                        processedFilesSize
-                ));
-            }
-            fileNumber++;
-        }
     }
 
     private static <T, U extends Comparable<? super U>> List<T> sortBySecond(List<T> filesList, List<U> orderObjectsList) {
@@ -20,12 +20,14 @@ import pl.ks.profiling.io.source.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.function.Function;
 
 @UtilityClass
 public class InputUtils {
     private static final String USE_FIRST_FILE_NAME = null;
+    static final long MAPPED_FILES_THRESHOLD_BYTES = 256 * 1024 * 1024;
 
     public static <U extends Comparable<? super U>> LogsSource getLogsSource(
             List<File> files,
@@ -40,6 +42,14 @@ public class InputUtils {
         return InputUtils.getInputStream(List.of(new File(savedLocation)), extractCompareObject, name);
     }
 
+    public static boolean isStreamable(InputStream markableInputStream) throws IOException {
+        return StreamLogsSource.supports(markableInputStream);
+    }
+
+    public static LogsSource getLogsSource(String name, InputStream markableInputStream) throws IOException {
+        return new StreamLogsSource(name, markableInputStream);
+    }
+
     public static <U extends Comparable<? super U>> LogsSource getInputStream(
             List<File> files,
             Function<String, U> extractCompareObject,
@@ -50,14 +60,21 @@ public class InputUtils {
                 return new Z7LogsSource<>(firstFile, extractCompareObject);
             } else if (ZipLogsSource.supports(firstFile)) {
                 return new ZipLogsSource<>(firstFile, extractCompareObject);
+            } else if (TarLogsSource.supports(firstFile)) {
+                return new TarLogsSource<>(firstFile, extractCompareObject);
             } else if (XZSource.supports(firstFile)) {
                 return new XZSource(firstFile);
             } else if (GZipInputSource.supports(firstFile)) {
                 return new GZipInputSource(firstFile);
+            } else if (CompressedFileSource.supports(firstFile)) {
+                return new CompressedFileSource(firstFile);
             }
         }
 
         String name = overrideName != null ? overrideName : firstFile.getName();
+        if (files.stream().mapToLong(File::length).sum() >= MAPPED_FILES_THRESHOLD_BYTES) {
+            return new MappedFileLogsSource<>(name, files, extractCompareObject);
+        }
         return new RegularFilesSource<>(name, files, extractCompareObject);
     }
 }
@@ -0,0 +1,41 @@
+package pl.ks.profiling.io;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+@Getter
+@RequiredArgsConstructor
+public enum OutputCompression {
+    NONE(null, ""),
+    GZIP(CompressorStreamFactory.GZIP, ".gz"),
+    ZSTD(CompressorStreamFactory.ZSTANDARD, ".zst"),
+    XZ(CompressorStreamFactory.XZ, ".xz");
+
+    private final String compressorName;
+    private final String fileExtension;
+
+    public static OutputCompression forFile(File file) {
+        return Arrays.stream(values())
+                .filter(compression -> compression != NONE && file.getName().endsWith(compression.fileExtension))
+                .findFirst()
+                .orElse(NONE);
+    }
+
+    OutputStream compress(OutputStream outputStream) throws IOException {
+        if (this == NONE) {
+            return outputStream;
+        }
+        try {
+            return new CompressorStreamFactory().createCompressorOutputStream(compressorName, outputStream);
+        } catch (CompressorException exception) {
+            throw new IOException(exception);
+        }
+    }
+}
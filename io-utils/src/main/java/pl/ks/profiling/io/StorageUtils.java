@@ -27,11 +27,17 @@ import org.apache.poi.util.IOUtils;
 @UtilityClass
 public class StorageUtils {
     public String createCopy(String dir, String originalFilename, InputStream inputStream) throws IOException {
+        String savedFileName = createCopyLocation(dir, originalFilename);
+        try (FileOutputStream outputStream = new FileOutputStream(savedFileName)) {
+            IOUtils.copy(inputStream, outputStream);
+        }
+        return savedFileName;
+    }
+
+    public String createCopyLocation(String dir, String originalFilename) {
         String directoryPath = withTrailingSlash(dir);
         makeSureDirectoryExists(directoryPath);
-        String savedFileName = directoryPath + UUID.randomUUID().toString() + originalFilename;
-        IOUtils.copy(inputStream, new FileOutputStream(savedFileName));
-        return savedFileName;
+        return directoryPath + UUID.randomUUID().toString() + originalFilename;
     }
 
     private void makeSureDirectoryExists(String directoryPath) {
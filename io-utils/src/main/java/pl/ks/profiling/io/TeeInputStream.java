@@ -0,0 +1,125 @@
+package pl.ks.profiling.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Copies everything read from the wrapped stream to a branch, e.g. to persist a stream while it is being parsed. The
+ * branch is closed once the end of the wrapped stream is reached, reading it fails, this stream is closed or
+ * {@link #abort(IOException) aborted}, {@link #completion()} tells which of those happened.
+ */
+public class TeeInputStream extends FilterInputStream {
+    private final OutputStream branch;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile IOException abortion;
+
+    public TeeInputStream(InputStream inputStream, OutputStream branch) {
+        super(inputStream);
+        this.branch = branch;
+    }
+
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    /**
+     * Stops copying from another thread than the reading one, e.g. once the wrapped stream can no longer be read.
+     * Every following read fails with the given exception, including a read already waiting for the wrapped stream.
+     */
+    public void abort(IOException failure) throws IOException {
+        abortion = failure;
+        complete(failure);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkNotAborted();
+        int read;
+        try {
+            read = super.read();
+        } catch (IOException e) {
+            complete(e);
+            throw e;
+        }
+        synchronized (branch) {
+            checkNotAborted();
+            if (read == -1) {
+                complete(null);
+            } else {
+                branch.write(read);
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkNotAborted();
+        int read;
+        try {
+            read = super.read(b, off, len);
+        } catch (IOException e) {
+            complete(e);
+            throw e;
+        }
+        synchronized (branch) {
+            checkNotAborted();
+            if (read == -1) {
+                complete(null);
+            } else {
+                branch.write(b, off, read);
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] skipped = new byte[(int) Math.min(n, 8 * 1024)];
+        int read = read(skipped);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            complete(new IOException("Stream closed before its end"));
+        }
+    }
+
+    private void checkNotAborted() throws IOException {
+        if (abortion != null) {
+            throw new IOException("Stream aborted", abortion);
+        }
+    }
+
+    private void complete(IOException failure) throws IOException {
+        // the branch is closed by the aborting thread while the reading one may be writing to it
+        synchronized (branch) {
+            if (completion.isDone()) {
+                return;
+            }
+            try {
+                branch.close();
+            } catch (IOException exception) {
+                completion.completeExceptionally(exception);
+                throw exception;
+            }
+            if (failure == null) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Single log compressed with any format recognised by its magic bytes, e.g. bzip2, zstd or lz4.
+ */
+public class CompressedFileSource extends LogsSourceBase {
+    private final File file;
+
+    public CompressedFileSource(File file) throws IOException {
+        this.file = file;
+        this.files = List.of(new LogSourceFile(file.getName(), LogSourceFile.NO_SUBFILES));
+        this.totalNumberOfFiles = 1;
+        this.currentFileNumber = 1;
+        this.inputStream = SourceCommons.openDecompressed(file);
+        this.reader = new BufferedReader(new InputStreamReader(inputStream), SourceCommons.BUFFER_SIZE);
+    }
+
+    public static boolean supports(File file) {
+        return SourceCommons.detectCompression(file) != null;
+    }
+
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+}
@@ -1,38 +1,26 @@
 package pl.ks.profiling.io.source;
 
-import org.apache.commons.compress.utils.IOUtils;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
 
 import java.io.*;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 public class GZipInputSource extends LogsSourceBase {
-    private final ByteArrayOutputStream byteArrayOutputStream;
     private final File file;
 
     public GZipInputSource(File file) throws IOException {
         this.file = file;
         this.totalNumberOfFiles = 1;
+        this.currentFileNumber = 1;
         this.files = List.of(new LogSourceFile(file.getName(), LogSourceFile.NO_SUBFILES));
-        GZIPInputStream gzipInputStream = new GZIPInputStream(new FileInputStream(file));
-        this.byteArrayOutputStream = new ByteArrayOutputStream();
-        IOUtils.copy(gzipInputStream, byteArrayOutputStream);
-        gzipInputStream.close();
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.inputStream = new GZIPInputStream(new FileInputStream(file), SourceCommons.BUFFER_SIZE);
+        this.reader = new BufferedReader(new InputStreamReader(inputStream), SourceCommons.BUFFER_SIZE);
     }
 
     public static boolean supports(File file) {
         String fileName = file.getName();
-        return fileName.endsWith(".gz") || fileName.endsWith(".gzip");
-    }
-
-    @Override
-    public InputStream getInputStream() {
-        if (this.inputStream == null) {
-            this.inputStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-            currentFileNumber++;
-        }
-        return this.inputStream;
+        return fileName.endsWith(".gz") || fileName.endsWith(".gzip") || CompressorStreamFactory.GZIP.equals(SourceCommons.detectCompression(file));
     }
 
     @Override
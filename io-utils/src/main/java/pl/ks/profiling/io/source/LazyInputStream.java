@@ -0,0 +1,66 @@
+package pl.ks.profiling.io.source;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+abstract class LazyInputStream extends InputStream {
+    private final Runnable notifyStart;
+    private InputStream innerInputStream;
+    private boolean closed;
+
+    LazyInputStream(Runnable notifyStart) {
+        this.notifyStart = notifyStart;
+    }
+
+    abstract InputStream open() throws IOException;
+
+    private InputStream inner() throws IOException {
+        if (innerInputStream == null) {
+            innerInputStream = new BufferedInputStream(open(), SourceCommons.BUFFER_SIZE);
+            notifyStart.run();
+        }
+        return innerInputStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (closed) {
+            return -1;
+        }
+        return inner().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            return -1;
+        }
+        return inner().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (closed) {
+            return 0;
+        }
+        return inner().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed || innerInputStream == null) {
+            return 0;
+        }
+        return innerInputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (innerInputStream != null) {
+            innerInputStream.close();
+            innerInputStream = null;
+        }
+    }
+}
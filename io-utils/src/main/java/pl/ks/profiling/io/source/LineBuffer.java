@@ -0,0 +1,142 @@
+package pl.ks.profiling.io.source;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class LineBuffer implements CharSequence {
+    private char[] ownChars = new char[256];
+    private char[] chars = ownChars;
+    private int offset;
+    private int length;
+
+    public void clear() {
+        chars = ownChars;
+        offset = 0;
+        length = 0;
+    }
+
+    public void set(String line) {
+        clear();
+        ensureCapacity(line.length());
+        line.getChars(0, line.length(), ownChars, 0);
+        length = line.length();
+    }
+
+    public void view(char[] source, int sourceOffset, int sourceLength) {
+        chars = source;
+        offset = sourceOffset;
+        length = sourceLength;
+    }
+
+    public void append(char[] source, int sourceOffset, int sourceLength) {
+        if (chars != ownChars) {
+            char[] viewed = chars;
+            int viewedOffset = offset;
+            chars = ownChars;
+            offset = 0;
+            ensureCapacity(length + sourceLength);
+            System.arraycopy(viewed, viewedOffset, ownChars, 0, length);
+        } else {
+            ensureCapacity(length + sourceLength);
+        }
+        System.arraycopy(source, sourceOffset, ownChars, length, sourceLength);
+        length += sourceLength;
+    }
+
+    public void set(byte[] bytes, int bytesOffset, int bytesLength, Charset charset) {
+        clear();
+        if (isAsciiCompatible(charset) && isAscii(bytes, bytesOffset, bytesLength)) {
+            ensureCapacity(bytesLength);
+            for (int i = 0; i < bytesLength; i++) {
+                ownChars[i] = (char) bytes[bytesOffset + i];
+            }
+            length = bytesLength;
+        } else {
+            set(new String(bytes, bytesOffset, bytesLength, charset));
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isAscii(byte[] bytes, int bytesOffset, int bytesLength) {
+        for (int i = bytesOffset; i < bytesOffset + bytesLength; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ownChars.length) {
+            ownChars = Arrays.copyOf(ownChars, Math.max(ownChars.length * 2, capacity));
+            chars = ownChars;
+        }
+    }
+
+    public int indexOf(String token, int fromIndex) {
+        int tokenLength = token.length();
+        if (tokenLength == 0) {
+            return Math.min(Math.max(fromIndex, 0), length);
+        }
+        char first = token.charAt(0);
+        int max = length - tokenLength;
+        for (int i = Math.max(fromIndex, 0); i <= max; i++) {
+            if (chars[offset + i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < tokenLength && chars[offset + i + j] == token.charAt(j)) {
+                j++;
+            }
+            if (j == tokenLength) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(String token) {
+        return indexOf(token, 0);
+    }
+
+    public boolean contains(String token) {
+        return indexOf(token, 0) >= 0;
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcEnd > length || srcBegin > srcEnd) {
+            throw new IndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length);
+        }
+        System.arraycopy(chars, offset + srcBegin, dst, dstBegin, srcEnd - srcBegin);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new String(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+}
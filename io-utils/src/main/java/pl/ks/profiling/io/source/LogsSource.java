@@ -14,6 +14,15 @@ public interface LogsSource extends AutoCloseable {
 
     String readLine() throws IOException;
 
+    default boolean readLine(LineBuffer line) throws IOException {
+        String next = readLine();
+        if (next == null) {
+            return false;
+        }
+        line.set(next);
+        return true;
+    }
+
     int getTotalNumberOfFiles();
 
     int getNumberOfFile();
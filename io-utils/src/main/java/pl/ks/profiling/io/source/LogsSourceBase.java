@@ -11,6 +11,12 @@ public abstract class LogsSourceBase implements LogsSource {
     protected BufferedReader reader;
     protected List<LogSourceFile> files;
 
+    private final LineBuffer lineBuffer = new LineBuffer();
+    private char[] readChars;
+    private int readPosition;
+    private int readLimit;
+    private boolean skipLineFeed;
+
     @Override
     public InputStream getInputStream() {
         return this.inputStream;
@@ -18,8 +24,50 @@ public abstract class LogsSourceBase implements LogsSource {
 
     @Override
     public String readLine() throws IOException {
+        return readLine(lineBuffer) ? lineBuffer.toString() : null;
+    }
+
+    @Override
+    public boolean readLine(LineBuffer line) throws IOException {
         this.lineNumber++;
-        return reader.readLine();
+        if (readChars == null) {
+            readChars = new char[SourceCommons.BUFFER_SIZE];
+        }
+        line.clear();
+        boolean anyCharRead = false;
+        while (true) {
+            if (readPosition >= readLimit) {
+                readPosition = 0;
+                readLimit = Math.max(reader.read(readChars, 0, readChars.length), 0);
+                if (readLimit == 0) {
+                    return anyCharRead;
+                }
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (readChars[readPosition] == '\n') {
+                    readPosition++;
+                    continue;
+                }
+            }
+            anyCharRead = true;
+            int start = readPosition;
+            while (readPosition < readLimit) {
+                char c = readChars[readPosition];
+                if (c == '\n' || c == '\r') {
+                    if (line.length() == 0) {
+                        line.view(readChars, start, readPosition - start);
+                    } else {
+                        line.append(readChars, start, readPosition - start);
+                    }
+                    skipLineFeed = c == '\r';
+                    readPosition++;
+                    return true;
+                }
+                readPosition++;
+            }
+            line.append(readChars, start, readPosition - start);
+        }
     }
 
     @Override
@@ -0,0 +1,289 @@
+package pl.ks.profiling.io.source;
+
+import pl.ks.profiling.io.FilesConcatenation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class MappedFileLogsSource<U extends Comparable<? super U>> extends LogsSourceBase implements SplittableLogsSource {
+    static final long DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final String name;
+    private final long windowSize;
+    private final Charset charset = Charset.defaultCharset();
+    private final List<Segment> segments;
+
+    private int segmentIndex = -1;
+    private FileChannel channel;
+    private long windowEnd;
+    private ByteBuffer window;
+    private byte[] lineBytes = new byte[1024];
+    private boolean skipLineFeed;
+
+    public MappedFileLogsSource(String name, List<File> files, Function<String, U> extractCompareObject) {
+        this(name, files, extractCompareObject, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedFileLogsSource(String name, List<File> files, Function<String, U> extractCompareObject, long windowSize) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.totalNumberOfFiles = files.size();
+        List<File> orderedFiles = FilesConcatenation.sortBy(files, file -> SourceCommons.firstLineExtractor(file, extractCompareObject));
+        this.files = orderedFiles.stream().map(f -> new LogSourceFile(f.getName(), LogSourceFile.NO_SUBFILES)).collect(Collectors.toList());
+        this.segments = toSegments(orderedFiles);
+    }
+
+    private MappedFileLogsSource(MappedFileLogsSource<U> whole, List<Segment> segments) {
+        this.name = whole.name;
+        this.windowSize = whole.windowSize;
+        this.totalNumberOfFiles = whole.totalNumberOfFiles;
+        this.files = whole.files;
+        this.segments = segments;
+        this.currentFileNumber = segments.stream().filter(segment -> segment.file != null).mapToInt(segment -> segment.fileIndex).findFirst().orElse(0);
+    }
+
+    private static List<Segment> toSegments(List<File> files) {
+        List<Segment> segments = new ArrayList<>(files.size() * 2);
+        for (int i = 0; i < files.size(); i++) {
+            if (i > 0) {
+                segments.add(Segment.NEW_LINE_SEPARATOR);
+            }
+            segments.add(new Segment(files.get(i), i, 0, files.get(i).length()));
+        }
+        return segments;
+    }
+
+    @Override
+    public List<LogsSource> splitAtLineBoundaries(int numberOfChunks) throws IOException {
+        long totalSize = segments.stream().mapToLong(segment -> segment.end - segment.start).sum();
+        long chunkSize = Math.max(totalSize / Math.max(numberOfChunks, 1), 1);
+        List<LogsSource> chunks = new ArrayList<>(numberOfChunks);
+        List<Segment> chunkSegments = new ArrayList<>();
+        long chunkBytes = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            while (segment != null) {
+                long splitOffset = segment.start + chunkSize - chunkBytes;
+                long lineEnd = segment.file == null || splitOffset >= segment.end ? -1 : findLineEnd(segment, splitOffset);
+                if (lineEnd < 0) {
+                    chunkSegments.add(segment);
+                    chunkBytes += segment.end - segment.start;
+                    segment = null;
+                } else {
+                    chunkSegments.add(new Segment(segment.file, segment.fileIndex, segment.start, lineEnd));
+                    segment = lineEnd < segment.end ? new Segment(segment.file, segment.fileIndex, lineEnd, segment.end) : null;
+                    chunkBytes = chunkSize;
+                }
+                boolean separatorFollows = segment == null && i + 1 < segments.size() && segments.get(i + 1).file == null;
+                if (chunkBytes >= chunkSize && !separatorFollows) {
+                    chunks.add(new MappedFileLogsSource<>(this, chunkSegments));
+                    chunkSegments = new ArrayList<>();
+                    chunkBytes = 0;
+                }
+            }
+        }
+        if (!chunkSegments.isEmpty() || chunks.isEmpty()) {
+            chunks.add(new MappedFileLogsSource<>(this, chunkSegments));
+        }
+        return chunks;
+    }
+
+    private static long findLineEnd(Segment segment, long fromOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SourceCommons.BUFFER_SIZE);
+        try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+            long position = fromOffset;
+            while (position < segment.end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), segment.end - position));
+                int read = fileChannel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == NEW_LINE) {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+        }
+        return segment.end;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        this.lineNumber++;
+        int length = readLineBytes();
+        if (length < 0) {
+            return null;
+        }
+        return new String(lineBytes, 0, length, charset);
+    }
+
+    @Override
+    public boolean readLine(LineBuffer line) throws IOException {
+        this.lineNumber++;
+        int length = readLineBytes();
+        if (length < 0) {
+            return false;
+        }
+        line.set(lineBytes, 0, length, charset);
+        return true;
+    }
+
+    // a line ends with \n, \r or \r\n, like in LogsSourceBase
+    private int readLineBytes() throws IOException {
+        int length = 0;
+        boolean anyByteRead = false;
+        ByteBuffer buffer;
+        while ((buffer = currentWindow()) != null) {
+            int start = buffer.position();
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer.get(start) == NEW_LINE) {
+                    buffer.position(start + 1);
+                    continue;
+                }
+            }
+            anyByteRead = true;
+            int limit = buffer.limit();
+            int end = start;
+            while (end < limit && buffer.get(end) != NEW_LINE && buffer.get(end) != CARRIAGE_RETURN) {
+                end++;
+            }
+            length = append(buffer, start, end - start, length);
+            if (end < limit) {
+                skipLineFeed = buffer.get(end) == CARRIAGE_RETURN;
+                buffer.position(end + 1);
+                return length;
+            }
+            buffer.position(limit);
+        }
+        return anyByteRead ? length : -1;
+    }
+
+    private int append(ByteBuffer buffer, int start, int count, int length) {
+        if (length + count > lineBytes.length) {
+            lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, length + count));
+        }
+        buffer.get(start, lineBytes, length, count);
+        return length + count;
+    }
+
+    private ByteBuffer currentWindow() throws IOException {
+        while (window == null || !window.hasRemaining()) {
+            if (channel != null && windowEnd < segments.get(segmentIndex).end) {
+                mapNextWindow();
+            } else if (!nextSegment()) {
+                return null;
+            }
+        }
+        return window;
+    }
+
+    private boolean nextSegment() throws IOException {
+        closeChannel();
+        window = null;
+        if (segmentIndex + 1 >= segments.size()) {
+            return false;
+        }
+        segmentIndex++;
+        Segment segment = segments.get(segmentIndex);
+        if (segment.file == null) {
+            window = ByteBuffer.wrap(new byte[]{NEW_LINE});
+        } else {
+            currentFileNumber++;
+            channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ);
+            windowEnd = segment.start;
+        }
+        return true;
+    }
+
+    private void mapNextWindow() throws IOException {
+        long windowStart = windowEnd;
+        windowEnd = Math.min(windowStart + windowSize, segments.get(segmentIndex).end);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        if (inputStream == null) {
+            inputStream = new MappedInputStream();
+        }
+        return inputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segmentIndex = segments.size();
+        window = null;
+        closeChannel();
+    }
+
+    private class MappedInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            ByteBuffer buffer = currentWindow();
+            return buffer == null ? -1 : buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = currentWindow();
+            if (buffer == null) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            MappedFileLogsSource.this.close();
+        }
+    }
+
+    private static class Segment {
+        private static final Segment NEW_LINE_SEPARATOR = new Segment(null, -1, 0, 1);
+
+        private final File file;
+        private final int fileIndex;
+        private final long start;
+        private final long end;
+
+        private Segment(File file, int fileIndex, long start, long end) {
+            this.file = file;
+            this.fileIndex = fileIndex;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
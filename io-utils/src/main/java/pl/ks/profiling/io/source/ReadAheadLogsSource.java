@@ -0,0 +1,199 @@
+package pl.ks.profiling.io.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class ReadAheadLogsSource implements LogsSource {
+    private static final int BATCHES = 4;
+    private static final int BATCH_SIZE = 256 * 1024;
+    private static final int LINES_PER_BATCH = 8 * 1024;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final LogsSource delegate;
+    private final BlockingQueue<Batch> freeBatches = new ArrayBlockingQueue<>(BATCHES);
+    private final BlockingQueue<Batch> filledBatches = new ArrayBlockingQueue<>(BATCHES);
+    private final LineBuffer lineBuffer = new LineBuffer();
+
+    private Thread readerThread;
+    private Batch current;
+    private int lineIndex;
+    private long lineNumber;
+    private int currentFileNumber;
+
+    public ReadAheadLogsSource(LogsSource delegate) {
+        this(delegate, BATCH_SIZE, LINES_PER_BATCH);
+    }
+
+    ReadAheadLogsSource(LogsSource delegate, int batchSize, int linesPerBatch) {
+        this.delegate = delegate;
+        for (int i = 0; i < BATCHES; i++) {
+            freeBatches.add(new Batch(batchSize, linesPerBatch));
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return readLine(lineBuffer) ? lineBuffer.toString() : null;
+    }
+
+    @Override
+    public boolean readLine(LineBuffer line) throws IOException {
+        lineNumber++;
+        while (current == null || lineIndex >= current.lineCount) {
+            if (current != null) {
+                if (current.last) {
+                    if (current.failure instanceof Error) {
+                        throw (Error) current.failure;
+                    } else if (current.failure != null) {
+                        throw new IOException("Cannot read " + delegate.getName(), current.failure);
+                    }
+                    return false;
+                }
+                freeBatches.add(current);
+            }
+            current = takeFilledBatch();
+            lineIndex = 0;
+            currentFileNumber = current.fileNumber;
+        }
+        int start = lineIndex == 0 ? 0 : current.lineEnds[lineIndex - 1];
+        line.view(current.chars, start, current.lineEnds[lineIndex] - start);
+        lineIndex++;
+        return true;
+    }
+
+    private Batch takeFilledBatch() throws IOException {
+        if (readerThread == null) {
+            readerThread = new Thread(this::readAhead, "logs-read-ahead");
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+        try {
+            return filledBatches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + delegate.getName());
+        }
+    }
+
+    private void readAhead() {
+        LineBuffer line = new LineBuffer();
+        Batch batch = null;
+        try {
+            batch = freeBatches.take();
+            batch.clear();
+            while (delegate.readLine(line)) {
+                if (!batch.fits(line)) {
+                    filledBatches.put(batch);
+                    batch = freeBatches.take();
+                    batch.clear();
+                }
+                batch.add(line, delegate.getNumberOfFile());
+            }
+            batch.last = true;
+            filledBatches.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // errors too, the consumer would wait for the next batch forever otherwise
+            if (batch == null) {
+                batch = new Batch(0, 0);
+            }
+            batch.failure = e;
+            batch.last = true;
+            filledBatches.offer(batch);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (readerThread != null) {
+            readerThread.interrupt();
+            try {
+                // a reader blocked in the delegate is released by closing it below
+                readerThread.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            delegate.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return delegate.getInputStream();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int getTotalNumberOfFiles() {
+        return delegate.getTotalNumberOfFiles();
+    }
+
+    @Override
+    public int getNumberOfFile() {
+        return currentFileNumber;
+    }
+
+    @Override
+    public long getNumberOfLine() {
+        return lineNumber;
+    }
+
+    @Override
+    public List<LogSourceFile> getFiles() {
+        return delegate.getFiles();
+    }
+
+    private static class Batch {
+        private char[] chars;
+        private final int[] lineEnds;
+        private int lineCount;
+        private int fileNumber;
+        private boolean last;
+        private Throwable failure;
+
+        private Batch(int size, int lines) {
+            this.chars = new char[size];
+            this.lineEnds = new int[lines];
+        }
+
+        private void clear() {
+            lineCount = 0;
+            last = false;
+            failure = null;
+        }
+
+        private int size() {
+            return lineCount == 0 ? 0 : lineEnds[lineCount - 1];
+        }
+
+        private boolean fits(LineBuffer line) {
+            return lineCount == 0 || (lineCount < lineEnds.length && size() + line.length() <= chars.length);
+        }
+
+        private void add(LineBuffer line, int fileNumber) {
+            int start = size();
+            if (start + line.length() > chars.length) {
+                chars = Arrays.copyOf(chars, start + line.length());
+            }
+            line.getChars(0, line.length(), chars, start);
+            lineEnds[lineCount++] = start + line.length();
+            this.fileNumber = fileNumber;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package pl.ks.profiling.io.source;
 import pl.ks.profiling.io.FilesConcatenation;
 
 import java.io.*;
-import java.nio.file.Files;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -14,10 +13,10 @@ public class RegularFilesSource<U extends Comparable<? super U>> extends LogsSou
     public RegularFilesSource(String name, List<File> files, Function<String, U> extractCompareObject) {
         this.name = name;
         this.totalNumberOfFiles = files.size();
-        List<File> orderedFiles = FilesConcatenation.sortBy(files, file -> firstLineExtractor(file, extractCompareObject));
+        List<File> orderedFiles = FilesConcatenation.sortBy(files, file -> SourceCommons.firstLineExtractor(file, extractCompareObject));
         this.files = orderedFiles.stream().map(f -> new LogSourceFile(f.getName(), LogSourceFile.NO_SUBFILES)).collect(Collectors.toList());
         this.inputStream = SourceCommons.mergeIntertwined(toStreams(orderedFiles));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.reader = new BufferedReader(new InputStreamReader(getInputStream()), SourceCommons.BUFFER_SIZE);
     }
 
     @Override
@@ -33,36 +32,17 @@ public class RegularFilesSource<U extends Comparable<? super U>> extends LogsSou
         this.currentFileNumber++;
     }
 
-    static class LazyFileInputStream extends InputStream {
+    static class LazyFileInputStream extends LazyInputStream {
         private final File file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
 
         public LazyFileInputStream(File file, Runnable notifyStart) {
+            super(notifyStart);
             this.file = file;
-            this.notifyStart = notifyStart;
         }
 
         @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = new FileInputStream(file);
-                notifyStart.run();
-            }
-            return innerInputStream.read();
-        }
-
-        @Override
-        public void close() throws IOException {
-            this.innerInputStream.close();
-        }
-    }
-
-    private U firstLineExtractor(File file, Function<String, U> extractCompareObject) {
-        try {
-            return Files.lines(file.toPath()).map(extractCompareObject).findFirst().get();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
+        InputStream open() throws IOException {
+            return new FileInputStream(file);
         }
     }
 }
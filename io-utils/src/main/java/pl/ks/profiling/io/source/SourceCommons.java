@@ -1,14 +1,36 @@
 package pl.ks.profiling.io.source;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class SourceCommons {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int TAR_HEADER_SIZE = 512;
+    private static final Set<String> SUPPORTED_COMPRESSIONS = Set.of(
+            CompressorStreamFactory.GZIP,
+            CompressorStreamFactory.XZ,
+            CompressorStreamFactory.BZIP2,
+            CompressorStreamFactory.ZSTANDARD,
+            CompressorStreamFactory.LZ4_FRAMED);
+
     static InputStream mergeIntertwined(Collection<InputStream> streams) {
         List<InputStream> withNewLinesBetween = intertwineWithNewLineStreams(streams);
         return mergeInputStreams(withNewLinesBetween);
@@ -39,4 +61,71 @@ public class SourceCommons {
         return new ByteArrayInputStream("\n".getBytes());
     }
 
+    static <U> U firstLineExtractor(File file, Function<String, U> extractCompareObject) {
+        try (Stream<String> lines = Files.lines(file.toPath())) {
+            return lines.map(extractCompareObject).findFirst().get();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    static byte[] readHeader(File file, int length) {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return Arrays.copyOf(inputStream.readNBytes(length), length);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    static String detectCompression(File file) {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            return detectCompression(inputStream);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private static String detectCompression(InputStream markableInputStream) {
+        try {
+            String compression = CompressorStreamFactory.detect(markableInputStream);
+            return SUPPORTED_COMPRESSIONS.contains(compression) ? compression : null;
+        } catch (CompressorException exception) {
+            return null;
+        }
+    }
+
+    static InputStream openDecompressed(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            return decompressed(inputStream);
+        } catch (IOException exception) {
+            inputStream.close();
+            throw exception;
+        }
+    }
+
+    static InputStream decompressed(InputStream markableInputStream) throws IOException {
+        String compression = detectCompression(markableInputStream);
+        if (compression == null) {
+            return markableInputStream;
+        }
+        try {
+            return new CompressorStreamFactory(true).createCompressorInputStream(compression, markableInputStream);
+        } catch (CompressorException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    static boolean isTar(File file) {
+        try (InputStream inputStream = openDecompressed(file)) {
+            return isTarHeader(inputStream);
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    static boolean isTarHeader(InputStream inputStream) throws IOException {
+        byte[] header = inputStream.readNBytes(TAR_HEADER_SIZE);
+        return TarArchiveInputStream.matches(header, header.length);
+    }
 }
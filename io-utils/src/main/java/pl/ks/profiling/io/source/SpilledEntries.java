@@ -0,0 +1,165 @@
+package pl.ks.profiling.io.source;
+
+import pl.ks.profiling.io.FilesConcatenation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Entries of a sequentially decoded archive, read in the order of their first lines. The archive is decoded twice:
+ * the first pass only reads the first lines, as the first entry to give may be the last one in the archive. In the
+ * second pass an entry is streamed straight from the archive when it is the next one in that order, only entries met
+ * before their turn are copied to temporary files until needed, so archives already in order are never copied but
+ * still decoded twice. Decoding once would need every entry copied in the first pass.
+ */
+class SpilledEntries implements Closeable {
+    private static final int MAX_FIRST_LINE_LENGTH = 64 * 1024;
+
+    private final ArchiveOpener opener;
+    private final List<String> names = new ArrayList<>();
+    private final List<String> firstLines = new ArrayList<>();
+    private final List<File> spilledFiles = new ArrayList<>();
+
+    private int[] positions;
+    private File[] spilled;
+    private SequentialArchive archive;
+    private int archiveIndex;
+
+    SpilledEntries(ArchiveOpener opener) throws IOException {
+        this.opener = opener;
+        try (SequentialArchive firstPass = opener.open()) {
+            InputStream content;
+            while ((content = firstPass.nextEntry()) != null) {
+                names.add(firstPass.entryName());
+                firstLines.add(readFirstLine(content));
+            }
+        }
+    }
+
+    /**
+     * Names of the entries in the archive order.
+     */
+    List<String> names() {
+        return names;
+    }
+
+    <U extends Comparable<? super U>> List<InputStream> sortedInputStreams(Function<String, U> extractCompareObject, Runnable notifyStart) {
+        List<Integer> sorted = FilesConcatenation.sortBy(IntStream.range(0, firstLines.size()).boxed().collect(Collectors.toList()),
+                index -> extractCompareObject.apply(firstLines.get(index)));
+        positions = new int[sorted.size()];
+        for (int position = 0; position < sorted.size(); position++) {
+            positions[sorted.get(position)] = position;
+        }
+        spilled = new File[sorted.size()];
+        return IntStream.range(0, sorted.size())
+                .mapToObj(position -> new LazyEntryInputStream(position, notifyStart))
+                .collect(Collectors.toList());
+    }
+
+    int spilledCount() {
+        return spilledFiles.size();
+    }
+
+    private InputStream open(int position) throws IOException {
+        if (spilled[position] != null) {
+            return new FileInputStream(spilled[position]);
+        }
+        if (archive == null) {
+            archive = opener.open();
+        }
+        InputStream content;
+        while ((content = archive.nextEntry()) != null) {
+            int entryPosition = positions[archiveIndex++];
+            if (entryPosition == position) {
+                return new UnclosedInputStream(content);
+            }
+            spilled[entryPosition] = spill(content);
+        }
+        throw new IOException("Entry " + position + " not found in the second pass over the archive");
+    }
+
+    private File spill(InputStream content) throws IOException {
+        File file = Files.createTempFile("logs-entry", ".log").toFile();
+        file.deleteOnExit();
+        spilledFiles.add(file);
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            content.transferTo(outputStream);
+        }
+        return file;
+    }
+
+    private static String readFirstLine(InputStream content) throws IOException {
+        // not closed, that would close the archive
+        InputStream buffered = new BufferedInputStream(content, SourceCommons.BUFFER_SIZE);
+        ByteArrayOutputStream firstLine = new ByteArrayOutputStream();
+        int read;
+        while ((read = buffered.read()) >= 0 && read != '\n' && firstLine.size() < MAX_FIRST_LINE_LENGTH) {
+            firstLine.write(read);
+        }
+        String line = firstLine.toString();
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        spilledFiles.forEach(File::delete);
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * Archive read entry by entry, from the start every time it is opened.
+     */
+    interface SequentialArchive extends Closeable {
+        /**
+         * Moves to the next file entry of the archive and returns its content, or null if there are no more entries.
+         */
+        InputStream nextEntry() throws IOException;
+
+        String entryName();
+    }
+
+    interface ArchiveOpener {
+        SequentialArchive open() throws IOException;
+    }
+
+    private class LazyEntryInputStream extends LazyInputStream {
+        private final int position;
+
+        private LazyEntryInputStream(int position, Runnable notifyStart) {
+            super(notifyStart);
+            this.position = position;
+        }
+
+        @Override
+        InputStream open() throws IOException {
+            return SpilledEntries.this.open(position);
+        }
+    }
+
+    private static class UnclosedInputStream extends FilterInputStream {
+        private UnclosedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // the entry belongs to the archive, which is closed with all entries
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pl.ks.profiling.io.source;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface SplittableLogsSource extends LogsSource {
+    List<LogsSource> splitAtLineBoundaries(int numberOfChunks) throws IOException;
+}
@@ -0,0 +1,59 @@
+package pl.ks.profiling.io.source;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Single log read once from a stream, e.g. while it is still being uploaded. Compressed logs are decoded on the fly.
+ * Archives need their entries sorted before reading, so they are not supported and have to be saved first.
+ */
+public class StreamLogsSource extends LogsSourceBase {
+    private static final int SIGNATURE_LENGTH = 6;
+    // enough compressed input to decode the first tar header of every supported compression
+    private static final int DETECTION_READ_LIMIT = 2 * 1024 * 1024;
+
+    private final String name;
+
+    public StreamLogsSource(String name, InputStream markableInputStream) throws IOException {
+        this.name = name;
+        this.files = List.of(new LogSourceFile(name, LogSourceFile.NO_SUBFILES));
+        this.totalNumberOfFiles = 1;
+        this.currentFileNumber = 1;
+        this.inputStream = SourceCommons.decompressed(markableInputStream);
+        this.reader = new BufferedReader(new InputStreamReader(inputStream), SourceCommons.BUFFER_SIZE);
+    }
+
+    public static boolean supports(InputStream markableInputStream) throws IOException {
+        markableInputStream.mark(DETECTION_READ_LIMIT);
+        byte[] signature = markableInputStream.readNBytes(SIGNATURE_LENGTH);
+        markableInputStream.reset();
+        if (ZipArchiveInputStream.matches(signature, signature.length) || SevenZFile.matches(signature, signature.length)) {
+            return false;
+        }
+
+        markableInputStream.mark(DETECTION_READ_LIMIT);
+        try (InputStream decompressed = SourceCommons.decompressed(new BufferedInputStream(new NotClosingInputStream(markableInputStream)))) {
+            return !SourceCommons.isTarHeader(decompressed);
+        } finally {
+            markableInputStream.reset();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    private static class NotClosingInputStream extends FilterInputStream {
+        private NotClosingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
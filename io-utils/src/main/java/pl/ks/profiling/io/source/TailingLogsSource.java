@@ -0,0 +1,356 @@
+package pl.ks.profiling.io.source;
+
+import pl.ks.profiling.io.FilesConcatenation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Follows a log written with unified logging rotation, e.g. {@code -Xlog:gc*:file=gc.log::filecount=5}. Rotated files
+ * present at start are read first, then the active file is followed across rotations and truncations. Once a rotated
+ * file has been drained, files rotated out after it in the meantime are read before the active file again, so the log
+ * may rotate several times between reads. They are told apart from files already read by their file keys, file
+ * systems without file keys are followed only as long as the log rotates at most once between reads.
+ * <p>
+ * {@link #readLine(LineBuffer)} returns {@code false} once every complete line written so far has been read, a line
+ * still being written is held back until its terminator arrives. {@link #awaitChange()} blocks until the log
+ * directory reports a change, falling back to polling where file watching is not available or not reliable.
+ * {@link #getInputStream()} gives the same content as bytes, ending likewise once everything written so far was read;
+ * the two ways of reading share their position and should not be mixed.
+ */
+public class TailingLogsSource implements LogsSource {
+    static final long DEFAULT_POLL_INTERVAL_MILLIS = 500;
+    private static final int END_OF_FILE = -1;
+
+    private final Path activeFile;
+    private final Deque<Path> rotatedFiles;
+    private final Function<List<File>, List<Path>> rotationOrder;
+    private final Set<Object> readFileKeys = new HashSet<>();
+    private final long pollIntervalMillis;
+    private final WatchService watchService;
+    private final List<LogSourceFile> files = new ArrayList<>();
+    private final Charset charset = Charset.defaultCharset();
+    private final LineBuffer lineBuffer = new LineBuffer();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(SourceCommons.BUFFER_SIZE);
+
+    private FileChannel channel;
+    private Path channelPath;
+    private Object channelFileKey;
+    private boolean rotationDetected;
+    private boolean rotatedFileDrained;
+    private byte[] lineBytes = new byte[256];
+    private int lineLength;
+    private boolean skipLineFeed;
+    private long lineNumber;
+    private InputStream inputStream;
+
+    public <U extends Comparable<? super U>> TailingLogsSource(File activeFile, Function<String, U> extractCompareObject) throws IOException {
+        this(activeFile, extractCompareObject, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    <U extends Comparable<? super U>> TailingLogsSource(File activeFile, Function<String, U> extractCompareObject, long pollIntervalMillis) throws IOException {
+        this.activeFile = activeFile.toPath().toAbsolutePath();
+        this.rotationOrder = rotated -> inRotationOrder(rotated, extractCompareObject);
+        this.rotatedFiles = new ArrayDeque<>(rotationOrder.apply(findRotatedFiles(this.activeFile)));
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.watchService = watch(this.activeFile.getParent());
+        this.readBuffer.flip();
+    }
+
+    private static List<File> findRotatedFiles(Path activeFile) {
+        Pattern rotatedName = Pattern.compile(Pattern.quote(activeFile.getFileName().toString()) + "\\.\\d+");
+        File[] siblings = activeFile.getParent().toFile().listFiles((dir, name) -> rotatedName.matcher(name).matches());
+        if (siblings == null) {
+            return List.of();
+        }
+        return Arrays.stream(siblings)
+                .filter(file -> file.length() > 0)
+                .collect(Collectors.toList());
+    }
+
+    private static <U extends Comparable<? super U>> List<Path> inRotationOrder(List<File> rotated, Function<String, U> extractCompareObject) {
+        List<File> byModification = rotated.stream()
+                .sorted(Comparator.comparingLong(File::lastModified))
+                .collect(Collectors.toList());
+        return FilesConcatenation.sortBy(byModification, file -> SourceCommons.firstLineExtractor(file, extractCompareObject))
+                .stream()
+                .map(File::toPath)
+                .collect(Collectors.toList());
+    }
+
+    private static WatchService watch(Path directory) {
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watchService;
+        } catch (IOException | UnsupportedOperationException exception) {
+            return null;
+        }
+    }
+
+    public void awaitChange() throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(pollIntervalMillis);
+            return;
+        }
+        WatchKey key = watchService.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+        if (key != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return readLine(lineBuffer) ? lineBuffer.toString() : null;
+    }
+
+    @Override
+    public boolean readLine(LineBuffer line) throws IOException {
+        while (true) {
+            if (!readBuffer.hasRemaining()) {
+                int read = fill();
+                if (read == 0) {
+                    return false;
+                }
+                if (read == END_OF_FILE) {
+                    skipLineFeed = false;
+                    if (lineLength > 0) {
+                        return completeLine(line);
+                    }
+                    continue;
+                }
+            }
+            byte[] bytes = readBuffer.array();
+            int position = readBuffer.position();
+            int limit = readBuffer.limit();
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (bytes[position] == '\n') {
+                    readBuffer.position(++position);
+                    continue;
+                }
+            }
+            int start = position;
+            while (position < limit) {
+                byte b = bytes[position];
+                if (b == '\n' || b == '\r') {
+                    appendToLine(bytes, start, position - start);
+                    skipLineFeed = b == '\r';
+                    readBuffer.position(position + 1);
+                    return completeLine(line);
+                }
+                position++;
+            }
+            appendToLine(bytes, start, position - start);
+            readBuffer.position(position);
+        }
+    }
+
+    private boolean completeLine(LineBuffer line) {
+        line.set(lineBytes, 0, lineLength, charset);
+        lineLength = 0;
+        lineNumber++;
+        return true;
+    }
+
+    private void appendToLine(byte[] bytes, int offset, int length) {
+        if (lineLength + length > lineBytes.length) {
+            lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, offset, lineBytes, lineLength, length);
+        lineLength += length;
+    }
+
+    private int fill() throws IOException {
+        if (channel == null && !openNextFile()) {
+            return 0;
+        }
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        readBuffer.flip();
+        if (read > 0) {
+            return read;
+        }
+        if (!channelPath.equals(activeFile) || rotationDetected) {
+            // the file is complete, anything written before the rotation has just been drained
+            rotatedFileDrained = true;
+            closeChannel();
+            return END_OF_FILE;
+        }
+        if (isActiveFileRotated()) {
+            rotationDetected = true;
+            return fill();
+        }
+        return 0;
+    }
+
+    private boolean openNextFile() throws IOException {
+        if (rotatedFiles.isEmpty() && rotatedFileDrained) {
+            rotatedFileDrained = false;
+            rotatedFiles.addAll(findRotatedSinceDrained());
+        }
+        Path next = rotatedFiles.isEmpty() ? activeFile : rotatedFiles.peek();
+        try {
+            channel = FileChannel.open(next, StandardOpenOption.READ);
+        } catch (NoSuchFileException exception) {
+            return false;
+        }
+        rotatedFiles.poll();
+        channelPath = next;
+        channelFileKey = Files.readAttributes(next, BasicFileAttributes.class).fileKey();
+        if (channelFileKey != null) {
+            readFileKeys.add(channelFileKey);
+        }
+        files.add(new LogSourceFile(next.getFileName().toString(), LogSourceFile.NO_SUBFILES));
+        return true;
+    }
+
+    // rotated files not read yet and modified since the newest file read, which is the one just drained
+    private List<Path> findRotatedSinceDrained() throws IOException {
+        List<File> unread = new ArrayList<>();
+        long drainedModified = Long.MIN_VALUE;
+        for (File rotated : findRotatedFiles(activeFile)) {
+            Object fileKey;
+            try {
+                fileKey = Files.readAttributes(rotated.toPath(), BasicFileAttributes.class).fileKey();
+            } catch (NoSuchFileException exception) {
+                continue;
+            }
+            if (fileKey == null) {
+                continue;
+            }
+            if (readFileKeys.contains(fileKey)) {
+                drainedModified = Math.max(drainedModified, rotated.lastModified());
+            } else {
+                unread.add(rotated);
+            }
+        }
+        long since = drainedModified;
+        return rotationOrder.apply(unread.stream()
+                .filter(rotated -> rotated.lastModified() >= since)
+                .collect(Collectors.toList()));
+    }
+
+    private boolean isActiveFileRotated() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(activeFile, BasicFileAttributes.class);
+            return !Objects.equals(attributes.fileKey(), channelFileKey) || attributes.size() < channel.position();
+        } catch (NoSuchFileException exception) {
+            return true;
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        channel.close();
+        channel = null;
+        channelPath = null;
+        rotationDetected = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            closeChannel();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        if (inputStream == null) {
+            inputStream = new TailingInputStream();
+        }
+        return inputStream;
+    }
+
+    @Override
+    public String getName() {
+        return activeFile.getFileName().toString();
+    }
+
+    @Override
+    public int getTotalNumberOfFiles() {
+        return files.size() + rotatedFiles.size();
+    }
+
+    @Override
+    public int getNumberOfFile() {
+        return files.size();
+    }
+
+    @Override
+    public long getNumberOfLine() {
+        return lineNumber;
+    }
+
+    @Override
+    public List<LogSourceFile> getFiles() {
+        return files;
+    }
+
+    private class TailingInputStream extends InputStream {
+        private int lastByte = '\n';
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!readBuffer.hasRemaining()) {
+                int read = fill();
+                if (read == 0) {
+                    return -1;
+                }
+                if (read == END_OF_FILE && lastByte != '\n' && lastByte != '\r') {
+                    // a file ended without a line terminator, like a line completed by readLine
+                    b[off] = (byte) (lastByte = '\n');
+                    return 1;
+                }
+            }
+            int count = Math.min(len, readBuffer.remaining());
+            readBuffer.get(b, off, count);
+            lastByte = b[off + count - 1];
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            TailingLogsSource.this.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pl.ks.profiling.io.source;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
+import pl.ks.profiling.io.FilesConcatenation;
+
+import java.io.*;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tar archive, optionally compressed with gzip, xz, bzip2, zstd or lz4. Plain archives are read in place. Compressed
+ * ones cannot be sought, they are decoded sequentially and only entries out of order are spilled to temporary files.
+ */
+public class TarLogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
+    private final File file;
+    private SpilledEntries spilledEntries;
+    private TarFile archiveFile;
+
+    public TarLogsSource(File file, Function<String, U> extractCompareObject) throws IOException {
+        this.file = file;
+        List<InputStream> sortedEntries = SourceCommons.detectCompression(file) == null
+                ? getSortedEntriesInputStreams(file, extractCompareObject)
+                : getSortedSpilledEntriesInputStreams(file, extractCompareObject);
+        this.totalNumberOfFiles = sortedEntries.size();
+        this.inputStream = SourceCommons.mergeIntertwined(sortedEntries);
+        this.reader = new BufferedReader(new InputStreamReader(getInputStream()), SourceCommons.BUFFER_SIZE);
+    }
+
+    public static boolean supports(File file) {
+        return SourceCommons.isTar(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (archiveFile != null) {
+            archiveFile.close();
+        }
+        if (spilledEntries != null) {
+            spilledEntries.close();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+
+    private List<InputStream> getSortedEntriesInputStreams(File file, Function<String, U> extractCompareObject) throws IOException {
+        archiveFile = new TarFile(file);
+        List<TarArchiveEntry> entries = archiveFile.getEntries().stream().filter(TarArchiveEntry::isFile).collect(Collectors.toList());
+        this.files = getFiles(file, entries.stream().map(TarArchiveEntry::getName).collect(Collectors.toList()));
+        List<TarArchiveEntry> sorted = FilesConcatenation.sortBy(entries, e -> extractCompareObject.apply(readFirstLine(archiveFile, e)));
+        return sorted.stream().map(e -> new LazyTarInputStream(archiveFile, e, this::startNextFileProcessing)).collect(Collectors.toList());
+    }
+
+    private List<InputStream> getSortedSpilledEntriesInputStreams(File file, Function<String, U> extractCompareObject) throws IOException {
+        spilledEntries = new SpilledEntries(() -> new SequentialTarArchive(new TarArchiveInputStream(SourceCommons.openDecompressed(file))));
+        this.files = getFiles(file, spilledEntries.names());
+        return spilledEntries.sortedInputStreams(extractCompareObject, this::startNextFileProcessing);
+    }
+
+    private List<LogSourceFile> getFiles(File file, List<String> names) {
+        return List.of(new LogSourceFile(file.getName(), names.stream().map(LogSourceSubfile::new).collect(Collectors.toList())));
+    }
+
+    private void startNextFileProcessing() {
+        this.currentFileNumber++;
+    }
+
+    private static class SequentialTarArchive implements SpilledEntries.SequentialArchive {
+        private final TarArchiveInputStream archiveInputStream;
+        private TarArchiveEntry entry;
+
+        private SequentialTarArchive(TarArchiveInputStream archiveInputStream) {
+            this.archiveInputStream = archiveInputStream;
+        }
+
+        @Override
+        public InputStream nextEntry() throws IOException {
+            do {
+                entry = archiveInputStream.getNextTarEntry();
+            } while (entry != null && !entry.isFile());
+            return entry == null ? null : archiveInputStream;
+        }
+
+        @Override
+        public String entryName() {
+            return entry.getName();
+        }
+
+        @Override
+        public void close() throws IOException {
+            archiveInputStream.close();
+        }
+    }
+
+    static class LazyTarInputStream extends LazyInputStream {
+        private final TarArchiveEntry entry;
+        private final TarFile file;
+
+        public LazyTarInputStream(TarFile file, TarArchiveEntry entry, Runnable notifyStart) {
+            super(notifyStart);
+            this.entry = entry;
+            this.file = file;
+        }
+
+        @Override
+        InputStream open() throws IOException {
+            return file.getInputStream(entry);
+        }
+    }
+
+    private static String readFirstLine(TarFile archive, TarArchiveEntry entry) {
+        try {
+            Scanner scanner = new Scanner(archive.getInputStream(entry));
+            return scanner.hasNextLine() ? scanner.nextLine() : "";
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
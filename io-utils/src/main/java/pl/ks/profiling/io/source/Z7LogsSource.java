@@ -2,25 +2,27 @@ package pl.ks.profiling.io.source;
 
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
-import pl.ks.profiling.io.FilesConcatenation;
 
 import java.io.*;
 import java.util.List;
-import java.util.Scanner;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class Z7LogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
+    private static final int SIGNATURE_LENGTH = 6;
+
     private final File file;
+    private final SevenZFile archiveFile;
+    private SpilledEntries spilledEntries;
 
     public Z7LogsSource(File file, Function<String, U> extractCompareObject) throws IOException {
         this.file = file;
-        SevenZFile archiveFile = new SevenZFile(file);
+        this.archiveFile = new SevenZFile(file);
         List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) (archiveFile.getEntries());
         this.totalNumberOfFiles = entries.size();
         this.files = getFiles(file, entries);
         this.inputStream = SourceCommons.mergeIntertwined(getSortedEntriesInputStreams(archiveFile, extractCompareObject));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.reader = new BufferedReader(new InputStreamReader(getInputStream()), SourceCommons.BUFFER_SIZE);
     }
 
     private List<LogSourceFile> getFiles(File file, List<SevenZArchiveEntry> entries) {
@@ -28,7 +30,16 @@ public class Z7LogsSource<U extends Comparable<? super U>> extends LogsSourceBas
     }
 
     public static boolean supports(File file) {
-        return file.getName().endsWith(".7z");
+        return file.getName().endsWith(".7z") || SevenZFile.matches(SourceCommons.readHeader(file, SIGNATURE_LENGTH), SIGNATURE_LENGTH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        archiveFile.close();
+        if (spilledEntries != null) {
+            spilledEntries.close();
+        }
     }
 
     @Override
@@ -36,50 +47,69 @@ public class Z7LogsSource<U extends Comparable<? super U>> extends LogsSourceBas
         return this.file.getName();
     }
 
-    private List<InputStream> getSortedEntriesInputStreams(SevenZFile archiveFile, Function<String, U> extractCompareObject) {
+    private List<InputStream> getSortedEntriesInputStreams(SevenZFile archiveFile, Function<String, U> extractCompareObject) throws IOException {
         List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) (archiveFile.getEntries());
         if (entries.size() == 1) {
             return List.of(new Z7LogsSource.LazySevenZInputStream(archiveFile, entries.get(0), this::startNextFileProcessing));
         }
-        List<SevenZArchiveEntry> sorted = FilesConcatenation.sortBy(entries, e -> extractCompareObject.apply(readFirstLine(archiveFile, e)));
-        return sorted.stream().map(e -> new Z7LogsSource.LazySevenZInputStream(archiveFile, e, this::startNextFileProcessing)).collect(Collectors.toList());
+        spilledEntries = new SpilledEntries(() -> new SequentialSevenZArchive(new SevenZFile(file)));
+        return spilledEntries.sortedInputStreams(extractCompareObject, this::startNextFileProcessing);
     }
 
     private void startNextFileProcessing() {
         this.currentFileNumber++;
     }
 
-    private static String readFirstLine(SevenZFile sevenZFile, SevenZArchiveEntry entry) {
-        try {
-            return readFirstLine(sevenZFile.getInputStream(entry));
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
+    private static class SequentialSevenZArchive extends InputStream implements SpilledEntries.SequentialArchive {
+        private final SevenZFile file;
+        private SevenZArchiveEntry entry;
+
+        private SequentialSevenZArchive(SevenZFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream nextEntry() throws IOException {
+            do {
+                entry = file.getNextEntry();
+            } while (entry != null && entry.isDirectory());
+            return entry == null ? null : this;
         }
-    }
 
-    private static String readFirstLine(InputStream inputStream) {
-        return new Scanner(inputStream).nextLine();
+        @Override
+        public String entryName() {
+            return entry.getName();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return file.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return file.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
     }
 
-    static class LazySevenZInputStream extends InputStream {
+    static class LazySevenZInputStream extends LazyInputStream {
         private final SevenZArchiveEntry entry;
         private final SevenZFile file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
 
         public LazySevenZInputStream(SevenZFile file, SevenZArchiveEntry entry, Runnable notifyStart) {
+            super(notifyStart);
             this.entry = entry;
             this.file = file;
-            this.notifyStart = notifyStart;
         }
 
         @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = file.getInputStream(entry);
-                notifyStart.run();
-            }
-            return innerInputStream.read();
+        InputStream open() throws IOException {
+            return file.getInputStream(entry);
         }
     }
 }
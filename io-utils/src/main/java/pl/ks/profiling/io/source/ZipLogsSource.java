@@ -1,6 +1,7 @@
 package pl.ks.profiling.io.source;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import pl.ks.profiling.io.FilesConcatenation;
 
@@ -12,20 +13,29 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class ZipLogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
+    private static final int SIGNATURE_LENGTH = 4;
+
     private final File file;
+    private final ZipFile archiveFile;
 
     public ZipLogsSource(File file, Function<String, U> extractCompareObject) throws IOException {
         this.file = file;
-        ZipFile archiveFile = new ZipFile(file);
+        this.archiveFile = new ZipFile(file);
         List<ZipArchiveEntry> entries = Collections.list(archiveFile.getEntries());
         this.files = getFiles(file, entries);
         this.totalNumberOfFiles = entries.size();
         this.inputStream = SourceCommons.mergeIntertwined(getSortedEntriesInputStreams(archiveFile, extractCompareObject));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.reader = new BufferedReader(new InputStreamReader(getInputStream()), SourceCommons.BUFFER_SIZE);
     }
 
     public static boolean supports(File file) {
-        return file.getName().endsWith(".zip");
+        return file.getName().endsWith(".zip") || ZipArchiveInputStream.matches(SourceCommons.readHeader(file, SIGNATURE_LENGTH), SIGNATURE_LENGTH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        archiveFile.close();
     }
 
     @Override
@@ -47,25 +57,19 @@ public class ZipLogsSource<U extends Comparable<? super U>> extends LogsSourceBa
         this.currentFileNumber++;
     }
 
-    static class LazyZipInputStream extends InputStream {
+    static class LazyZipInputStream extends LazyInputStream {
         private final ZipArchiveEntry entry;
         private final ZipFile file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
 
         public LazyZipInputStream(ZipFile file, ZipArchiveEntry entry, Runnable notifyStart) {
+            super(notifyStart);
             this.entry = entry;
             this.file = file;
-            this.notifyStart = notifyStart;
         }
 
         @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = file.getInputStream(entry);
-                notifyStart.run();
-            }
-            return innerInputStream.read();
+        InputStream open() throws IOException {
+            return file.getInputStream(entry);
         }
     }
 
@@ -15,6 +15,7 @@
  */
 package pl.ks.profiling.io;
 
+import org.apache.commons.compress.compressors.CompressorStreamFactory
 import spock.lang.Specification
 
 import java.nio.file.Files
@@ -84,6 +85,27 @@ some next file"""
 some next file"""
     }
 
+    def "should concatenate files into #compression compressed output reporting progress"() {
+        given:
+        File outputFile = createTemporaryFile("filesConcatenationSpec")
+        List<File> files = [getFile("concatenation/fileWithNewLine.log"), getFile("concatenation/nextFile.log")]
+        List<ConcatenationProgress> progress = []
+
+        when:
+        FilesConcatenation.concatenate(files, outputFile, compression, { progress << it })
+
+        then:
+        new CompressorStreamFactory().createCompressorInputStream(new BufferedInputStream(new FileInputStream(outputFile))).text == """file with new line
+
+some next file"""
+        progress*.currentFileNumber == [1, 1, 2]
+        progress.last().processedBytes == files.sum { it.length() }
+        progress.last().allFilesSizeBytes == files.sum { it.length() }
+
+        where:
+        compression << [OutputCompression.GZIP, OutputCompression.ZSTD, OutputCompression.XZ]
+    }
+
     private static String concatenateFiles(String... filesPath) {
         File outputFile = createTemporaryFile("filesConcatenationSpec")
         List<File> files = (filesPath as List<String>).collect{getFile(it)}
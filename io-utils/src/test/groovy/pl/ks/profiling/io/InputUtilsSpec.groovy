@@ -15,6 +15,12 @@
  */
 package pl.ks.profiling.io
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import org.apache.commons.compress.compressors.CompressorStreamFactory
+import pl.ks.profiling.io.source.LineBuffer
+import pl.ks.profiling.io.source.TarLogsSource
+
 import java.util.function.Function
 
 import static pl.ks.profiling.io.TestFileUtils.getFile
@@ -83,6 +89,133 @@ class InputUtilsSpec extends Specification {
 [2020-12-21T01:04:49.436+0000][30.123s][info ][gc,heap              ] file.log.0"""
     }
 
+    def "should load sorted files from #compression tar file detected by content"() {
+        given:
+        File tar = createTar(compression, files)
+
+        when:
+        def logsSource = InputUtils.getInputStream([tar], TimestampTestUtils.&getTimeStamp, null)
+        String streamContent = readStream(logsSource.inputStream)
+
+        then:
+        streamContent == """[2020-12-21T01:04:59.827+0000][10.234s][debug][gc,humongous         ] file.log.1
+[2020-12-21T01:05:19.416+0000][15.0s][info ][gc,phases            ] file.log.2
+
+[2020-12-21T01:04:49.436+0000][30.123s][info ][gc,heap              ] file.log.0"""
+        logsSource.totalNumberOfFiles == 3
+        logsSource.numberOfFile == 3
+        logsSource.files[0].subfiles*.name == files*.name
+
+        cleanup:
+        logsSource?.close()
+
+        where:
+        compression << [null, CompressorStreamFactory.GZIP, CompressorStreamFactory.XZ, CompressorStreamFactory.BZIP2,
+                        CompressorStreamFactory.ZSTANDARD, CompressorStreamFactory.LZ4_FRAMED]
+    }
+
+    def "should spill only compressed tar entries out of order"() {
+        given:
+        File tar = createTar(CompressorStreamFactory.GZIP, entries.collect { files[it] })
+
+        when:
+        def logsSource = new TarLogsSource(tar, TimestampTestUtils.&getTimeStamp)
+        String streamContent = readStream(logsSource.inputStream)
+
+        then:
+        streamContent.readLines().findAll() == entries.sort { [1, 2, 0].indexOf(it) }.collect { files[it].readLines()[0] }
+        logsSource.@spilledEntries.spilledCount() == spilled
+
+        cleanup:
+        logsSource?.close()
+
+        where:
+        entries   | spilled
+        [0]       | 0
+        [1, 2, 0] | 0
+        [0, 1, 2] | 1
+    }
+
+    def "should read lines from #compression file detected by content"() {
+        given:
+        File compressed = TestFileUtils.createTemporaryFile("compressed")
+        compressed.withOutputStream { output ->
+            new CompressorStreamFactory().createCompressorOutputStream(compression, output).withStream { it << getFile("loading/file.log.1").bytes }
+        }
+
+        when:
+        def logsSource = InputUtils.getInputStream([compressed], TimestampTestUtils.&getTimeStamp, null)
+        List<String> lines = []
+        String line
+        while ((line = logsSource.readLine()) != null) {
+            lines.add(line)
+        }
+        logsSource.close()
+
+        then:
+        lines == getFile("loading/file.log.1").readLines()
+        logsSource.totalNumberOfFiles == 1
+
+        where:
+        compression << [CompressorStreamFactory.GZIP, CompressorStreamFactory.XZ, CompressorStreamFactory.BZIP2,
+                        CompressorStreamFactory.ZSTANDARD, CompressorStreamFactory.LZ4_FRAMED]
+    }
+
+    def "should read lines from compressed file"() {
+        given:
+        def logsSource = InputUtils.getInputStream([getFile("loading/" + fileName)], TimestampTestUtils.&getTimeStamp, null)
+
+        when:
+        List<String> lines = []
+        String line
+        while ((line = logsSource.readLine()) != null) {
+            lines.add(line)
+        }
+        logsSource.close()
+
+        then:
+        lines == ["[2020-12-21T01:04:59.827+0000][10.234s][debug][gc,humongous         ] file.log.1",
+                  "[2020-12-21T01:05:19.416+0000][15.0s][info ][gc,phases            ] file.log.2"]
+        logsSource.numberOfFile == 1
+        logsSource.totalNumberOfFiles == 1
+
+        where:
+        fileName << ["file.log.gz", "file.log.xz"]
+    }
+
+    def "should read the same lines into line buffer as buffered reader"() {
+        given:
+        File file = TestFileUtils.createTemporaryFile("line-buffer")
+        file.bytes = "first\r\nsecond\rthird\n\n${'x' * 100_000}\r".bytes
+        def logsSource = InputUtils.getInputStream([file] + files, Function.identity(), null)
+        def expected = new BufferedReader(new InputStreamReader(InputUtils.getInputStream([file] + files, Function.identity(), null).inputStream))
+
+        when:
+        List<String> lines = []
+        def lineBuffer = new LineBuffer()
+        while (logsSource.readLine(lineBuffer)) {
+            lines.add(lineBuffer.toString())
+        }
+
+        then:
+        lines == expected.readLines()
+    }
+
+    private static File createTar(String compression, List<File> entries) {
+        File tar = TestFileUtils.createTemporaryFile("tar")
+        tar.withOutputStream { output ->
+            OutputStream compressed = compression ? new CompressorStreamFactory().createCompressorOutputStream(compression, output) : output
+            new TarArchiveOutputStream(compressed).withStream { archive ->
+                entries.each { File entry ->
+                    archive.putArchiveEntry(new TarArchiveEntry(entry, entry.name))
+                    archive << entry.bytes
+                    archive.closeArchiveEntry()
+                }
+            }
+        }
+        return tar
+    }
+
     private static String readStream(InputStream stream) {
         return String.join("\n", new InputStreamReader(stream, StandardCharsets.UTF_8).readLines())
     }
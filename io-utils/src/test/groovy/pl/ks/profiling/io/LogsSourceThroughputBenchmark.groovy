@@ -0,0 +1,120 @@
+package pl.ks.profiling.io
+
+import groovy.transform.CompileStatic
+import pl.ks.profiling.io.source.LogsSource
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.function.Function
+
+/**
+ * Not run by surefire. Measures how fast rotated log files are read line by line:
+ * <pre>
+ * mvn -pl io-utils test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp io-utils/target/test-classes:io-utils/target/classes:$(cat io-utils/target/cp.txt) \
+ *     pl.ks.profiling.io.LogsSourceThroughputBenchmark [directory with rotated logs | size in MB to generate]
+ * </pre>
+ */
+@CompileStatic
+class LogsSourceThroughputBenchmark {
+    private static final int FILES_TO_GENERATE = 8
+    private static final int ROUNDS = 3
+
+    static void main(String[] args) {
+        List<File> files = args.length > 0 && new File(args[0]).isDirectory() ?
+                new File(args[0]).listFiles().findAll { it.isFile() }.toList() :
+                generate(args.length > 0 ? Long.parseLong(args[0]) : 2048L)
+        long totalBytes = (long) files.sum { File f -> f.length() }
+        println "Files: ${files.size()}, total size: ${totalBytes.intdiv(1024 * 1024)} MB"
+
+        ROUNDS.times { int round ->
+            measure("single byte read() wrappers", totalBytes) { singleByteStack(files) }
+            measure("LogsSource (bulk reads)   ", totalBytes) { linesFromLogsSource(files) }
+        }
+    }
+
+    private static void measure(String name, long totalBytes, Closure<Long> reading) {
+        long start = System.nanoTime()
+        long lines = reading.call()
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d
+        printf("%s: %,d lines in %.2fs, %.1f MB/s%n", name, lines, seconds, totalBytes / 1024d / 1024d / seconds)
+    }
+
+    private static long linesFromLogsSource(List<File> files) {
+        long lines = 0
+        LogsSource logsSource = InputUtils.getLogsSource(files, Function.identity())
+        try {
+            while (logsSource.readLine() != null) {
+                lines++
+            }
+        } finally {
+            logsSource.close()
+        }
+        return lines
+    }
+
+    private static long singleByteStack(List<File> files) {
+        List<InputStream> streams = []
+        files.each { File file ->
+            if (!streams.isEmpty()) {
+                streams.add(new ByteArrayInputStream("\n".bytes))
+            }
+            streams.add(new SingleByteFileInputStream(file))
+        }
+        long lines = 0
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new SequenceInputStream(new Vector<InputStream>(streams).elements())))
+        try {
+            while (reader.readLine() != null) {
+                lines++
+            }
+        } finally {
+            reader.close()
+        }
+        return lines
+    }
+
+    private static List<File> generate(long sizeMb) {
+        File directory = Files.createTempDirectory("logs-source-benchmark").toFile()
+        directory.deleteOnExit()
+        long bytesPerFile = (sizeMb * 1024 * 1024).intdiv(FILES_TO_GENERATE).longValue()
+        double uptime = 0
+        List<File> files = []
+        FILES_TO_GENERATE.times { int i ->
+            File file = new File(directory, "gc.log.${i}")
+            file.deleteOnExit()
+            file.withWriter(StandardCharsets.UTF_8.name()) { Writer writer ->
+                long written = 0
+                while (written < bytesPerFile) {
+                    uptime += 0.013
+                    String line = String.format(Locale.ROOT, "[2020-12-21T01:04:47.091+0000][%.3fs][info ][gc,phases      ] GC(%d)   Pre Evacuate Collection Set: 0.4ms%n", uptime, (long) (uptime * 10))
+                    writer.write(line)
+                    written += line.length()
+                }
+            }
+            files.add(file)
+        }
+        return files
+    }
+
+    private static class SingleByteFileInputStream extends InputStream {
+        private final File file
+        private InputStream inner
+
+        SingleByteFileInputStream(File file) {
+            this.file = file
+        }
+
+        @Override
+        int read() throws IOException {
+            if (inner == null) {
+                inner = new FileInputStream(file)
+            }
+            return inner.read()
+        }
+
+        @Override
+        void close() throws IOException {
+            inner?.close()
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pl.ks.profiling.io.source
+
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+
+import java.util.function.Function
+
+import static pl.ks.profiling.io.TestFileUtils.createTemporaryFile
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class MappedFileLogsSourceSpec extends Specification {
+    private List<File> files = [
+            getFile("concatenation/concatFile.0.log"),
+            getFile("concatenation/concatFile.1.log"),
+            getFile("concatenation/concatFile.2.log"),
+            getFile("concatenation/concatFile.3.log"),
+            getFile("concatenation/concatFile.4.log"),
+            getFile("concatenation/fileWithNewLine.log"),
+            getFile("concatenation/fileWithoutNewLine.log")]
+
+    def "should read the same lines as regular files source"() {
+        given:
+        def expected = new RegularFilesSource<>("test", files, Function.identity())
+        def mapped = new MappedFileLogsSource<>("test", files, Function.identity(), windowSize)
+
+        expect:
+        readLines(mapped) == readLines(expected)
+        mapped.numberOfFile == files.size()
+        mapped.numberOfLine == expected.numberOfLine
+
+        where:
+        windowSize << [1, 3, 7, 64, MappedFileLogsSource.DEFAULT_WINDOW_SIZE]
+    }
+
+    def "should sort files by first line"() {
+        given:
+        def expected = new RegularFilesSource<>("test", files.subList(0, 5), TimestampTestUtils.&getTimeStamp)
+        def mapped = new MappedFileLogsSource<>("test", files.subList(0, 5), TimestampTestUtils.&getTimeStamp, 5)
+
+        expect:
+        readLines(mapped) == readLines(expected)
+        mapped.files == expected.files
+    }
+
+    def "should treat carriage return before new line as part of line terminator"() {
+        given:
+        File file = createTemporaryFile("mapped-crlf")
+        file.bytes = "first\r\nsecond\r\n\r\nlast\r".bytes
+        def mapped = new MappedFileLogsSource<>("test", [file], Function.identity(), 2)
+
+        expect:
+        readLines(mapped) == ["first", "second", "", "last"]
+    }
+
+    def "should end lines at a lone carriage return like regular files source"() {
+        given:
+        File file = createTemporaryFile("mapped-cr")
+        file.bytes = "first\rsecond\r\n\rthird\n\rlast\r\n".bytes
+        def expected = new RegularFilesSource<>("test", [file], Function.identity())
+        def mapped = new MappedFileLogsSource<>("test", [file], Function.identity(), windowSize)
+
+        when:
+        List<String> lines = readLines(mapped)
+
+        then:
+        lines == ["first", "second", "", "third", "", "last"]
+        lines == readLines(expected)
+
+        where:
+        windowSize << [1, 2, 5, MappedFileLogsSource.DEFAULT_WINDOW_SIZE]
+    }
+
+    def "should expose mapped content as input stream"() {
+        given:
+        def expected = new RegularFilesSource<>("test", files, Function.identity())
+        def mapped = new MappedFileLogsSource<>("test", files, Function.identity(), 3)
+
+        expect:
+        mapped.inputStream.bytes == expected.inputStream.bytes
+    }
+
+    def "should split into chunks at line boundaries"() {
+        given:
+        def whole = new MappedFileLogsSource<>("test", files, Function.identity(), 5)
+        def expected = readLines(new MappedFileLogsSource<>("test", files, Function.identity(), 5))
+
+        when:
+        def chunks = whole.splitAtLineBoundaries(numberOfChunks)
+
+        then:
+        chunks.size() <= Math.max(numberOfChunks, 1)
+        chunks.collectMany { readLines(it) } == expected
+
+        where:
+        numberOfChunks << [0, 1, 2, 3, 5, 8, 13, 100]
+    }
+
+    private static List<String> readLines(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines.add(line)
+        }
+        source.close()
+        return lines
+    }
+}
@@ -0,0 +1,74 @@
+package pl.ks.profiling.io.source
+
+import spock.lang.Specification
+
+import java.util.function.Function
+
+import static pl.ks.profiling.io.TestFileUtils.createTemporaryFile
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class ReadAheadLogsSourceSpec extends Specification {
+    def "should read the same lines as the wrapped source"() {
+        given:
+        File file = createTemporaryFile("read-ahead")
+        file.bytes = "first\r\nsecond\rthird\n\n${'x' * 1000}\n${(1..500).join('\n')}".bytes
+        List<File> files = [file, getFile("concatenation/concatFile.0.log"), getFile("concatenation/fileWithoutNewLine.log")]
+        def expected = new RegularFilesSource<>("test", files, Function.identity())
+        def readAhead = new ReadAheadLogsSource(new RegularFilesSource<>("test", files, Function.identity()), batchSize, linesPerBatch)
+
+        when:
+        List<String> lines = readLines(readAhead)
+
+        then:
+        lines == readLines(expected)
+        readAhead.numberOfLine == expected.numberOfLine
+        readAhead.numberOfFile == files.size()
+
+        where:
+        batchSize | linesPerBatch
+        16        | 3
+        64        | 1
+        1024      | 100
+        64 * 1024 | 8 * 1024
+    }
+
+    def "should rethrow failure of the wrapped source"() {
+        given:
+        LogsSource failing = Mock(LogsSource) {
+            readLine(_ as LineBuffer) >> { LineBuffer line -> line.set("line"); true } >> { throw new IOException("broken") }
+        }
+        def readAhead = new ReadAheadLogsSource(failing)
+
+        when:
+        readLines(readAhead)
+
+        then:
+        IOException e = thrown()
+        e.cause.message == "broken"
+    }
+
+    def "should rethrow error of the wrapped source instead of waiting for more lines"() {
+        given:
+        LogsSource failing = Mock(LogsSource) {
+            readLine(_ as LineBuffer) >> { LineBuffer line -> line.set("line"); true } >> { throw new OutOfMemoryError("broken") }
+        }
+        def readAhead = new ReadAheadLogsSource(failing)
+
+        when:
+        readLines(readAhead)
+
+        then:
+        OutOfMemoryError e = thrown()
+        e.message == "broken"
+    }
+
+    private static List<String> readLines(LogsSource source) {
+        List<String> lines = []
+        LineBuffer line = new LineBuffer()
+        while (source.readLine(line)) {
+            lines.add(line.toString())
+        }
+        source.close()
+        return lines
+    }
+}
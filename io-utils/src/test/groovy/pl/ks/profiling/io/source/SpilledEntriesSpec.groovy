@@ -0,0 +1,71 @@
+package pl.ks.profiling.io.source
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.util.function.Function
+
+class SpilledEntriesSpec extends Specification {
+    def "should stream entries already in order without spilling them"() {
+        given:
+        int opened = 0
+        def entries = new SpilledEntries({ opened++; archive(["a": "1\nfirst", "b": "2\nsecond", "c": "3\nthird"]) })
+
+        when:
+        String content = read(entries.sortedInputStreams(Function.identity(), {}))
+
+        then:
+        content == "1\nfirst\n2\nsecond\n3\nthird"
+        entries.names() == ["a", "b", "c"]
+        entries.spilledCount() == 0
+        opened == 2
+
+        cleanup:
+        entries.close()
+    }
+
+    def "should spill only entries met before their turn"() {
+        given:
+        def entries = new SpilledEntries({ archive(["c": "3\nthird", "a": "1\nfirst", "d": "4\nfourth", "b": "2\nsecond"]) })
+
+        when:
+        String content = read(entries.sortedInputStreams(Function.identity(), {}))
+
+        then:
+        content == "1\nfirst\n2\nsecond\n3\nthird\n4\nfourth"
+        entries.names() == ["c", "a", "d", "b"]
+        entries.spilledCount() == 2
+
+        cleanup:
+        entries.close()
+    }
+
+    private static String read(List<InputStream> streams) {
+        return new String(SourceCommons.mergeIntertwined(streams).readAllBytes(), StandardCharsets.UTF_8)
+    }
+
+    private static SpilledEntries.SequentialArchive archive(Map<String, String> entries) {
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator()
+        String name = null
+        return new SpilledEntries.SequentialArchive() {
+            @Override
+            InputStream nextEntry() {
+                if (!iterator.hasNext()) {
+                    return null
+                }
+                def entry = iterator.next()
+                name = entry.key
+                return new ByteArrayInputStream(entry.value.getBytes(StandardCharsets.UTF_8))
+            }
+
+            @Override
+            String entryName() {
+                return name
+            }
+
+            @Override
+            void close() {
+            }
+        }
+    }
+}
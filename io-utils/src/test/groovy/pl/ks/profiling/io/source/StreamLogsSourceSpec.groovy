@@ -0,0 +1,109 @@
+package pl.ks.profiling.io.source
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import org.apache.commons.compress.compressors.CompressorStreamFactory
+import pl.ks.profiling.io.TeeInputStream
+import spock.lang.Specification
+
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class StreamLogsSourceSpec extends Specification {
+    private File log = getFile("concatenation/concatFile.0.log")
+
+    def "should read #compression stream while keeping a copy of it"() {
+        given:
+        byte[] uploaded = compression ? compress(compression, log.bytes) : log.bytes
+        ByteArrayOutputStream copy = new ByteArrayOutputStream()
+        TeeInputStream tee = new TeeInputStream(new ByteArrayInputStream(uploaded), copy)
+        InputStream markable = new BufferedInputStream(tee, 16)
+
+        expect:
+        StreamLogsSource.supports(markable)
+
+        when:
+        def source = new StreamLogsSource("uploaded.log", markable)
+        List<String> lines = []
+        LineBuffer line = new LineBuffer()
+        while (source.readLine(line)) {
+            lines.add(line.toString())
+        }
+        source.close()
+
+        then:
+        lines == log.readLines()
+        copy.toByteArray() == uploaded
+        tee.completion().isDone() && !tee.completion().isCompletedExceptionally()
+
+        where:
+        compression << [null, CompressorStreamFactory.GZIP, CompressorStreamFactory.XZ, CompressorStreamFactory.BZIP2,
+                        CompressorStreamFactory.ZSTANDARD, CompressorStreamFactory.LZ4_FRAMED]
+    }
+
+    def "should fail reading and stop copying once aborted"() {
+        given:
+        byte[] uploaded = (1..100_000).collect { "line ${it}" }.join("\n").bytes
+        ByteArrayOutputStream copy = new ByteArrayOutputStream()
+        TeeInputStream tee = new TeeInputStream(new ByteArrayInputStream(uploaded), copy)
+        def source = new StreamLogsSource("uploaded.log", new BufferedInputStream(tee, 16))
+        source.readLine()
+
+        when:
+        tee.abort(new IOException("timeout"))
+        while (source.readLine() != null) {
+        }
+
+        then:
+        IOException e = thrown()
+        e.cause.message == "timeout"
+        tee.completion().isCompletedExceptionally()
+        copy.size() < uploaded.length
+    }
+
+    def "should complete the copy exceptionally when reading fails"() {
+        given:
+        InputStream failing = new InputStream() {
+            @Override
+            int read() throws IOException {
+                throw new IOException("disconnected")
+            }
+        }
+        TeeInputStream tee = new TeeInputStream(failing, new ByteArrayOutputStream())
+
+        when:
+        tee.read(new byte[16])
+
+        then:
+        thrown(IOException)
+        tee.completion().isCompletedExceptionally()
+    }
+
+    def "should not stream archives"() {
+        given:
+        InputStream markable = new BufferedInputStream(new ByteArrayInputStream(archive), 16)
+
+        expect:
+        !StreamLogsSource.supports(markable)
+        markable.bytes == archive
+
+        where:
+        archive << [getFile("loading/file.log.zip").bytes, getFile("loading/file.log.7z").bytes, tar(null), tar(CompressorStreamFactory.GZIP)]
+    }
+
+    private static byte[] compress(String compression, byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new CompressorStreamFactory().createCompressorOutputStream(compression, compressed).withStream { it << content }
+        return compressed.toByteArray()
+    }
+
+    private static byte[] tar(String compression) {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream()
+        new TarArchiveOutputStream(archive).withStream {
+            File entry = getFile("loading/file.log.0")
+            it.putArchiveEntry(new TarArchiveEntry(entry, entry.name))
+            it << entry.bytes
+            it.closeArchiveEntry()
+        }
+        return compression ? compress(compression, archive.toByteArray()) : archive.toByteArray()
+    }
+}
@@ -0,0 +1,156 @@
+package pl.ks.profiling.io.source
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.function.Function
+
+class TailingLogsSourceSpec extends Specification {
+    @TempDir
+    Path directory
+
+    def "should read lines as they are appended holding back unfinished line"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        log.text = "first\nsecond\r\nthi"
+        def source = new TailingLogsSource(log, Function.identity(), 10)
+
+        expect:
+        readAvailableLines(source) == ["first", "second"]
+
+        when:
+        log << "rd\r"
+
+        then:
+        readAvailableLines(source) == ["third"]
+
+        when:
+        log << "\nfourth\n"
+
+        then:
+        readAvailableLines(source) == ["fourth"]
+        source.numberOfLine == 4
+
+        cleanup:
+        source.close()
+    }
+
+    def "should read rotated files first and follow active file across rotations"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        directory.resolve("gc.log.1").toFile().text = "[2.000s] rotated 1\n"
+        directory.resolve("gc.log.0").toFile().text = "[1.000s] rotated 0\n"
+        log.text = "[3.000s] active\n"
+        def source = new TailingLogsSource(log, { String line -> line.substring(1, 6) }, 10)
+
+        expect:
+        readAvailableLines(source) == ["[1.000s] rotated 0", "[2.000s] rotated 1", "[3.000s] active"]
+
+        when:
+        log << "[4.000s] before rotation"
+        Files.move(log.toPath(), directory.resolve("gc.log.2"))
+        log.text = "[5.000s] after rotation\n"
+
+        then:
+        readAvailableLines(source) == ["[4.000s] before rotation", "[5.000s] after rotation"]
+        source.files*.name == ["gc.log.0", "gc.log.1", "gc.log", "gc.log"]
+        source.numberOfFile == 4
+
+        cleanup:
+        source.close()
+    }
+
+    def "should read every file rotated out between two reads"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        directory.resolve("gc.log.0").toFile().text = "[1.000s] rotated 0\n"
+        log.text = "[2.000s] active\n"
+        def source = new TailingLogsSource(log, { String line -> line.substring(1, 6) }, 10)
+
+        expect:
+        readAvailableLines(source) == ["[1.000s] rotated 0", "[2.000s] active"]
+
+        when:
+        log << "[3.000s] before first rotation\n"
+        Files.move(log.toPath(), directory.resolve("gc.log.1"))
+        log.text = "[4.000s] between rotations\n"
+        Files.move(log.toPath(), directory.resolve("gc.log.2"))
+        log.text = "[5.000s] after second rotation\n"
+
+        then:
+        readAvailableLines(source) == ["[3.000s] before first rotation", "[4.000s] between rotations", "[5.000s] after second rotation"]
+        source.files*.name == ["gc.log.0", "gc.log", "gc.log.2", "gc.log"]
+
+        cleanup:
+        source.close()
+    }
+
+    def "should start again from beginning of truncated file"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        log.text = "long line before truncation\n"
+        def source = new TailingLogsSource(log, Function.identity(), 10)
+
+        expect:
+        readAvailableLines(source) == ["long line before truncation"]
+
+        when:
+        log.text = "new\n"
+
+        then:
+        readAvailableLines(source) == ["new"]
+
+        cleanup:
+        source.close()
+    }
+
+    def "should wait for active file to be created"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        def source = new TailingLogsSource(log, Function.identity(), 10)
+
+        expect:
+        readAvailableLines(source) == []
+
+        when:
+        source.awaitChange()
+        log.text = "created\n"
+
+        then:
+        readAvailableLines(source) == ["created"]
+
+        cleanup:
+        source.close()
+    }
+
+    def "should give content written so far as input stream"() {
+        given:
+        File log = directory.resolve("gc.log").toFile()
+        directory.resolve("gc.log.0").toFile().text = "[1.000s] rotated 0"
+        log.text = "[2.000s] active\n"
+        def source = new TailingLogsSource(log, { String line -> line.substring(1, 6) }, 10)
+
+        expect:
+        new String(source.inputStream.readAllBytes()) == "[1.000s] rotated 0\n[2.000s] active\n"
+
+        when:
+        log << "[3.000s] appended\n"
+
+        then:
+        new String(source.inputStream.readAllBytes()) == "[3.000s] appended\n"
+
+        cleanup:
+        source.close()
+    }
+
+    private static List<String> readAvailableLines(LogsSource source) {
+        List<String> lines = []
+        LineBuffer line = new LineBuffer()
+        while (source.readLine(line)) {
+            lines.add(line.toString())
+        }
+        return lines
+    }
+}
@@ -13,6 +13,7 @@ import pl.ks.profiling.gui.commons.Table;
 import pl.ks.profiling.io.InputUtils;
 import pl.ks.profiling.io.source.LogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParsingOptions;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.StatsService;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.xchart.commons.PresentationFontProvider;
@@ -48,7 +49,11 @@ public class AnalyzerCliApplication {
         }
 
         LogsSource logsSource = InputUtils.getLogsSource(List.of(new File(args[0])), ParserUtils::getTimeStamp);
-        statsService.createAllStatsUnifiedLogger(logsSource, parsingProgress -> {
+        ParsingOptions parsingOptions = ParsingOptions.SEQUENTIAL
+                .withParallelism(Runtime.getRuntime().availableProcessors())
+                .withReadAhead(true)
+                .withParserThreads(Runtime.getRuntime().availableProcessors());
+        statsService.createAllStatsUnifiedLogger(logsSource, parsingOptions, parsingProgress -> {
         }, jvmLogFile -> {
             createReport(jvmLogFile, resultDir);
         });
@@ -17,5 +17,10 @@ package pl.ks.profiling.safepoint.analyzer.commons;
 
 public interface FileParser<T> {
     void parseLine(String line);
+
+    default void parseLine(CharSequence line) {
+        parseLine(line.toString());
+    }
+
     T fetchData();
 }
@@ -0,0 +1,12 @@
+package pl.ks.profiling.safepoint.analyzer.commons;
+
+/**
+ * A parser whose state can be built from independent parts of one log and merged back.
+ * Parts are merged in log order: {@code first.merge(second)} leaves {@code first} with the
+ * state it would have after parsing both parts, and merging is associative.
+ */
+public interface MergeableFileParser<T, P extends MergeableFileParser<T, P>> extends FileParser<T> {
+    P newPartialParser();
+
+    void merge(P following);
+}
@@ -0,0 +1,89 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import pl.ks.profiling.io.source.LineBuffer;
+import pl.ks.profiling.io.source.LogsSource;
+
+class ChunkedParsingTask extends RecursiveTask<UnifiedLogParsers> {
+    private final List<LogsSource> chunks;
+    private final int from;
+    private final int to;
+    private final Progress progress;
+    private final SymbolTable symbols;
+
+    ChunkedParsingTask(List<LogsSource> chunks, Progress progress) {
+        this(chunks, 0, chunks.size(), progress, new SymbolTable());
+    }
+
+    private ChunkedParsingTask(List<LogsSource> chunks, int from, int to, Progress progress, SymbolTable symbols) {
+        this.chunks = chunks;
+        this.from = from;
+        this.to = to;
+        this.progress = progress;
+        this.symbols = symbols;
+    }
+
+    @Override
+    protected UnifiedLogParsers compute() {
+        if (to - from == 1) {
+            return parse(chunks.get(from), from == 0 ? UnifiedLogParsers.forWholeLog(symbols) : UnifiedLogParsers.forWholeLog(symbols).forFollowingChunk());
+        }
+        int middle = (from + to) >>> 1;
+        ChunkedParsingTask right = new ChunkedParsingTask(chunks, middle, to, progress, symbols);
+        right.fork();
+        UnifiedLogParsers parsers = new ChunkedParsingTask(chunks, from, middle, progress, symbols).compute();
+        parsers.merge(right.join());
+        return parsers;
+    }
+
+    private UnifiedLogParsers parse(LogsSource chunk, UnifiedLogParsers parsers) {
+        try (LogsSource logsSource = chunk) {
+            LineBuffer line = new LineBuffer();
+            while (logsSource.readLine(line)) {
+                parsers.parseLine(line);
+                progress.lineParsed(logsSource.getNumberOfFile());
+            }
+            return parsers;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    static class Progress {
+        private final AtomicLong processedLines = new AtomicLong();
+        private final AtomicInteger currentFileNumber = new AtomicInteger();
+        private final int totalFiles;
+        private final int throttle;
+        private final Consumer<ParsingProgress> notificationConsumer;
+        private final long startTimestamp;
+
+        Progress(int totalFiles, int throttle, Consumer<ParsingProgress> notificationConsumer, long startTimestamp) {
+            this.totalFiles = totalFiles;
+            this.throttle = throttle;
+            this.notificationConsumer = notificationConsumer;
+            this.startTimestamp = startTimestamp;
+        }
+
+        private void lineParsed(int fileNumber) {
+            currentFileNumber.accumulateAndGet(fileNumber, Math::max);
+            if (processedLines.incrementAndGet() % throttle == 0) {
+                notify(false);
+            }
+        }
+
+        synchronized void notify(boolean completed) {
+            long durationInSeconds = (System.currentTimeMillis() - startTimestamp) / 1000;
+            long numberOfLine = processedLines.get();
+            notificationConsumer.accept(new ParsingProgress(
+                    numberOfLine,
+                    completed,
+                    totalFiles,
+                    currentFileNumber.get(),
+                    numberOfLine / (durationInSeconds + 1)));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import pl.ks.profiling.io.source.LineBuffer;
+
+/**
+ * Parses the lines published by a single reader with groups of {@link UnifiedLogParsers} working on their own
+ * threads. Lines are routed once by the reader and copied into batches of a ring shared by all the groups; a batch
+ * is reused once every group is done with it. The parsers may be read after {@link #complete()}.
+ */
+final class FanOutParsing implements AutoCloseable {
+    private static final int SLOTS = 8;
+    private static final int BATCH_SIZE = 256 * 1024;
+    private static final int LINES_PER_BATCH = 8 * 1024;
+
+    private final UnifiedLogParsers parsers;
+    private final Batch[] ring = new Batch[SLOTS];
+    private final Thread[] threads;
+    private final long[] consumed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchPublished = lock.newCondition();
+    private final Condition batchConsumed = lock.newCondition();
+
+    private Batch current;
+    private long published;
+    private boolean completed;
+    private boolean stopped;
+    private Throwable failure;
+
+    FanOutParsing(UnifiedLogParsers parsers, int threadCount) {
+        this.parsers = parsers;
+        for (int i = 0; i < SLOTS; i++) {
+            ring[i] = new Batch(BATCH_SIZE, LINES_PER_BATCH);
+        }
+        int[] groups = UnifiedLogParsers.parserGroups(threadCount);
+        threads = new Thread[groups.length];
+        consumed = new long[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            int consumer = i;
+            int group = groups[i];
+            threads[i] = new Thread(() -> consume(consumer, group), "log-parser-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    void publish(LineBuffer line) {
+        int route = parsers.route(line);
+        if (route == 0) {
+            return;
+        }
+        if (current != null && !current.fits(line)) {
+            publishCurrent();
+        }
+        if (current == null) {
+            current = acquire();
+        }
+        current.add(line, route);
+    }
+
+    /**
+     * Waits until all the published lines are parsed.
+     */
+    void complete() {
+        if (current != null) {
+            publishCurrent();
+        }
+        lock.lock();
+        try {
+            completed = true;
+            batchPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        join();
+        if (failure != null) {
+            throw new RuntimeException("Cannot parse log lines", failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (completed) {
+                return;
+            }
+            stopped = true;
+            batchPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        join();
+    }
+
+    private Batch acquire() {
+        lock.lock();
+        try {
+            while (failure == null && published - SLOTS >= Arrays.stream(consumed).min().orElseThrow()) {
+                batchConsumed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new RuntimeException("Cannot parse log lines", failure);
+            }
+            Batch batch = ring[(int) (published % SLOTS)];
+            batch.clear();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publishCurrent() {
+        lock.lock();
+        try {
+            published++;
+            current = null;
+            batchPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void consume(int consumer, int group) {
+        LineBuffer line = new LineBuffer();
+        try {
+            for (long next = 0; ; next++) {
+                if (!awaitBatch(next)) {
+                    return;
+                }
+                ring[(int) (next % SLOTS)].parse(parsers, group, line);
+                lock.lock();
+                try {
+                    consumed[consumer] = next + 1;
+                    batchConsumed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Throwable e) {
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = e;
+                }
+                batchConsumed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean awaitBatch(long batch) {
+        lock.lock();
+        try {
+            while (published <= batch && !completed && !stopped) {
+                batchPublished.awaitUninterruptibly();
+            }
+            return published > batch && !stopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void join() {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for " + thread.getName(), e);
+            }
+        }
+    }
+
+    private static class Batch {
+        private char[] chars;
+        private final int[] lineEnds;
+        private final int[] routes;
+        private int lineCount;
+
+        private Batch(int size, int lines) {
+            this.chars = new char[size];
+            this.lineEnds = new int[lines];
+            this.routes = new int[lines];
+        }
+
+        private void clear() {
+            lineCount = 0;
+        }
+
+        private int size() {
+            return lineCount == 0 ? 0 : lineEnds[lineCount - 1];
+        }
+
+        private boolean fits(LineBuffer line) {
+            return lineCount == 0 || (lineCount < lineEnds.length && size() + line.length() <= chars.length);
+        }
+
+        private void add(LineBuffer line, int route) {
+            int start = size();
+            if (start + line.length() > chars.length) {
+                chars = Arrays.copyOf(chars, start + line.length());
+            }
+            line.getChars(0, line.length(), chars, start);
+            lineEnds[lineCount] = start + line.length();
+            routes[lineCount++] = route;
+        }
+
+        private void parse(UnifiedLogParsers parsers, int group, LineBuffer line) {
+            for (int i = 0; i < lineCount; i++) {
+                int route = routes[i] & group;
+                if (route != 0) {
+                    int start = i == 0 ? 0 : lineEnds[i - 1];
+                    line.view(chars, start, lineEnds[i] - start);
+                    parsers.parseLine(line, route);
+                }
+            }
+        }
+    }
+}
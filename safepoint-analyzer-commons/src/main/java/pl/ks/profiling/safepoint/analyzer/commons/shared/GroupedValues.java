@@ -0,0 +1,98 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+/**
+ * Values of many statistics gathered in two passes: every value goes to the cell of its group and key, e.g. a GC
+ * phase and one of its sub-phases. The first pass only counts the values of every cell, either adding them or
+ * {@link #expect(int, int, int) expecting} their number, {@link #allocate()} then sizes the cells exactly and the
+ * second pass adds the values, this time kept in the cells. The {@link OneFiledAllStats} of a cell are computed when
+ * asked for, once all values were added, and the values of the cell are released then. Not thread safe.
+ */
+public final class GroupedValues {
+    private static final double[] NO_VALUES = new double[0];
+
+    private final int keys;
+    private final double[][] values;
+    private final int[] sizes;
+    private final int[] counts;
+    private boolean allocated;
+
+    public GroupedValues(int groups, int keys) {
+        this.keys = keys;
+        this.values = new double[groups * keys][];
+        this.sizes = new int[groups * keys];
+        this.counts = new int[groups * keys];
+    }
+
+    /**
+     * Counts values of the cell to be added after {@link #allocate()}, for a first pass that knows the counts without
+     * going through the values.
+     */
+    public void expect(int group, int key, int count) {
+        if (allocated) {
+            throw new IllegalStateException("Already allocated");
+        }
+        sizes[cell(group, key)] += count;
+    }
+
+    /**
+     * Counts the value before {@link #allocate()}, keeps it after.
+     */
+    public void add(int group, int key, double value) {
+        int cell = cell(group, key);
+        if (!allocated) {
+            sizes[cell]++;
+            return;
+        }
+        if (counts[cell] == sizes[cell]) {
+            throw new IllegalStateException("More values added than counted, group: " + group + ", key: " + key);
+        }
+        values[cell][counts[cell]++] = value;
+    }
+
+    /**
+     * Ends the counting pass, every cell gets room for exactly the values counted in it.
+     */
+    public void allocate() {
+        if (allocated) {
+            throw new IllegalStateException("Already allocated");
+        }
+        allocated = true;
+        for (int cell = 0; cell < sizes.length; cell++) {
+            values[cell] = sizes[cell] == 0 ? NO_VALUES : new double[sizes[cell]];
+        }
+    }
+
+    public int count(int group, int key) {
+        return counts[cell(group, key)];
+    }
+
+    /**
+     * Values of the cell in the order they were added, not copied.
+     */
+    public double[] values(int group, int key) {
+        int cell = cell(group, key);
+        if (!allocated || values[cell] == null) {
+            throw new IllegalStateException("No values of group: " + group + ", key: " + key + ", not allocated or already released");
+        }
+        if (counts[cell] != sizes[cell]) {
+            throw new IllegalStateException("Fewer values added than counted, group: " + group + ", key: " + key);
+        }
+        return values[cell];
+    }
+
+    /**
+     * Stats of the values of the cell, which are released afterwards.
+     */
+    public OneFiledAllStats stats(int group, int key) {
+        OneFiledAllStats stats = OneFiledAllStatsUtil.create(values(group, key));
+        values[cell(group, key)] = null;
+        return stats;
+    }
+
+    private int cell(int group, int key) {
+        if (key < 0 || key >= keys) {
+            throw new IndexOutOfBoundsException("Key: " + key + ", keys: " + keys);
+        }
+        return group * keys + key;
+    }
+}
@@ -0,0 +1,42 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.io.IOException;
+import pl.ks.profiling.io.source.LineBuffer;
+import pl.ks.profiling.io.source.LogsSource;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
+
+/**
+ * Parsing of a log that keeps growing, e.g. followed with {@link pl.ks.profiling.io.source.TailingLogsSource}. The
+ * parsers live as long as the parsing does, so every {@link #refresh()} parses only the lines written since the
+ * previous one. Only line parsing is incremental: once any GC cycle or safepoint was added, the statistics and all the
+ * pages are computed again from scratch over the whole log read so far, so that part of a refresh costs as much as
+ * analysing the whole log once more and grows with it. A refresh that added nothing reuses the previous statistics.
+ * Parsed data of the returned {@link JvmLogFile} keeps growing with later refreshes, its pages do not.
+ */
+public class IncrementalParsing implements AutoCloseable {
+    private final StatsService statsService;
+    private final LogsSource logsSource;
+    private final UnifiedLogParsers parsers = UnifiedLogParsers.forWholeLog();
+    private final LineBuffer line = new LineBuffer();
+
+    IncrementalParsing(StatsService statsService, LogsSource logsSource) {
+        this.statsService = statsService;
+        this.logsSource = logsSource;
+    }
+
+    public synchronized JvmLogFile refresh() {
+        try {
+            while (logsSource.readLine(line)) {
+                parsers.parseLine(line);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        return statsService.createJvmLogFile(logsSource, logsSource.getNumberOfLine(), parsers);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        logsSource.close();
+    }
+}
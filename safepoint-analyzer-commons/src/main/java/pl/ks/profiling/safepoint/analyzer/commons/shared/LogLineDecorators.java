@@ -0,0 +1,120 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+/**
+ * Decorators of a unified logging line, e.g. {@code [100.000s][info ][gc,start     ] GC(0) ...}, read once per line.
+ * Tags are always the last decorator, so they are the last bracket before the message. The instance is reused for
+ * every line and keeps offsets only.
+ */
+final class LogLineDecorators {
+    private static final String[] LEVELS = {"trace", "debug", "info", "warning", "error"};
+
+    private CharSequence line;
+    private int tagsStart;
+    private int tagsEnd;
+    private boolean decorated;
+
+    boolean parse(CharSequence line) {
+        this.line = line;
+        tagsStart = -1;
+        tagsEnd = -1;
+        decorated = false;
+
+        int lastStart = -1;
+        int lastEnd = -1;
+        int pos = 0;
+        int length = line.length();
+        while (pos < length && line.charAt(pos) == '[') {
+            int end = indexOf(line, ']', pos + 1);
+            if (end < 0) {
+                break;
+            }
+            lastStart = pos + 1;
+            lastEnd = end;
+            pos = end + 1;
+        }
+        if (lastStart < 0) {
+            return false;
+        }
+        decorated = true;
+
+        while (lastEnd > lastStart && line.charAt(lastEnd - 1) == ' ') {
+            lastEnd--;
+        }
+        if (!isTagList(line, lastStart, lastEnd) || isLevel(line, lastStart, lastEnd)) {
+            return false;
+        }
+        tagsStart = lastStart;
+        tagsEnd = lastEnd;
+        return true;
+    }
+
+    /**
+     * Whether the line starts with decorators, even ones without tags; other lines continue a previous message.
+     */
+    boolean isDecorated() {
+        return decorated;
+    }
+
+    boolean hasTags() {
+        return tagsStart >= 0;
+    }
+
+    String tags() {
+        return line.subSequence(tagsStart, tagsEnd).toString();
+    }
+
+    int tagsHash() {
+        int hash = 0;
+        for (int i = tagsStart; i < tagsEnd; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        return hash;
+    }
+
+    boolean tagsEqual(String tags) {
+        return regionEquals(line, tagsStart, tagsEnd, tags);
+    }
+
+    private static boolean isTagList(CharSequence line, int start, int end) {
+        if (start == end || !Character.isLetter(line.charAt(start))) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9') && c != '_' && c != ',') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLevel(CharSequence line, int start, int end) {
+        for (String level : LEVELS) {
+            if (regionEquals(line, start, end, level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(CharSequence line, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) != value.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence line, char c, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton telling which of up to 64 ASCII patterns occur in a text, in a single pass over it. Pattern
+ * {@code i} of the list given on creation is reported as bit {@code 1L << i} of {@link #find(CharSequence)}.
+ */
+public final class MultiPatternMatcher {
+    private static final int ASCII = 128;
+
+    private final List<String> patterns;
+    // chars out of every pattern fall into class 0, which always leads back to the root
+    private final int[] charClasses = new int[ASCII];
+    private final int classes;
+    private final int[] transitions;
+    private final long[] outputs;
+
+    public MultiPatternMatcher(List<String> patterns) {
+        if (patterns.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " patterns are supported, got " + patterns.size());
+        }
+        this.patterns = List.copyOf(patterns);
+        this.classes = assignCharClasses();
+
+        List<int[]> trie = new ArrayList<>();
+        List<Long> trieOutputs = new ArrayList<>();
+        trie.add(newState());
+        trieOutputs.add(0L);
+        for (int i = 0; i < this.patterns.size(); i++) {
+            int state = 0;
+            for (char c : this.patterns.get(i).toCharArray()) {
+                int charClass = charClasses[c];
+                if (trie.get(state)[charClass] < 0) {
+                    trie.get(state)[charClass] = trie.size();
+                    trie.add(newState());
+                    trieOutputs.add(0L);
+                }
+                state = trie.get(state)[charClass];
+            }
+            trieOutputs.set(state, trieOutputs.get(state) | 1L << i);
+        }
+
+        int states = trie.size();
+        transitions = new int[states * classes];
+        outputs = new long[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = trieOutputs.get(state) | (state == 0 ? 0 : outputs[fail[state]]);
+            for (int charClass = 0; charClass < classes; charClass++) {
+                int child = trie.get(state)[charClass];
+                int fallback = state == 0 ? 0 : transitions[fail[state] * classes + charClass];
+                if (child < 0) {
+                    transitions[state * classes + charClass] = fallback;
+                } else {
+                    fail[child] = fallback;
+                    transitions[state * classes + charClass] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    public long find(CharSequence text) {
+        int state = 0;
+        long found = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            state = transitions[state * classes + (c < ASCII ? charClasses[c] : 0)];
+            found |= outputs[state];
+        }
+        return found;
+    }
+
+    public long mask(Collection<String> patterns) {
+        long mask = 0;
+        for (String pattern : patterns) {
+            int index = this.patterns.indexOf(pattern);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown pattern: " + pattern);
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    private int assignCharClasses() {
+        int assigned = 1;
+        for (String pattern : patterns) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            for (char c : pattern.toCharArray()) {
+                if (c >= ASCII) {
+                    throw new IllegalArgumentException("Not an ASCII pattern: " + pattern);
+                }
+                if (charClasses[c] == 0) {
+                    charClasses[c] = assigned++;
+                }
+            }
+        }
+        return assigned;
+    }
+
+    private int[] newState() {
+        int[] state = new int[classes];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
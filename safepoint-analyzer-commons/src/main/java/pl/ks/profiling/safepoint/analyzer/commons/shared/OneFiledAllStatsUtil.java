@@ -17,7 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared;
 
 import java.math.BigDecimal;
 import java.util.stream.DoubleStream;
-import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 
 public class OneFiledAllStatsUtil {
     public static OneFiledAllStats create(double[] values) {
@@ -25,15 +25,18 @@ public class OneFiledAllStatsUtil {
         if (values.length == 0) {
             return stats;
         }
-        stats.setPercentile50(new BigDecimal(StatUtils.percentile(values, 50)));
-        stats.setPercentile75(new BigDecimal(StatUtils.percentile(values, 75)));
-        stats.setPercentile90(new BigDecimal(StatUtils.percentile(values, 90)));
-        stats.setPercentile95(new BigDecimal(StatUtils.percentile(values, 95)));
-        stats.setPercentile99(new BigDecimal(StatUtils.percentile(values, 99)));
-        stats.setPercentile99and9(new BigDecimal(StatUtils.percentile(values, 99.9)));
-//        stats.setPercentile99and99(new BigDecimal(StatUtils.percentile(values, 99.99)));
-//        stats.setPercentile99and999(new BigDecimal(StatUtils.percentile(values, 99.999)));
-        stats.setPercentile100(new BigDecimal(StatUtils.percentile(values, 100)));
+        // the data is selected in place once, every percentile reuses the pivots found for the previous ones
+        Percentile percentile = new Percentile();
+        percentile.setData(values);
+        stats.setPercentile50(new BigDecimal(percentile.evaluate(50)));
+        stats.setPercentile75(new BigDecimal(percentile.evaluate(75)));
+        stats.setPercentile90(new BigDecimal(percentile.evaluate(90)));
+        stats.setPercentile95(new BigDecimal(percentile.evaluate(95)));
+        stats.setPercentile99(new BigDecimal(percentile.evaluate(99)));
+        stats.setPercentile99and9(new BigDecimal(percentile.evaluate(99.9)));
+//        stats.setPercentile99and99(new BigDecimal(percentile.evaluate(99.99)));
+//        stats.setPercentile99and999(new BigDecimal(percentile.evaluate(99.999)));
+        stats.setPercentile100(new BigDecimal(percentile.evaluate(100)));
         stats.setAverage(new BigDecimal(DoubleStream.of(values).average().orElse(0)));
         stats.setTotal(new BigDecimal(DoubleStream.of(values).sum()));
         stats.setCount(new BigDecimal(values.length));
@@ -35,6 +35,31 @@ public class PageUtils {
         return matrix;
     }
 
+    /**
+     * Rows read by index from a columnar source.
+     */
+    public static <S> Object[][] toMatrix(S source, int[] rows, List<String> columnNames, List<RowExtractor<S>> valueExtractors) {
+        int numberOfColumns = columnNames.size();
+        if(numberOfColumns != valueExtractors.size()) {
+            throw new IllegalArgumentException("Number of columns(" + numberOfColumns + ") is different than number of extracting functions (" + valueExtractors.size() + ")");
+        }
+
+        Object[][] matrix = new Object[rows.length + ROW_FOR_HEADER][numberOfColumns];
+        setHeaders(matrix, columnNames);
+        for (int itemIndex = 0; itemIndex < rows.length; itemIndex++) {
+            int columnIndex = 0;
+            for (RowExtractor<S> valueExtractor : valueExtractors) {
+                matrix[itemIndex + ROW_FOR_HEADER][columnIndex] = valueExtractor.apply(source, rows[itemIndex]);
+                columnIndex++;
+            }
+        }
+        return matrix;
+    }
+
+    public interface RowExtractor<S> {
+        Object apply(S source, int row);
+    }
+
     private static <T> Object[][] initiateMatrix(Collection<T> elements, int numberOfColumns) {
         return new Object[elements.size() + ROW_FOR_HEADER][numberOfColumns];
     }
@@ -16,6 +16,7 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared;
 
 import lombok.experimental.UtilityClass;
+import pl.ks.profiling.io.source.LineBuffer;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -37,6 +38,16 @@ public class ParserUtils {
         return floatString.replace(",", ".");
     }
 
+    public boolean contains(CharSequence line, String token) {
+        if (line instanceof String) {
+            return ((String) line).contains(token);
+        }
+        if (line instanceof LineBuffer) {
+            return ((LineBuffer) line).contains(token);
+        }
+        return line.toString().contains(token);
+    }
+
     public long parseFirstNumber(String line, int pos) {
         boolean started = false;
         long value = 0;
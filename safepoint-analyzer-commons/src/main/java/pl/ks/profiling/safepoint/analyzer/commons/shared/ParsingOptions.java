@@ -0,0 +1,17 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+@With
+@Value
+@AllArgsConstructor
+public class ParsingOptions {
+    public static final ParsingOptions SEQUENTIAL = new ParsingOptions(1, false, 1);
+
+    int parallelism;
+    boolean readAhead;
+    // threads the parsers are spread over when a log is read line by line, see FanOutParsing
+    int parserThreads;
+}
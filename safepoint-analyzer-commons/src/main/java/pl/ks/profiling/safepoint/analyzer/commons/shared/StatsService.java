@@ -21,15 +21,17 @@ import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.collections4.CollectionUtils;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.io.source.LineBuffer;
 import pl.ks.profiling.io.source.LogSourceSubfile;
 import pl.ks.profiling.io.source.LogsSource;
+import pl.ks.profiling.io.source.ReadAheadLogsSource;
+import pl.ks.profiling.io.source.SplittableLogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.page.ClassCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser.ClassLoaderLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRate;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRateInTime;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCConcurrentEfficiency;
@@ -46,12 +48,10 @@ import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSubphaseStats
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSurvivorAndTenuring;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCTableStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCJdk8LogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheSweeperActivity;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCompilationCount;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitTieredCompilationCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.JitLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.LogsFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.ParsingMetaData;
@@ -62,26 +62,24 @@ import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.Safepoin
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTableStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTotalTimeInPhases;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointJdk8LogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointUnifiedLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupLast;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupTotal;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser.StringDedupLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.summary.page.SummaryPageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.page.ThreadCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser.ThreadLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabSummary;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabThreadStats;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser.TlabLogFileParser;
 
 @RequiredArgsConstructor
 public class StatsService {
     private final static DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US));
     private final static int PROGRESS_NOTIFICATION_THROTTLE = 1000;
+    private final static int CHUNKS_PER_THREAD = 4;
 
     public JvmLogFile createAllStatsJdk8(LogsSource ls, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
         try (LogsSource logsSource = ls) {
-            SafepointJdk8LogFileParser safepointJdk8LogFileParser = new SafepointJdk8LogFileParser();
-            GCJdk8LogFileParser gcJdk8LogFileParser = new GCJdk8LogFileParser();
+            SymbolTable symbols = new SymbolTable();
+            SafepointJdk8LogFileParser safepointJdk8LogFileParser = new SafepointJdk8LogFileParser(symbols);
+            GCJdk8LogFileParser gcJdk8LogFileParser = new GCJdk8LogFileParser(symbols);
 
             long startTimestamp = System.currentTimeMillis();
             String line = logsSource.readLine();
@@ -141,44 +139,47 @@ public class StatsService {
     }
 
     public JvmLogFile createAllStatsUnifiedLogger(LogsSource ls, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        return createAllStatsUnifiedLogger(ls, 1, notificationConsumer, onComplete);
+    }
+
+    private JvmLogFile createAllStatsUnifiedLogger(LogsSource ls, int parserThreads, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        if (parserThreads > 1) {
+            return createAllStatsFanOut(ls, parserThreads, notificationConsumer, onComplete);
+        }
         try (LogsSource logsSource = ls) {
-            SafepointUnifiedLogFileParser safepointUnifiedLogFileParser = new SafepointUnifiedLogFileParser();
-            GCUnifiedLogFileParser gcUnifiedLogFileParser = new GCUnifiedLogFileParser();
-            ThreadLogFileParser threadLogFileParser = new ThreadLogFileParser();
-            ClassLoaderLogFileParser classLoaderLogFileParser = new ClassLoaderLogFileParser();
-            JitLogFileParser jitLogFileParser = new JitLogFileParser();
-            TlabLogFileParser tlabLogFileParser = new TlabLogFileParser();
-            StringDedupLogFileParser stringDedupLogFileParser = new StringDedupLogFileParser();
+            UnifiedLogParsers parsers = UnifiedLogParsers.forWholeLog();
             long startTimestamp = System.currentTimeMillis();
 
-            String line = logsSource.readLine();
-            while (line != null) {
-                safepointUnifiedLogFileParser.parseLine(line);
-                gcUnifiedLogFileParser.parseLine(line);
-                threadLogFileParser.parseLine(line);
-                classLoaderLogFileParser.parseLine(line);
-                jitLogFileParser.parseLine(line);
-                tlabLogFileParser.parseLine(line);
-                stringDedupLogFileParser.parseLine(line);
-                line = logsSource.readLine();
+            LineBuffer line = new LineBuffer();
+            while (logsSource.readLine(line)) {
+                parsers.parseLine(line);
                 notifyProgress(logsSource, notificationConsumer, startTimestamp);
             }
 
-            JvmLogFile jvmLogFile = new JvmLogFile();
-            jvmLogFile.setParsing(new ParsingMetaData(
-                    logsSource.getName(),
-                    getFiles(logsSource),
-                    logsSource.getNumberOfLine()
-            ));
-            jvmLogFile.setSafepointLogFile(safepointUnifiedLogFileParser.fetchData());
-            jvmLogFile.setGcLogFile(gcUnifiedLogFileParser.fetchData());
-            jvmLogFile.setThreadLogFile(threadLogFileParser.fetchData());
-            jvmLogFile.setClassLoaderLogFile(classLoaderLogFileParser.fetchData());
-            jvmLogFile.setJitLogFile(jitLogFileParser.fetchData());
-            jvmLogFile.setTlabLogFile(tlabLogFileParser.fetchData());
-            jvmLogFile.setStringDedupLogFile(stringDedupLogFileParser.fetchData());
+            JvmLogFile jvmLogFile = createJvmLogFile(logsSource, logsSource.getNumberOfLine(), parsers);
+            onComplete.accept(jvmLogFile);
+            notificationConsumer.accept(parsingProgress(logsSource, true, startTimestamp));
+            return jvmLogFile;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 
-            addPages(jvmLogFile);
+    private JvmLogFile createAllStatsFanOut(LogsSource ls, int parserThreads, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        try (LogsSource logsSource = ls) {
+            UnifiedLogParsers parsers = UnifiedLogParsers.forWholeLog();
+            long startTimestamp = System.currentTimeMillis();
+
+            try (FanOutParsing fanOut = new FanOutParsing(parsers, parserThreads)) {
+                LineBuffer line = new LineBuffer();
+                while (logsSource.readLine(line)) {
+                    fanOut.publish(line);
+                    notifyProgress(logsSource, notificationConsumer, startTimestamp);
+                }
+                fanOut.complete();
+            }
+
+            JvmLogFile jvmLogFile = createJvmLogFile(logsSource, logsSource.getNumberOfLine(), parsers);
             onComplete.accept(jvmLogFile);
             notificationConsumer.accept(parsingProgress(logsSource, true, startTimestamp));
             return jvmLogFile;
@@ -187,6 +188,58 @@ public class StatsService {
         }
     }
 
+    /**
+     * Splittable logs are parsed in chunks by {@link ParsingOptions#getParallelism()} threads, the other ones are read
+     * line by line with the parsers spread over {@link ParsingOptions#getParserThreads()} threads.
+     */
+    public JvmLogFile createAllStatsUnifiedLogger(LogsSource ls, ParsingOptions parsingOptions, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        if (parsingOptions.getParallelism() <= 1 || !(ls instanceof SplittableLogsSource)) {
+            return createAllStatsUnifiedLogger(parsingOptions.isReadAhead() ? new ReadAheadLogsSource(ls) : ls, parsingOptions.getParserThreads(), notificationConsumer, onComplete);
+        }
+
+        try (LogsSource logsSource = ls) {
+            long startTimestamp = System.currentTimeMillis();
+            List<LogsSource> chunks = ((SplittableLogsSource) logsSource).splitAtLineBoundaries(parsingOptions.getParallelism() * CHUNKS_PER_THREAD);
+            ChunkedParsingTask.Progress progress = new ChunkedParsingTask.Progress(logsSource.getTotalNumberOfFiles(), PROGRESS_NOTIFICATION_THROTTLE, notificationConsumer, startTimestamp);
+            ForkJoinPool pool = new ForkJoinPool(parsingOptions.getParallelism());
+            UnifiedLogParsers parsers;
+            try {
+                parsers = pool.invoke(new ChunkedParsingTask(chunks, progress));
+            } finally {
+                pool.shutdown();
+            }
+
+            long numberOfLines = chunks.stream().mapToLong(LogsSource::getNumberOfLine).sum() - (chunks.size() - 1);
+            JvmLogFile jvmLogFile = createJvmLogFile(logsSource, numberOfLines, parsers);
+            onComplete.accept(jvmLogFile);
+            progress.notify(true);
+            return jvmLogFile;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Starts parsing of a log that is still being written, see {@link IncrementalParsing}.
+     */
+    public IncrementalParsing startIncrementalUnifiedLogger(LogsSource logsSource) {
+        return new IncrementalParsing(this, logsSource);
+    }
+
+    JvmLogFile createJvmLogFile(LogsSource logsSource, long numberOfLines, UnifiedLogParsers parsers) {
+        JvmLogFile jvmLogFile = new JvmLogFile();
+        jvmLogFile.setParsing(new ParsingMetaData(
+                logsSource.getName(),
+                getFiles(logsSource),
+                numberOfLines
+        ));
+        jvmLogFile.getParsing().setSkippedParsers(parsers.skippedParsers());
+        parsers.fetchInto(jvmLogFile);
+
+        addPages(jvmLogFile);
+        return jvmLogFile;
+    }
+
     private void addPages(JvmLogFile jvmLogFile) {
         createOverviewPage(jvmLogFile);
         createSafepointPages(jvmLogFile);
@@ -301,7 +354,7 @@ public class StatsService {
     }
 
     private void createGcPages(JvmLogFile jvmLogFile) {
-        if (CollectionUtils.isEmpty(jvmLogFile.getGcLogFile().getCycleEntries())) {
+        if (jvmLogFile.getGcLogFile().getCycleStore().size() == 0) {
             return;
         }
         List<PageCreator> gcPageCreators = List.of(
@@ -336,7 +389,7 @@ public class StatsService {
     }
 
     private void createSafepointPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getSafepointLogFile() == null || CollectionUtils.isEmpty(jvmLogFile.getSafepointLogFile().getSafepoints())) {
+        if (jvmLogFile.getSafepointLogFile() == null || jvmLogFile.getSafepointLogFile().getStore().size() == 0) {
             return;
         }
 
@@ -0,0 +1,132 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Names repeated in a log (GC phases, causes, sub-phases, regions, safepoint operations, code cache segments) as
+ * compact ids, one table for all the parsers of a parse. Ids are given in the order names are first seen, so they
+ * differ between parses; the name of an id should only be looked up when rendering. Known names are found without
+ * locking and, with {@link #id(CharSequence, int, int)}, without creating a string. Thread safe.
+ */
+public final class SymbolTable {
+    public static final int NO_SYMBOL = -1;
+
+    private volatile AtomicReferenceArray<Symbol> buckets = new AtomicReferenceArray<>(64);
+    private volatile String[] names = new String[64];
+    private int size;
+
+    public int id(String name) {
+        if (name == null) {
+            return NO_SYMBOL;
+        }
+        return id(name, 0, name.length(), name.hashCode());
+    }
+
+    /**
+     * Id of the name between {@code from} and {@code to} of the given text, added when seen for the first time.
+     */
+    public int id(CharSequence text, int from, int to) {
+        return id(text, from, to, hash(text, from, to));
+    }
+
+    private int id(CharSequence text, int from, int to, int hash) {
+        Symbol symbol = find(buckets, text, from, to, hash);
+        return symbol != null ? symbol.id : add(text, from, to, hash);
+    }
+
+    /**
+     * Id of an already known name, {@link #NO_SYMBOL} for the other ones.
+     */
+    public int find(String name) {
+        if (name == null) {
+            return NO_SYMBOL;
+        }
+        Symbol symbol = find(buckets, name, 0, name.length(), name.hashCode());
+        return symbol == null ? NO_SYMBOL : symbol.id;
+    }
+
+    public String name(int id) {
+        return id == NO_SYMBOL ? null : names[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(CharSequence text, int from, int to, int hash) {
+        Symbol symbol = find(buckets, text, from, to, hash);
+        if (symbol != null) {
+            return symbol.id;
+        }
+        int id = size++;
+        String name = text.subSequence(from, to).toString();
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+        if (size > buckets.length() * 3 / 4) {
+            AtomicReferenceArray<Symbol> resized = new AtomicReferenceArray<>(buckets.length() * 2);
+            for (int i = 0; i < id; i++) {
+                insert(resized, names[i], i, names[i].hashCode());
+            }
+            buckets = resized;
+        }
+        // published last, a reader finding the symbol sees its name
+        insert(buckets, name, id, hash);
+        return id;
+    }
+
+    private static void insert(AtomicReferenceArray<Symbol> buckets, String name, int id, int hash) {
+        int bucket = bucket(buckets, hash);
+        buckets.set(bucket, new Symbol(name, id, hash, buckets.get(bucket)));
+    }
+
+    private static Symbol find(AtomicReferenceArray<Symbol> buckets, CharSequence text, int from, int to, int hash) {
+        for (Symbol symbol = buckets.get(bucket(buckets, hash)); symbol != null; symbol = symbol.next) {
+            if (symbol.name == text || symbol.hash == hash && symbol.matches(text, from, to)) {
+                return symbol;
+            }
+        }
+        return null;
+    }
+
+    private static int bucket(AtomicReferenceArray<Symbol> buckets, int hash) {
+        return (hash ^ hash >>> 16) & (buckets.length() - 1);
+    }
+
+    // same as String.hashCode()
+    private static int hash(CharSequence text, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static final class Symbol {
+        private final String name;
+        private final int id;
+        private final int hash;
+        private final Symbol next;
+
+        private Symbol(String name, int id, int hash, Symbol next) {
+            this.name = name;
+            this.id = id;
+            this.hash = hash;
+            this.next = next;
+        }
+
+        private boolean matches(CharSequence text, int from, int to) {
+            if (name.length() != to - from) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != text.charAt(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Routing table from tag sets of unified logging lines to subscribed parsers, given as bits of the returned route.
+ * Subscriptions are evaluated once per distinct tag set, a log has only a few dozens of them. Lines without
+ * recognizable tags are routed to every parser, except for lines without any decorators once a sample of the log
+ * is read: they continue messages of tag sets seen before, so they only go to the parsers of those tag sets. A following
+ * chunk of a log parsed in parallel samples its own beginning again.
+ */
+final class TagRoutes {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long SAMPLE_LENGTH = 16L * 1024 * 1024;
+
+    private final List<Predicate<String>> subscriptions;
+    private final List<Predicate<String>> ownTags;
+    private final int allParsers;
+    private final long sampleLength;
+    private final LogLineDecorators decorators = new LogLineDecorators();
+    private String[] tags = new String[INITIAL_CAPACITY];
+    private int[] routes = new int[INITIAL_CAPACITY];
+    private int size;
+    private int seenRoutes;
+    private int parsersWithTagsFound;
+    private boolean untaggedLinesFound;
+    private long sampledLength;
+
+    /**
+     * @param subscriptions tag sets accepted by every parser, the parser gets the bit of its index on the list
+     */
+    TagRoutes(List<Predicate<String>> subscriptions) {
+        this(subscriptions, subscriptions, SAMPLE_LENGTH);
+    }
+
+    /**
+     * @param ownTags tag sets showing the log has data of every parser, narrower than its subscription when the parser
+     *                also needs lines of other tags, e.g. the starts of collections delimiting TLAB statistics
+     */
+    TagRoutes(List<Predicate<String>> subscriptions, List<Predicate<String>> ownTags) {
+        this(subscriptions, ownTags, SAMPLE_LENGTH);
+    }
+
+    /**
+     * @param sampleLength characters read before lines without decorators are routed to seen tag sets only
+     */
+    TagRoutes(List<Predicate<String>> subscriptions, long sampleLength) {
+        this(subscriptions, subscriptions, sampleLength);
+    }
+
+    private TagRoutes(List<Predicate<String>> subscriptions, List<Predicate<String>> ownTags, long sampleLength) {
+        this.subscriptions = subscriptions;
+        this.ownTags = ownTags;
+        this.sampleLength = sampleLength;
+        this.allParsers = (1 << subscriptions.size()) - 1;
+    }
+
+    /**
+     * Parsers whose own tags appeared in the log, the following chunks merged in included; every parser if the log
+     * is written without tags, as then there is no telling.
+     */
+    int parsersWithTagsFound() {
+        return untaggedLinesFound ? allParsers : parsersWithTagsFound;
+    }
+
+    void merge(TagRoutes following) {
+        parsersWithTagsFound |= following.parsersWithTagsFound;
+        untaggedLinesFound |= following.untaggedLinesFound;
+    }
+
+    int route(CharSequence line) {
+        if (sampledLength < sampleLength) {
+            sampledLength += line.length();
+        }
+        if (!decorators.parse(line)) {
+            if (decorators.isDecorated()) {
+                untaggedLinesFound = true;
+                return allParsers;
+            }
+            return sampledLength < sampleLength || seenRoutes == 0 ? allParsers : seenRoutes;
+        }
+        int hash = decorators.tagsHash();
+        int mask = tags.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            if (tags[i] == null) {
+                return add(decorators.tags(), i);
+            }
+            if (tags[i].hashCode() == hash && decorators.tagsEqual(tags[i])) {
+                return routes[i];
+            }
+        }
+    }
+
+    private int add(String tagSet, int slot) {
+        int route = 0;
+        for (int i = 0; i < subscriptions.size(); i++) {
+            if (subscriptions.get(i).test(tagSet)) {
+                route |= 1 << i;
+            }
+            if (ownTags.get(i).test(tagSet)) {
+                parsersWithTagsFound |= 1 << i;
+            }
+        }
+        tags[slot] = tagSet;
+        routes[slot] = route;
+        seenRoutes |= route;
+        if (++size * 2 > tags.length) {
+            resize();
+        }
+        return route;
+    }
+
+    private void resize() {
+        String[] oldTags = tags;
+        int[] oldRoutes = routes;
+        tags = new String[oldTags.length * 2];
+        routes = new int[oldTags.length * 2];
+        int mask = tags.length - 1;
+        for (int i = 0; i < oldTags.length; i++) {
+            if (oldTags[i] != null) {
+                int slot = spread(oldTags[i].hashCode()) & mask;
+                while (tags[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                tags[slot] = oldTags[i];
+                routes[slot] = oldRoutes[i];
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,208 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.math.BigDecimal;
+
+/**
+ * Reads the time decorator of unified log lines as nanoseconds. Which of the leading {@code [...]} groups holds it and
+ * how it is written is found on the first line and kept for the following ones, until a line no longer fits. Uptime
+ * decorators are preferred, the wall clock ones ({@code time}, {@code utctime}, {@code timemillis},
+ * {@code timenanos}) are read as nanoseconds since the epoch. Not thread safe, every parser has its own decoder.
+ */
+public final class TimeStampDecoder {
+    private static final long NOT_DECODED = Long.MIN_VALUE;
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+    // uptimes written in millis or nanos are far below the epoch values of 1973 and later
+    private static final long MIN_EPOCH_MILLIS = 100_000_000_000L;
+    private static final long MIN_EPOCH_NANOS = MIN_EPOCH_MILLIS * NANOS_IN_MILLI;
+
+    // in order of preference
+    enum Decorator {
+        UPTIME,
+        UPTIME_MILLIS,
+        UPTIME_NANOS,
+        TIME,
+        TIME_MILLIS,
+        TIME_NANOS
+    }
+
+    private Decorator decorator;
+    private int group;
+
+    public long nanos(String line) {
+        if (decorator != null) {
+            long nanos = decode(line);
+            if (nanos != NOT_DECODED) {
+                return nanos;
+            }
+        }
+        detect(line);
+        return decode(line);
+    }
+
+    Decorator decorator() {
+        return decorator;
+    }
+
+    /**
+     * Seconds with millisecond scale, like the {@code uptime} decorator prints them, or nanosecond scale when needed.
+     */
+    public static BigDecimal toSeconds(long nanos) {
+        return nanos % NANOS_IN_MILLI == 0 ? BigDecimal.valueOf(nanos / NANOS_IN_MILLI, 3) : BigDecimal.valueOf(nanos, 9);
+    }
+
+    private void detect(String line) {
+        Decorator best = null;
+        int bestGroup = -1;
+        int start = line.indexOf('[');
+        for (int index = 0; start >= 0; index++) {
+            int end = line.indexOf(']', start + 1);
+            if (end < 0) {
+                break;
+            }
+            Decorator found = classify(line, start + 1, end);
+            if (found != null && (best == null || found.ordinal() < best.ordinal())) {
+                best = found;
+                bestGroup = index;
+            }
+            start = nextGroup(line, end);
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("No time decorator in line: " + line);
+        }
+        decorator = best;
+        group = bestGroup;
+    }
+
+    private long decode(String line) {
+        int start = line.indexOf('[');
+        for (int index = 0; index < group && start >= 0; index++) {
+            int end = line.indexOf(']', start + 1);
+            start = end < 0 ? -1 : nextGroup(line, end);
+        }
+        if (start < 0) {
+            return NOT_DECODED;
+        }
+        int end = line.indexOf(']', start + 1);
+        return end < 0 ? NOT_DECODED : decode(decorator, line, start + 1, end);
+    }
+
+    private static int nextGroup(String line, int end) {
+        return end + 1 < line.length() && line.charAt(end + 1) == '[' ? end + 1 : -1;
+    }
+
+    private static Decorator classify(String line, int from, int to) {
+        if (decode(Decorator.UPTIME, line, from, to) != NOT_DECODED) {
+            return Decorator.UPTIME;
+        }
+        long millis = decode(Decorator.UPTIME_MILLIS, line, from, to);
+        if (millis != NOT_DECODED) {
+            return millis < MIN_EPOCH_NANOS ? Decorator.UPTIME_MILLIS : Decorator.TIME_MILLIS;
+        }
+        long nanos = decode(Decorator.UPTIME_NANOS, line, from, to);
+        if (nanos != NOT_DECODED) {
+            return nanos < MIN_EPOCH_NANOS ? Decorator.UPTIME_NANOS : Decorator.TIME_NANOS;
+        }
+        return decode(Decorator.TIME, line, from, to) != NOT_DECODED ? Decorator.TIME : null;
+    }
+
+    private static long decode(Decorator decorator, String line, int from, int to) {
+        switch (decorator) {
+            case UPTIME:
+                return uptime(line, from, to);
+            case UPTIME_MILLIS:
+            case TIME_MILLIS:
+                long millis = number(line, from, to - 2);
+                return millis == NOT_DECODED || millis > Long.MAX_VALUE / NANOS_IN_MILLI || !line.startsWith("ms", to - 2) ? NOT_DECODED : millis * NANOS_IN_MILLI;
+            case UPTIME_NANOS:
+            case TIME_NANOS:
+                long nanos = number(line, from, to - 2);
+                return nanos == NOT_DECODED || !line.startsWith("ns", to - 2) ? NOT_DECODED : nanos;
+            default:
+                return time(line, from, to);
+        }
+    }
+
+    /**
+     * {@code 12.345s}, with a comma in some locales.
+     */
+    private static long uptime(String line, int from, int to) {
+        int separator = digitsEnd(line, from, to);
+        if (separator == from || separator >= to - 2 || (line.charAt(separator) != '.' && line.charAt(separator) != ',')
+                || line.charAt(to - 1) != 's' || digitsEnd(line, separator + 1, to) != to - 1) {
+            return NOT_DECODED;
+        }
+        long seconds = number(line, from, separator);
+        return seconds == NOT_DECODED ? NOT_DECODED : seconds * NANOS_IN_SECOND + fraction(line, separator + 1, to - 1);
+    }
+
+    /**
+     * {@code 2020-12-21T01:04:47.091+0100}, {@code utctime} prints {@code +0000}.
+     */
+    private static long time(String line, int from, int to) {
+        int fractionEnd = digitsEnd(line, from + 20, to);
+        if (to - from < 26 || fractionEnd == from + 20 || fractionEnd + 5 != to
+                || line.charAt(from + 4) != '-' || line.charAt(from + 7) != '-' || line.charAt(from + 10) != 'T'
+                || line.charAt(from + 13) != ':' || line.charAt(from + 16) != ':' || line.charAt(from + 19) != '.'
+                || (line.charAt(fractionEnd) != '+' && line.charAt(fractionEnd) != '-')) {
+            return NOT_DECODED;
+        }
+        long year = number(line, from, from + 4);
+        long month = number(line, from + 5, from + 7);
+        long day = number(line, from + 8, from + 10);
+        long hours = number(line, from + 11, from + 13);
+        long minutes = number(line, from + 14, from + 16);
+        long seconds = number(line, from + 17, from + 19);
+        long offsetHours = number(line, fractionEnd + 1, fractionEnd + 3);
+        long offsetMinutes = number(line, fractionEnd + 3, to);
+        if (year == NOT_DECODED || month == NOT_DECODED || day == NOT_DECODED || hours == NOT_DECODED
+                || minutes == NOT_DECODED || seconds == NOT_DECODED || offsetHours == NOT_DECODED || offsetMinutes == NOT_DECODED
+                || month < 1 || month > 12) {
+            return NOT_DECODED;
+        }
+        long offset = (offsetHours * 3600 + offsetMinutes * 60) * (line.charAt(fractionEnd) == '-' ? -1 : 1);
+        long epochSeconds = epochDay(year, (int) month, (int) day) * 86_400 + hours * 3600 + minutes * 60 + seconds - offset;
+        return epochSeconds * NANOS_IN_SECOND + fraction(line, from + 20, fractionEnd);
+    }
+
+    // days from civil, http://howardhinnant.github.io/date_algorithms.html
+    static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Digits after the decimal separator as nanoseconds, the ones past nanosecond precision are dropped.
+     */
+    private static long fraction(String line, int from, int to) {
+        long nanos = 0;
+        for (int i = from; i < from + 9; i++) {
+            nanos = nanos * 10 + (i < to ? line.charAt(i) - '0' : 0);
+        }
+        return nanos;
+    }
+
+    private static long number(String line, int from, int to) {
+        if (from >= to || to - from > 19 || digitsEnd(line, from, to) != to) {
+            return NOT_DECODED;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + line.charAt(i) - '0';
+        }
+        // only 19 digits may overflow, wrapping once
+        return value < 0 ? NOT_DECODED : value;
+    }
+
+    private static int digitsEnd(String line, int from, int to) {
+        int end = from;
+        while (end < to && line.charAt(end) >= '0' && line.charAt(end) <= '9') {
+            end++;
+        }
+        return end;
+    }
+}
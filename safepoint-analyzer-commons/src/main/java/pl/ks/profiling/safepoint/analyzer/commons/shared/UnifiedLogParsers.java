@@ -0,0 +1,188 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser.ClassLoaderLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.JitLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointUnifiedLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser.StringDedupLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser.ThreadLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser.TlabLogFileParser;
+
+class UnifiedLogParsers {
+    private static final int SAFEPOINT = 1;
+    private static final int GC = 1 << 1;
+    private static final int THREAD = 1 << 2;
+    private static final int CLASS_LOADER = 1 << 3;
+    private static final int JIT = 1 << 4;
+    private static final int TLAB = 1 << 5;
+    private static final int STRING_DEDUP = 1 << 6;
+    // tags of the lines each parser looks for, in the order of the bits above, names below in the same order
+    private static final List<Predicate<String>> SUBSCRIPTIONS = List.of(
+            tags -> tags.contains("safepoint"),
+            tags -> tags.contains("gc"),
+            tags -> tags.contains("os,thread"),
+            tags -> tags.contains("class,load") || tags.contains("class,unload"),
+            tags -> tags.contains("codecache,sweep") || tags.contains("jit,compilation"),
+            tags -> tags.contains("gc,tlab") || tags.contains("gc,start"),
+            tags -> tags.contains("gc,stringdedup")
+    );
+    // tags of the data each parser reports, as above except for TLAB, which only needs the starts of collections
+    private static final List<Predicate<String>> OWN_TAGS = List.of(
+            SUBSCRIPTIONS.get(0),
+            SUBSCRIPTIONS.get(1),
+            SUBSCRIPTIONS.get(2),
+            SUBSCRIPTIONS.get(3),
+            SUBSCRIPTIONS.get(4),
+            tags -> tags.contains("gc,tlab"),
+            SUBSCRIPTIONS.get(6)
+    );
+    private static final List<String> PARSER_NAMES = List.of("Safepoint", "GC", "Thread", "Class loader", "JIT", "TLAB", "String deduplication");
+    // parsers from the busiest one, dealt out in turn when they are split into groups
+    private static final int[] BY_LOAD = {GC, SAFEPOINT, JIT, TLAB, CLASS_LOADER, THREAD, STRING_DEDUP};
+
+    private final TagRoutes tagRoutes = new TagRoutes(SUBSCRIPTIONS, OWN_TAGS);
+    private final SafepointUnifiedLogFileParser safepointUnifiedLogFileParser;
+    private final GCUnifiedLogFileParser gcUnifiedLogFileParser;
+    private final ThreadLogFileParser threadLogFileParser;
+    private final ClassLoaderLogFileParser classLoaderLogFileParser;
+    private final JitLogFileParser jitLogFileParser;
+    private final TlabLogFileParser tlabLogFileParser;
+    private final StringDedupLogFileParser stringDedupLogFileParser;
+
+    private UnifiedLogParsers(SafepointUnifiedLogFileParser safepointUnifiedLogFileParser,
+                              GCUnifiedLogFileParser gcUnifiedLogFileParser,
+                              ThreadLogFileParser threadLogFileParser,
+                              ClassLoaderLogFileParser classLoaderLogFileParser,
+                              JitLogFileParser jitLogFileParser,
+                              TlabLogFileParser tlabLogFileParser,
+                              StringDedupLogFileParser stringDedupLogFileParser) {
+        this.safepointUnifiedLogFileParser = safepointUnifiedLogFileParser;
+        this.gcUnifiedLogFileParser = gcUnifiedLogFileParser;
+        this.threadLogFileParser = threadLogFileParser;
+        this.classLoaderLogFileParser = classLoaderLogFileParser;
+        this.jitLogFileParser = jitLogFileParser;
+        this.tlabLogFileParser = tlabLogFileParser;
+        this.stringDedupLogFileParser = stringDedupLogFileParser;
+    }
+
+    static UnifiedLogParsers forWholeLog() {
+        return forWholeLog(new SymbolTable());
+    }
+
+    /**
+     * Parsers of one parse, recording names in the given table; parsers of its following chunks share it.
+     */
+    static UnifiedLogParsers forWholeLog(SymbolTable symbols) {
+        return new UnifiedLogParsers(
+                new SafepointUnifiedLogFileParser(symbols),
+                new GCUnifiedLogFileParser(symbols),
+                new ThreadLogFileParser(),
+                new ClassLoaderLogFileParser(),
+                new JitLogFileParser(symbols),
+                new TlabLogFileParser(),
+                new StringDedupLogFileParser()
+        );
+    }
+
+    UnifiedLogParsers forFollowingChunk() {
+        return new UnifiedLogParsers(
+                safepointUnifiedLogFileParser.newPartialParser(),
+                gcUnifiedLogFileParser.newPartialParser(),
+                threadLogFileParser.newPartialParser(),
+                classLoaderLogFileParser.newPartialParser(),
+                jitLogFileParser.newPartialParser(),
+                tlabLogFileParser.newPartialParser(),
+                stringDedupLogFileParser.newPartialParser()
+        );
+    }
+
+    /**
+     * Masks of at most {@code count} disjoint groups of the parsers, for {@link #parseLine(CharSequence, int)}.
+     */
+    static int[] parserGroups(int count) {
+        int[] groups = new int[Math.max(1, Math.min(count, BY_LOAD.length))];
+        for (int i = 0; i < BY_LOAD.length; i++) {
+            groups[i % groups.length] |= BY_LOAD[i];
+        }
+        return groups;
+    }
+
+    void parseLine(CharSequence line) {
+        parseLine(line, route(line));
+    }
+
+    /**
+     * Parsers the line is meant for, as a mask of the parser bits.
+     */
+    int route(CharSequence line) {
+        return tagRoutes.route(line);
+    }
+
+    /**
+     * Passes the line to the parsers of the route only; groups of parsers with disjoint routes may be called from
+     * different threads.
+     */
+    void parseLine(CharSequence line, int route) {
+        if ((route & SAFEPOINT) != 0) {
+            safepointUnifiedLogFileParser.parseLine(line);
+        }
+        if ((route & GC) != 0) {
+            gcUnifiedLogFileParser.parseLine(line);
+        }
+        if ((route & THREAD) != 0) {
+            threadLogFileParser.parseLine(line);
+        }
+        if ((route & CLASS_LOADER) != 0) {
+            classLoaderLogFileParser.parseLine(line);
+        }
+        if ((route & JIT) != 0) {
+            jitLogFileParser.parseLine(line);
+        }
+        if ((route & TLAB) != 0) {
+            tlabLogFileParser.parseLine(line);
+        }
+        if ((route & STRING_DEDUP) != 0) {
+            stringDedupLogFileParser.parseLine(line);
+        }
+    }
+
+    /**
+     * Parsers with nothing to report, as none of their own tags appeared in the log; lines without decorators, which
+     * reach every parser while the log is sampled, do not count.
+     */
+    List<String> skippedParsers() {
+        int used = tagRoutes.parsersWithTagsFound();
+        List<String> skipped = new ArrayList<>();
+        for (int i = 0; i < PARSER_NAMES.size(); i++) {
+            if ((used & (1 << i)) == 0) {
+                skipped.add(PARSER_NAMES.get(i));
+            }
+        }
+        return skipped;
+    }
+
+    void merge(UnifiedLogParsers following) {
+        tagRoutes.merge(following.tagRoutes);
+        safepointUnifiedLogFileParser.merge(following.safepointUnifiedLogFileParser);
+        gcUnifiedLogFileParser.merge(following.gcUnifiedLogFileParser);
+        threadLogFileParser.merge(following.threadLogFileParser);
+        classLoaderLogFileParser.merge(following.classLoaderLogFileParser);
+        jitLogFileParser.merge(following.jitLogFileParser);
+        tlabLogFileParser.merge(following.tlabLogFileParser);
+        stringDedupLogFileParser.merge(following.stringDedupLogFileParser);
+    }
+
+    void fetchInto(JvmLogFile jvmLogFile) {
+        jvmLogFile.setSafepointLogFile(safepointUnifiedLogFileParser.fetchData());
+        jvmLogFile.setGcLogFile(gcUnifiedLogFileParser.fetchData());
+        jvmLogFile.setThreadLogFile(threadLogFileParser.fetchData());
+        jvmLogFile.setClassLoaderLogFile(classLoaderLogFileParser.fetchData());
+        jvmLogFile.setJitLogFile(jitLogFileParser.fetchData());
+        jvmLogFile.setTlabLogFile(tlabLogFileParser.fetchData());
+        jvmLogFile.setStringDedupLogFile(stringDedupLogFileParser.fetchData());
+    }
+}
@@ -15,7 +15,6 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
@@ -25,37 +24,49 @@ public class ClassLoaderLogFile {
     private List<ClassStatus> classStatuses = new ArrayList<>();
     private ClassStatus lastStatus = null;
 
-    void newClassLoaded(BigDecimal timeStamp) {
+    void newClassLoaded(long timeStampNanos) {
         if (lastStatus == null) {
             lastStatus = ClassStatus.builder()
                     .loadedCount(1)
                     .unloadedCount(0)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         } else {
             lastStatus = ClassStatus.builder()
                     .loadedCount(lastStatus.getLoadedCount() + 1)
                     .unloadedCount(lastStatus.getUnloadedCount())
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         }
         classStatuses.add(lastStatus);
     }
 
-    void classUnloaded(BigDecimal timeStamp) {
+    void classUnloaded(long timeStampNanos) {
         if (lastStatus == null) {
             lastStatus = ClassStatus.builder()
                     .loadedCount(0)
                     .unloadedCount(1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         } else {
             lastStatus = ClassStatus.builder()
                     .loadedCount(lastStatus.getLoadedCount())
                     .unloadedCount(lastStatus.getUnloadedCount() + 1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         }
         classStatuses.add(lastStatus);
     }
+
+    void append(ClassLoaderLogFile following) {
+        ClassStatus base = lastStatus;
+        for (ClassStatus status : following.classStatuses) {
+            lastStatus = base == null ? status : ClassStatus.builder()
+                    .loadedCount(base.getLoadedCount() + status.getLoadedCount())
+                    .unloadedCount(base.getUnloadedCount() + status.getUnloadedCount())
+                    .timeStampNanos(status.getTimeStampNanos())
+                    .build();
+            classStatuses.add(lastStatus);
+        }
+    }
 }
@@ -15,18 +15,37 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
-public class ClassLoaderLogFileParser implements FileParser<ClassLoaderLogFile> {
+public class ClassLoaderLogFileParser implements MergeableFileParser<ClassLoaderLogFile, ClassLoaderLogFileParser> {
     private final ClassLoaderLogFile classLoaderLogFile = new ClassLoaderLogFile();
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
+
+    @Override
+    public ClassLoaderLogFileParser newPartialParser() {
+        return new ClassLoaderLogFileParser();
+    }
+
+    @Override
+    public void merge(ClassLoaderLogFileParser following) {
+        classLoaderLogFile.append(following.classLoaderLogFile);
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "class,load") || ParserUtils.contains(line, "class,unload")) {
+            parseLine(line.toString());
+        }
+    }
 
     @Override
     public void parseLine(String line) {
         if (line.contains("class,load") && line.contains("info")) {
-            classLoaderLogFile.newClassLoaded(ParserUtils.getTimeStamp(line));
+            classLoaderLogFile.newClassLoaded(timeStamps.nanos(line));
         } else if (line.contains("class,unload") && line.contains("unloading class")) {
-            classLoaderLogFile.classUnloaded(ParserUtils.getTimeStamp(line));
+            classLoaderLogFile.classUnloaded(timeStamps.nanos(line));
         }
     }
 
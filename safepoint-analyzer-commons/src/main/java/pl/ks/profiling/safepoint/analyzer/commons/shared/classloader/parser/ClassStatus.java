@@ -18,14 +18,19 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 @Value
 @Builder
 public class ClassStatus {
-    BigDecimal timeStamp;
+    long timeStampNanos;
     long loadedCount;
     long unloadedCount;
 
+    public BigDecimal getTimeStamp() {
+        return TimeStampDecoder.toSeconds(timeStampNanos);
+    }
+
     public long getCurrentCount() {
         return loadedCount - unloadedCount;
     }
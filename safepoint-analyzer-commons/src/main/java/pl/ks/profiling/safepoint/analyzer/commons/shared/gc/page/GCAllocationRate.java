@@ -23,7 +23,7 @@ import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 
 public class GCAllocationRate implements PageCreator {
     @Override
@@ -48,38 +48,25 @@ public class GCAllocationRate implements PageCreator {
     }
 
     private static Object[][] getChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
 
         if (cycles.size() <= 1) {
             return null;
         }
 
         BigDecimal[] allocationRate = new BigDecimal[cycles.size() -1];
-        GCLogCycleEntry prev = null;
-        GCLogCycleEntry current = null;
-        int i = 0;
-        for (GCLogCycleEntry cycle : cycles) {
-            prev = current;
-            current = cycle;
-            if (prev == null) {
-                continue;
-            }
-
-            allocationRate[i++] = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(current.getTimeStamp().subtract(prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
+        for (int current = 1; current < cycles.size(); current++) {
+            int prev = current - 1;
+            allocationRate[prev] = new BigDecimal(cycles.heapBeforeGCMb(current) - cycles.heapAfterGCMb(prev)).divide(cycles.timeStamp(current).subtract(cycles.timeStamp(prev)), 2, RoundingMode.HALF_EVEN);
         }
 
         Object[][] stats = new Object[cycles.size()][2];
         stats[0][0] = "GC sequence";
         stats[0][1] = "Allocation rate";
 
-        int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            if (j - 1 >= allocationRate.length) {
-                break;
-            }
-            stats[j][0] = cycle.getTimeStamp();
+        for (int j = 1; j - 1 < allocationRate.length; j++) {
+            stats[j][0] = cycles.timeStamp(j - 1);
             stats[j][1] = allocationRate[j - 1];
-            j++;
         }
 
         return stats;
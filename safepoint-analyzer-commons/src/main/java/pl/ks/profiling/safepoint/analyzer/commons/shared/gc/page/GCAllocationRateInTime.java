@@ -27,7 +27,7 @@ import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 
 @RequiredArgsConstructor
 public class GCAllocationRateInTime implements PageCreator {
@@ -107,30 +107,21 @@ public class GCAllocationRateInTime implements PageCreator {
     }
 
     private Map<Long, List<BigDecimal>> createByTimeMap(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
         BigDecimal fromSecondsToMinute = minuteCount.multiply(new BigDecimal(60));
 
         if (cycles.size() <= 1) {
             return null;
         }
 
-        GCLogCycleEntry prev = null;
-        GCLogCycleEntry current = null;
-        int i = 0;
-
         Map<Long, List<BigDecimal>> byTimeMap = new LinkedHashMap<>();
 
-        for (GCLogCycleEntry cycle : cycles) {
-            prev = current;
-            current = cycle;
-            if (prev == null) {
-                continue;
-            }
-
-            BigDecimal rate = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(current.getTimeStamp().subtract(prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
+        for (int current = 1; current < cycles.size(); current++) {
+            int prev = current - 1;
+            BigDecimal rate = new BigDecimal(cycles.heapBeforeGCMb(current) - cycles.heapAfterGCMb(prev)).divide(cycles.timeStamp(current).subtract(cycles.timeStamp(prev)), 2, RoundingMode.HALF_EVEN);
 
-            long prevCycleMinute = prev.getTimeStamp().divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
-            long currentCycleMinute = current.getTimeStamp().divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
+            long prevCycleMinute = cycles.timeStamp(prev).divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
+            long currentCycleMinute = cycles.timeStamp(current).divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
             for (long j = prevCycleMinute; j <= currentCycleMinute; j++) {
                 byTimeMap.computeIfAbsent(j, minute -> new ArrayList<>()).add(rate);
             }
@@ -18,25 +18,20 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.gui.commons.PageContent;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
 public class GCHeapAfter implements PageCreator {
     @Override
     public Page create(JvmLogFile jvmLogFile, DecimalFormat decimalFormat) {
-        boolean hasNotGenuine = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .anyMatch(gcLogCycleEntry -> !gcLogCycleEntry.isGenuineCollection());
-        boolean hasToSpace = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .anyMatch(GCLogCycleEntry::isWasToSpaceExhausted);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        boolean hasNotGenuine = cycles.select(cycle -> !cycles.isGenuineCollection(cycle)).length > 0;
+        boolean hasToSpace = cycles.select(cycles::isWasToSpaceExhausted).length > 0;
 
         List<PageContent> charts = new ArrayList<>(3);
         if (hasNotGenuine) {
@@ -96,32 +91,25 @@ public class GCHeapAfter implements PageCreator {
             "Heap after GC",
             "Heap size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> chartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getHeapAfterGCMb,
-            GCLogCycleEntry::getHeapSizeMb);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> chartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::heapAfterGCMb,
+            GCCycleStore::heapSizeMb);
 
     private static Object[][] getHeapAfterGCSizeChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cyclesToShow = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .filter(GCLogCycleEntry::isGenuineCollection)
-                .collect(Collectors.toList());
-
-        return PageUtils.toMatrix(cyclesToShow, chartColumns, chartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cyclesToShow = cycles.select(cycles::isGenuineCollection);
+        return PageUtils.toMatrix(cycles, cyclesToShow, chartColumns, chartExtractors);
     }
 
     private static Object[][] getHeapAfterGCAllCollectionsSizeChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cyclesToShow = jvmLogFile.getGcLogFile().getCycleEntries();
-        return PageUtils.toMatrix(cyclesToShow, chartColumns, chartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        return PageUtils.toMatrix(cycles, cycles.all(), chartColumns, chartExtractors);
     }
 
     private static Object[][] getHeapAfterGCWithoutToSpaceExhaustedSizeChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cyclesToShow = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .filter(GCLogCycleEntry::isGenuineCollection)
-                .filter(gcLogCycleEntry -> !gcLogCycleEntry.isWasToSpaceExhausted())
-                .collect(Collectors.toList());
-
-        return PageUtils.toMatrix(cyclesToShow, chartColumns, chartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cyclesToShow = cycles.select(cycle -> cycles.isGenuineCollection(cycle) && !cycles.isWasToSpaceExhausted(cycle));
+        return PageUtils.toMatrix(cycles, cyclesToShow, chartColumns, chartExtractors);
     }
 }
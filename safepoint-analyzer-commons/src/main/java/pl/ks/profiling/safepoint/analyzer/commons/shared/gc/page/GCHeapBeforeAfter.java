@@ -17,13 +17,11 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
 public class GCHeapBeforeAfter implements PageCreator {
@@ -63,35 +61,34 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap after GC",
             "Heap size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> heapSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getHeapBeforeGCMb,
-            GCLogCycleEntry::getHeapAfterGCMb,
-            GCLogCycleEntry::getHeapSizeMb);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> heapSizeChartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::heapBeforeGCMb,
+            GCCycleStore::heapAfterGCMb,
+            GCCycleStore::heapSizeMb);
 
     private static Object[][] getHeapSizeChart(JvmLogFile jvmLogFile) {
-        return PageUtils.toMatrix(getEntries(jvmLogFile), heapSizeChartColumns, heapSizeChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        return PageUtils.toMatrix(cycles, getEntries(cycles), heapSizeChartColumns, heapSizeChartExtractors);
     }
 
-    private static List<GCLogCycleEntry> getEntries(JvmLogFile jvmLogFile) {
-        return jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .filter(GCLogCycleEntry::isGenuineCollection)
-                .collect(Collectors.toList());
+    private static int[] getEntries(GCCycleStore cycles) {
+        return cycles.select(cycles::isGenuineCollection);
     }
 
     private static final List<String> reclaimedSizeChartColumns = List.of(
             "Cycle",
             "Reclaimed space");
 
-    private static final Function<GCLogCycleEntry, Object> reclaimedSpace = (GCLogCycleEntry gcCycleInfo) -> gcCycleInfo.getHeapBeforeGCMb() - gcCycleInfo.getHeapAfterGCMb();
+    private static final PageUtils.RowExtractor<GCCycleStore> reclaimedSpace = (cycles, cycle) -> cycles.heapBeforeGCMb(cycle) - cycles.heapAfterGCMb(cycle);
 
-    private static final List<Function<GCLogCycleEntry, Object>> reclaimedSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> reclaimedSizeChartExtractors = List.of(
+            GCCycleStore::timeStamp,
             reclaimedSpace);
 
     private static Object[][] getReclaimedSizeChart(JvmLogFile jvmLogFile) {
-        return PageUtils.toMatrix(getEntries(jvmLogFile), reclaimedSizeChartColumns, reclaimedSizeChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        return PageUtils.toMatrix(cycles, getEntries(cycles), reclaimedSizeChartColumns, reclaimedSizeChartExtractors);
     }
 
     private static final List<String> heapBeforeGcSizeChartColumns = List.of(
@@ -99,14 +96,15 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap before GC",
             "Heap size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> heapBeforeGcSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getHeapBeforeGCMb,
-            GCLogCycleEntry::getHeapSizeMb);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> heapBeforeGcSizeChartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::heapBeforeGCMb,
+            GCCycleStore::heapSizeMb);
 
     // TODO not used
     private static Object[][] getHeapBeforeGCSizeChart(JvmLogFile jvmLogFile) {
-        return PageUtils.toMatrix(getEntries(jvmLogFile), heapBeforeGcSizeChartColumns, heapBeforeGcSizeChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        return PageUtils.toMatrix(cycles, getEntries(cycles), heapBeforeGcSizeChartColumns, heapBeforeGcSizeChartExtractors);
     }
 
     private static final List<String> heapAfterGcSizeChartColumns = List.of(
@@ -114,13 +112,14 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap after GC",
             "Heap size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> heapAfterGcSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getHeapAfterGCMb,
-            GCLogCycleEntry::getHeapSizeMb);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> heapAfterGcSizeChartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::heapAfterGCMb,
+            GCCycleStore::heapSizeMb);
 
     // TODO not used
     private static Object[][] getHeapAfterGCSizeChart(JvmLogFile jvmLogFile) {
-        return PageUtils.toMatrix(getEntries(jvmLogFile), heapAfterGcSizeChartColumns, heapAfterGcSizeChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        return PageUtils.toMatrix(cycles, getEntries(cycles), heapAfterGcSizeChartColumns, heapAfterGcSizeChartExtractors);
     }
 }
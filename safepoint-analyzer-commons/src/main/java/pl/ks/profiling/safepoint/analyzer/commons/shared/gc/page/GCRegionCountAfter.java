@@ -24,7 +24,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
 public class GCRegionCountAfter implements PageCreator {
@@ -34,9 +34,7 @@ public class GCRegionCountAfter implements PageCreator {
             return null;
         }
 
-        Set<String> regions = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet());
+        Set<String> regions = jvmLogFile.getGcLogFile().getStats().getGcRegions();
         if (CollectionUtils.isEmpty(regions)) {
             return null;
         }
@@ -64,16 +62,17 @@ public class GCRegionCountAfter implements PageCreator {
     }
 
     private static Object[][] getChart(String regionName, JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        int regionId = cycles.symbol(regionName);
 
         Object[][] stats = new Object[cycles.size() + 1][2];
         stats[0][0] = "GC sequence";
         stats[0][1] = regionName;
 
         int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
-            stats[j][1] = cycle.getRegionsAfterGC().get(regionName);
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            stats[j][0] = cycles.timeStamp(cycle);
+            stats[j][1] = cycles.regionsAfterGC(cycle, regionId);
             j++;
         }
 
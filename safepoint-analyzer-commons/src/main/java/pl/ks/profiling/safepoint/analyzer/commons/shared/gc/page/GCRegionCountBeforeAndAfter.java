@@ -17,14 +17,14 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.gui.commons.PageContent;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
 public class GCRegionCountBeforeAndAfter implements PageCreator {
@@ -54,26 +54,24 @@ public class GCRegionCountBeforeAndAfter implements PageCreator {
     }
 
     private static Object[][] getChart(String aggregatedPhase, String region, JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .filter(gcCycleInfo -> aggregatedPhase.equals(gcCycleInfo.getAggregatedPhase()))
-                .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (regions.size() == 0) {
+        GCCycleStore store = jvmLogFile.getGcLogFile().getCycleStore();
+        int aggregatedPhaseId = store.symbol(aggregatedPhase);
+        int regionId = store.symbol(region);
+        int[] cycles = store.select(cycle -> store.aggregatedPhaseId(cycle) == aggregatedPhaseId);
+        if (Arrays.stream(cycles).allMatch(cycle -> store.regionCount(cycle) == 0)) {
             return null;
         }
-        Object[][] stats = new Object[cycles.size() + 1][3];
+        Object[][] stats = new Object[cycles.length + 1][3];
         stats[0][0] = "GC sequence";
         stats[0][1] = "Before";
         stats[0][2] = "After";
         int i = 1;
 
         int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
-            stats[j][1] = cycle.getRegionsBeforeGC().get(region);
-            stats[j][2] = cycle.getRegionsAfterGC().get(region);
+        for (int cycle : cycles) {
+            stats[j][0] = store.timeStamp(cycle);
+            stats[j][1] = store.regionsBeforeGC(cycle, regionId);
+            stats[j][2] = store.regionsAfterGC(cycle, regionId);
             j++;
         }
 
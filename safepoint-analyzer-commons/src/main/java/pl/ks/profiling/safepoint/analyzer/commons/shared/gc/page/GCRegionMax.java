@@ -24,7 +24,7 @@ import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 
 public class GCRegionMax implements PageCreator {
     @Override
@@ -50,15 +50,14 @@ public class GCRegionMax implements PageCreator {
     }
 
     private static Object[][] getChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsMax().keySet().stream())
-                .collect(Collectors.toSet());
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        Set<String> regions = jvmLogFile.getGcLogFile().getStats().getGcRegions();
         if (regions.size() == 0) {
             return null;
         }
         List<String> regionsSorted = new ArrayList<>(regions);
         regionsSorted.sort(String::compareTo);
+        int[] regionIds = regionsSorted.stream().mapToInt(cycles::symbol).toArray();
         Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
@@ -68,11 +67,11 @@ public class GCRegionMax implements PageCreator {
         }
 
         int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            stats[j][0] = cycles.timeStamp(cycle);
             i = 1;
-            for (String region : regionsSorted) {
-                Integer maxRegion = cycle.getRegionsMax().get(region);
+            for (int regionId : regionIds) {
+                Integer maxRegion = cycles.regionsMax(cycle, regionId);
                 if (maxRegion == null && j > 1) {
                     maxRegion = (Integer) stats[j - 1][i];
                 }
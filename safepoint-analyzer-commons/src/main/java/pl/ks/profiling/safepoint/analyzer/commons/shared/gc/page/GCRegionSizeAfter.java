@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -24,7 +25,7 @@ import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 
 public class GCRegionSizeAfter implements PageCreator {
     @Override
@@ -33,8 +34,8 @@ public class GCRegionSizeAfter implements PageCreator {
             return null;
         }
 
-        if (jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .allMatch(gcCycleInfo -> gcCycleInfo.getRegionsSizeAfterGC().isEmpty())) {
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        if (cycles.select(cycle -> cycles.regionSizeCount(cycle) > 0).length == 0) {
             return null;
         };
 
@@ -60,18 +61,21 @@ public class GCRegionSizeAfter implements PageCreator {
     }
 
     private static Object[][] getUsedChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .filter(gcCycleInfo -> !gcCycleInfo.getRegionsSizeAfterGC().isEmpty())
-                .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsSizeAfterGC().keySet().stream())
-                .collect(Collectors.toSet());
+        GCCycleStore store = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cycles = store.select(cycle -> store.regionSizeCount(cycle) > 0);
+        Set<String> regions = new HashSet<>();
+        for (int cycle : cycles) {
+            for (int index = 0; index < store.regionSizeCount(cycle); index++) {
+                regions.add(store.symbolName(store.regionSizeId(cycle, index)));
+            }
+        }
         if (regions.size() == 0) {
             return null;
         }
         List<String> regionsSorted = new ArrayList<>(regions);
         regionsSorted.sort(String::compareTo);
-        Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
+        int[] regionIds = regionsSorted.stream().mapToInt(store::symbol).toArray();
+        Object[][] stats = new Object[cycles.length + 1][regionsSorted.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
         for (String region : regionsSorted) {
@@ -80,11 +84,11 @@ public class GCRegionSizeAfter implements PageCreator {
         }
 
         int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+        for (int cycle : cycles) {
+            stats[j][0] = store.timeStamp(cycle);
             i = 1;
-            for (String region : regionsSorted) {
-                stats[j][i] = cycle.getRegionsSizeAfterGC().get(region);
+            for (int regionId : regionIds) {
+                stats[j][i] = store.regionsSizeAfterGC(cycle, regionId);
                 i++;
             }
             j++;
@@ -94,18 +98,21 @@ public class GCRegionSizeAfter implements PageCreator {
     }
 
     private static Object[][] getWastedChart(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .filter(gcCycleInfo -> !gcCycleInfo.getRegionsWastedAfterGC().isEmpty())
-                .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsWastedAfterGC().keySet().stream())
-                .collect(Collectors.toSet());
+        GCCycleStore store = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cycles = store.select(cycle -> store.regionSizeCount(cycle) > 0);
+        Set<String> regions = new HashSet<>();
+        for (int cycle : cycles) {
+            for (int index = 0; index < store.regionSizeCount(cycle); index++) {
+                regions.add(store.symbolName(store.regionSizeId(cycle, index)));
+            }
+        }
         if (regions.size() == 0) {
             return null;
         }
         List<String> regionsSorted = new ArrayList<>(regions);
         regionsSorted.sort(String::compareTo);
-        Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
+        int[] regionIds = regionsSorted.stream().mapToInt(store::symbol).toArray();
+        Object[][] stats = new Object[cycles.length + 1][regionsSorted.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
         for (String region : regionsSorted) {
@@ -114,11 +121,11 @@ public class GCRegionSizeAfter implements PageCreator {
         }
 
         int j = 1;
-        for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+        for (int cycle : cycles) {
+            stats[j][0] = store.timeStamp(cycle);
             i = 1;
-            for (String region : regionsSorted) {
-                stats[j][i] = cycle.getRegionsWastedAfterGC().get(region);
+            for (int regionId : regionIds) {
+                stats[j][i] = store.regionsWastedAfterGC(cycle, regionId);
                 i++;
             }
             j++;
@@ -17,21 +17,18 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleStore;
 
 public class GCSurvivorAndTenuring implements PageCreator {
     @Override
     public Page create(JvmLogFile jvmLogFile, DecimalFormat decimalFormat) {
-        boolean dataPresent = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .anyMatch(gcLogCycleEntry -> gcLogCycleEntry.getNewTenuringThreshold() > 0 || gcLogCycleEntry.getDesiredSurvivorSize() > 0);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        boolean dataPresent = cycles.select(cycle -> cycles.newTenuringThreshold(cycle) > 0 || cycles.desiredSurvivorSize(cycle) > 0).length > 0;
         if (!dataPresent) {
             return null;
         }
@@ -64,31 +61,27 @@ public class GCSurvivorAndTenuring implements PageCreator {
             "Cycle",
             "Size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> desiredSurvivorSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getDesiredSurvivorSize);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> desiredSurvivorSizeChartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::desiredSurvivorSize);
 
     private static Object[][] getDesiredSurvivorSize(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cyclesToShow = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .filter(gcLogCycleEntry -> gcLogCycleEntry.getDesiredSurvivorSize() > 0)
-                .collect(Collectors.toList());
-        return PageUtils.toMatrix(cyclesToShow, desiredSurvivorSizeChartColumns, desiredSurvivorSizeChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cyclesToShow = cycles.select(cycle -> cycles.desiredSurvivorSize(cycle) > 0);
+        return PageUtils.toMatrix(cycles, cyclesToShow, desiredSurvivorSizeChartColumns, desiredSurvivorSizeChartExtractors);
     }
 
     private static final List<String> tenuringThresholdChartColumns = List.of(
             "Cycle",
             "Calculated size");
 
-    private static final List<Function<GCLogCycleEntry, Object>> tenuringThresholdChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
-            GCLogCycleEntry::getNewTenuringThreshold);
+    private static final List<PageUtils.RowExtractor<GCCycleStore>> tenuringThresholdChartExtractors = List.of(
+            GCCycleStore::timeStamp,
+            GCCycleStore::newTenuringThreshold);
 
     private static Object[][] getTenuringThreshold(JvmLogFile jvmLogFile) {
-        List<GCLogCycleEntry> cyclesToShow = jvmLogFile.getGcLogFile().getCycleEntries()
-                .stream()
-                .filter(gcLogCycleEntry -> gcLogCycleEntry.getNewTenuringThreshold() > 0)
-                .collect(Collectors.toList());
-        return PageUtils.toMatrix(cyclesToShow, tenuringThresholdChartColumns, tenuringThresholdChartExtractors);
+        GCCycleStore cycles = jvmLogFile.getGcLogFile().getCycleStore();
+        int[] cyclesToShow = cycles.select(cycle -> cycles.newTenuringThreshold(cycle) > 0);
+        return PageUtils.toMatrix(cycles, cyclesToShow, tenuringThresholdChartColumns, tenuringThresholdChartExtractors);
     }
 }
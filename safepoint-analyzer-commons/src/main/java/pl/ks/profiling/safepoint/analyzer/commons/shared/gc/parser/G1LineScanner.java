@@ -0,0 +1,237 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.math.BigDecimal;
+
+/**
+ * Positional scanning of G1 unified log lines. Every method does exactly what the regex it replaced did: a greedy
+ * {@code .*X} prefix ends at the last occurrence of {@code X}, a {@code X.*} suffix starts at the first one. Ranges are
+ * {@code [from, to)} and trimming removes chars up to a space, like {@link String#trim()}. Not thread safe, every parser
+ * has its own scanner.
+ */
+final class G1LineScanner {
+    private final StringBuilder scratch = new StringBuilder(64);
+    private char[] chars = new char[64];
+
+    /**
+     * First {@code \(\d+\)} of the line.
+     */
+    static long sequenceId(String line) {
+        for (int open = line.indexOf('('); open >= 0; open = line.indexOf('(', open + 1)) {
+            int end = digitsEnd(line, open + 1);
+            if (end > open + 1 && end < line.length() && line.charAt(end) == ')') {
+                return Long.parseLong(line, open + 1, end, 10);
+            }
+        }
+        throw new IllegalStateException("No match found");
+    }
+
+    /**
+     * End of the last {@code GC\(\d+\)} of the line, 0 if there is none.
+     */
+    static int afterLastSequenceId(String line) {
+        for (int start = line.lastIndexOf("GC("); start >= 0; start = line.lastIndexOf("GC(", start - 1)) {
+            int end = digitsEnd(line, start + 3);
+            if (end > start + 3 && end < line.length() && line.charAt(end) == ')') {
+                return end + 1;
+            }
+        }
+        return 0;
+    }
+
+    static int afterLast(String line, String marker, int from, int to) {
+        int index = lastIndexOf(line, marker, from, to);
+        return index < 0 ? from : index + marker.length();
+    }
+
+    static int lastIndexOf(String line, String marker, int from, int to) {
+        int index = line.lastIndexOf(marker, to - marker.length());
+        return index >= from ? index : -1;
+    }
+
+    static int endBefore(String line, String marker, int from, int to) {
+        int index = line.indexOf(marker, from);
+        return index >= 0 && index + marker.length() <= to ? index : to;
+    }
+
+    static int trimStart(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    static int trimEnd(String line, int from, int to) {
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    static int parseInt(String line, int from, int to) {
+        int start = trimStart(line, from, to);
+        return Integer.parseInt(line, start, trimEnd(line, start, to), 10);
+    }
+
+    static long parseLong(String line, int from, int to) {
+        int start = trimStart(line, from, to);
+        return Long.parseLong(line, start, trimEnd(line, start, to), 10);
+    }
+
+    /**
+     * Next {@code \d+M} starting at {@code from}, as {@code [digits start, digits end)} packed into a long.
+     */
+    static long nextMegabytes(String line, int from) {
+        for (int start = from; start < line.length(); start++) {
+            if (isDigit(line.charAt(start))) {
+                int end = digitsEnd(line, start);
+                if (end < line.length() && line.charAt(end) == 'M') {
+                    return (long) start << 32 | end;
+                }
+                start = end;
+            }
+        }
+        throw new IllegalStateException("No match found");
+    }
+
+    /**
+     * First {@code \d+.\d+ms} of the line, without {@code ms} and with a comma turned into a dot.
+     */
+    BigDecimal firstMillis(String line) {
+        int length = line.length();
+        for (int start = 0; start < length; start++) {
+            if (!isDigit(line.charAt(start))) {
+                continue;
+            }
+            int end = digitsEnd(line, start);
+            if (end < length && !isLineTerminator(line.charAt(end))) {
+                // any char is a whole code point
+                int fractionStart = Character.isHighSurrogate(line.charAt(end)) && end + 1 < length && Character.isLowSurrogate(line.charAt(end + 1)) ? end + 2 : end + 1;
+                int fractionEnd = digitsEnd(line, fractionStart);
+                if (fractionEnd > fractionStart && line.startsWith("ms", fractionEnd)) {
+                    return decimal(line, start, fractionEnd);
+                }
+            }
+            // any char of the pattern taken by a digit
+            if (end - start >= 3 && line.startsWith("ms", end)) {
+                return decimal(line, start, end);
+            }
+            start = end;
+        }
+        throw new IllegalStateException("No match found");
+    }
+
+    /**
+     * {@code line.substring(from, to)} with the first {@code ms} removed, then trimmed, with commas turned into dots.
+     */
+    BigDecimal decimalWithoutFirstMs(String line, int from, int to) {
+        scratch.setLength(0);
+        int ms = line.indexOf("ms", from);
+        if (ms >= 0 && ms + 2 <= to) {
+            scratch.append(line, from, ms).append(line, ms + 2, to);
+        } else {
+            scratch.append(line, from, to);
+        }
+        int start = 0;
+        int end = scratch.length();
+        while (start < end && scratch.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && scratch.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return decimal(scratch, start, end);
+    }
+
+    /**
+     * {@code line.substring(from, to)} with every {@code ms} removed and commas turned into dots.
+     */
+    BigDecimal decimalWithoutMs(String line, int from, int to) {
+        scratch.setLength(0);
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == 'm' && i + 1 < to && line.charAt(i + 1) == 's') {
+                i++;
+            } else {
+                scratch.append(line.charAt(i));
+            }
+        }
+        return decimal(scratch, 0, scratch.length());
+    }
+
+    BigDecimal decimal(CharSequence text, int from, int to) {
+        int length = to - from;
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(from + i);
+            chars[i] = c == ',' ? '.' : c;
+        }
+        return new BigDecimal(chars, 0, length);
+    }
+
+    /**
+     * Removes every run of three spaces, turns remaining double spaces into an indent and drops {@code " (ms)"}. The
+     * returned text is only valid until the next call.
+     */
+    CharSequence phaseName(String line, int from, int to) {
+        scratch.setLength(0);
+        for (int i = from; i < to; ) {
+            if (line.charAt(i) != ' ') {
+                scratch.append(line.charAt(i++));
+                continue;
+            }
+            int spacesEnd = i;
+            while (spacesEnd < to && line.charAt(spacesEnd) == ' ') {
+                spacesEnd++;
+            }
+            int left = (spacesEnd - i) % 3;
+            if (left == 2) {
+                scratch.append("|______");
+            } else if (left == 1) {
+                scratch.append(' ');
+            }
+            i = spacesEnd;
+        }
+        for (int ms = scratch.indexOf(" (ms)"); ms >= 0; ms = scratch.indexOf(" (ms)", ms)) {
+            scratch.delete(ms, ms + 5);
+        }
+        return scratch;
+    }
+
+    /**
+     * Chars of {@code [from, to)} without {@code ')'}, trimmed, as a number, null if nothing is left.
+     */
+    Integer parseIntWithoutParenthesis(String line, int from, int to) {
+        scratch.setLength(0);
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) != ')') {
+                scratch.append(line.charAt(i));
+            }
+        }
+        int start = 0;
+        int end = scratch.length();
+        while (start < end && scratch.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && scratch.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? null : Integer.parseInt(scratch, start, end, 10);
+    }
+
+    private static int digitsEnd(String line, int from) {
+        int end = from;
+        while (end < line.length() && isDigit(line.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,545 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
+
+/**
+ * Finished GC cycles kept column by column: a primitive array per scalar field, names of phases, causes, sub-phases and
+ * regions as ids of the {@link SymbolTable} of the parse and the optional per cycle data (sub-phase times, regions,
+ * humongous sizes, ages) in side columns holding only what was logged. Cycles are addressed by their index, in the order they finished; a
+ * {@link GCLogCycleEntry} is built only when asked for with {@link #entry(int)}.
+ */
+public final class GCCycleStore {
+    public static final int NO_SYMBOL = SymbolTable.NO_SYMBOL;
+
+    private static final int GENUINE_COLLECTION = 1;
+    private static final int TO_SPACE_EXHAUSTED = 2;
+    private static final byte NO_SCALE = Byte.MIN_VALUE;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final SymbolTable symbols;
+
+    private int size;
+    private long[] sequenceIds = new long[16];
+    private long[] timeStampNanos = new long[16];
+    private int[] phases = new int[16];
+    private int[] aggregatedPhases = new int[16];
+    private int[] causes = new int[16];
+    private int[] heapBeforeGCMb = new int[16];
+    private int[] heapAfterGCMb = new int[16];
+    private int[] heapSizeMb = new int[16];
+    private long[] timeMsUnscaled = new long[16];
+    private byte[] timeMsScales = new byte[16];
+    private byte[] flags = new byte[16];
+    private int[] maxAges = new int[16];
+    private long[] desiredSurvivorSizes = new long[16];
+    private long[] newTenuringThresholds = new long[16];
+    private long[] maxTenuringThresholds = new long[16];
+
+    // sub-phase name, time as unscaled value and scale
+    private final SideColumn subPhases = new SideColumn(2, true);
+    // region name, regions before, after and max
+    private final SideColumn regionCounts = new SideColumn(4, false);
+    // region name, size and wasted after
+    private final SideColumn regionSizes = new SideColumn(3, false);
+    private final SideColumn liveHumongousSizes = new SideColumn(0, true);
+    private final SideColumn deadHumongousSizes = new SideColumn(0, true);
+    // age, bytes
+    private final SideColumn ages = new SideColumn(1, true);
+
+    GCCycleStore(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int symbol(String name) {
+        return symbols.find(name);
+    }
+
+    public String symbolName(int id) {
+        return symbols.name(id);
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    public long sequenceId(int cycle) {
+        return sequenceIds[cycle];
+    }
+
+    public long timeStampNanos(int cycle) {
+        return timeStampNanos[cycle];
+    }
+
+    public BigDecimal timeStamp(int cycle) {
+        return TimeStampDecoder.toSeconds(timeStampNanos[cycle]);
+    }
+
+    public int phaseId(int cycle) {
+        return phases[cycle];
+    }
+
+    public String phase(int cycle) {
+        return symbols.name(phases[cycle]);
+    }
+
+    public int aggregatedPhaseId(int cycle) {
+        return aggregatedPhases[cycle];
+    }
+
+    public String aggregatedPhase(int cycle) {
+        return symbols.name(aggregatedPhases[cycle]);
+    }
+
+    public int causeId(int cycle) {
+        return causes[cycle];
+    }
+
+    public String cause(int cycle) {
+        return symbolName(causes[cycle]);
+    }
+
+    public int heapBeforeGCMb(int cycle) {
+        return heapBeforeGCMb[cycle];
+    }
+
+    public int heapAfterGCMb(int cycle) {
+        return heapAfterGCMb[cycle];
+    }
+
+    public int heapSizeMb(int cycle) {
+        return heapSizeMb[cycle];
+    }
+
+    public boolean hasTimeMs(int cycle) {
+        return timeMsScales[cycle] != NO_SCALE;
+    }
+
+    public BigDecimal timeMs(int cycle) {
+        return hasTimeMs(cycle) ? BigDecimal.valueOf(timeMsUnscaled[cycle], timeMsScales[cycle]) : null;
+    }
+
+    public double timeMsAsDouble(int cycle) {
+        if (!hasTimeMs(cycle)) {
+            throw new IllegalStateException("GC(" + sequenceIds[cycle] + ") has no time, check hasTimeMs first");
+        }
+        return toDouble(timeMsUnscaled[cycle], timeMsScales[cycle]);
+    }
+
+    public boolean isGenuineCollection(int cycle) {
+        return (flags[cycle] & GENUINE_COLLECTION) != 0;
+    }
+
+    public boolean isWasToSpaceExhausted(int cycle) {
+        return (flags[cycle] & TO_SPACE_EXHAUSTED) != 0;
+    }
+
+    public int maxAge(int cycle) {
+        return maxAges[cycle];
+    }
+
+    public long desiredSurvivorSize(int cycle) {
+        return desiredSurvivorSizes[cycle];
+    }
+
+    public long newTenuringThreshold(int cycle) {
+        return newTenuringThresholds[cycle];
+    }
+
+    public long maxTenuringThreshold(int cycle) {
+        return maxTenuringThresholds[cycle];
+    }
+
+    public int subPhaseCount(int cycle) {
+        return subPhases.count(cycle);
+    }
+
+    public int subPhaseId(int cycle, int index) {
+        return subPhases.ints(cycle, index, 0);
+    }
+
+    public String subPhaseName(int cycle, int index) {
+        return symbols.name(subPhaseId(cycle, index));
+    }
+
+    /**
+     * Index of the sub-phase among the ones of the cycle, -1 when it was not logged.
+     */
+    public int subPhaseIndex(int cycle, int subPhaseId) {
+        return subPhases.indexOf(cycle, subPhaseId);
+    }
+
+    public BigDecimal subPhaseTime(int cycle, int index) {
+        return BigDecimal.valueOf(subPhases.longs(cycle, index), subPhases.ints(cycle, index, 1));
+    }
+
+    public double subPhaseTimeAsDouble(int cycle, int index) {
+        return toDouble(subPhases.longs(cycle, index), subPhases.ints(cycle, index, 1));
+    }
+
+    public int regionCount(int cycle) {
+        return regionCounts.count(cycle);
+    }
+
+    public int regionId(int cycle, int index) {
+        return regionCounts.ints(cycle, index, 0);
+    }
+
+    public Integer regionsBeforeGC(int cycle, int regionId) {
+        return regionValue(regionCounts, cycle, regionId, 1);
+    }
+
+    public Integer regionsAfterGC(int cycle, int regionId) {
+        return regionValue(regionCounts, cycle, regionId, 2);
+    }
+
+    public Integer regionsMax(int cycle, int regionId) {
+        return regionValue(regionCounts, cycle, regionId, 3);
+    }
+
+    public int regionSizeCount(int cycle) {
+        return regionSizes.count(cycle);
+    }
+
+    public int regionSizeId(int cycle, int index) {
+        return regionSizes.ints(cycle, index, 0);
+    }
+
+    public Integer regionsSizeAfterGC(int cycle, int regionId) {
+        return regionValue(regionSizes, cycle, regionId, 1);
+    }
+
+    public Integer regionsWastedAfterGC(int cycle, int regionId) {
+        return regionValue(regionSizes, cycle, regionId, 2);
+    }
+
+    public long[] liveHumongousSizes() {
+        return liveHumongousSizes.allLongs();
+    }
+
+    public long[] deadHumongousSizes() {
+        return deadHumongousSizes.allLongs();
+    }
+
+    public boolean hasAges(int cycle) {
+        return ages.count(cycle) > 0;
+    }
+
+    public Long bytesInAge(int cycle, int age) {
+        int index = ages.indexOf(cycle, age);
+        return index < 0 ? null : ages.longs(cycle, index);
+    }
+
+    public int ageCount(int cycle) {
+        return ages.count(cycle);
+    }
+
+    public int age(int cycle, int index) {
+        return ages.ints(cycle, index, 0);
+    }
+
+    public long bytesInAgeAt(int cycle, int index) {
+        return ages.longs(cycle, index);
+    }
+
+    public int[] select(IntPredicate predicate) {
+        int[] selected = new int[size];
+        int count = 0;
+        for (int cycle = 0; cycle < size; cycle++) {
+            if (predicate.test(cycle)) {
+                selected[count++] = cycle;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    public int[] all() {
+        return select(cycle -> true);
+    }
+
+    public GCLogCycleEntry entry(int cycle) {
+        GCLogCycleEntry entry = new GCLogCycleEntry(sequenceIds[cycle], phase(cycle), timeStampNanos[cycle]);
+        entry.addSizes(heapBeforeGCMb[cycle], heapAfterGCMb[cycle], heapSizeMb[cycle]);
+        entry.addTime(timeMs(cycle));
+        entry.addSurvivorStats(desiredSurvivorSizes[cycle], newTenuringThresholds[cycle], maxTenuringThresholds[cycle]);
+        if (isWasToSpaceExhausted(cycle)) {
+            entry.toSpaceExhausted();
+        }
+        for (int i = 0; i < subPhaseCount(cycle); i++) {
+            entry.addSubPhaseTime(subPhaseName(cycle, i), subPhaseTime(cycle, i));
+        }
+        for (int i = 0; i < regionCounts.count(cycle); i++) {
+            entry.addRegionCount(symbols.name(regionCounts.ints(cycle, i, 0)), value(regionCounts.ints(cycle, i, 1)),
+                    value(regionCounts.ints(cycle, i, 2)), value(regionCounts.ints(cycle, i, 3)));
+        }
+        for (int i = 0; i < regionSizes.count(cycle); i++) {
+            entry.addRegionSizes(symbols.name(regionSizes.ints(cycle, i, 0)), value(regionSizes.ints(cycle, i, 1)),
+                    value(regionSizes.ints(cycle, i, 2)));
+        }
+        for (int i = 0; i < liveHumongousSizes.count(cycle); i++) {
+            entry.addLiveHumongous(liveHumongousSizes.longs(cycle, i));
+        }
+        for (int i = 0; i < deadHumongousSizes.count(cycle); i++) {
+            entry.addDeadHumongous(deadHumongousSizes.longs(cycle, i));
+        }
+        for (int i = 0; i < ages.count(cycle); i++) {
+            entry.addAgeWithSize(ages.ints(cycle, i, 0), ages.longs(cycle, i));
+        }
+        return entry;
+    }
+
+    /**
+     * Cycles as entries, each built again whenever it is read.
+     */
+    public List<GCLogCycleEntry> entries() {
+        return new AbstractList<>() {
+            @Override
+            public GCLogCycleEntry get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+                }
+                return entry(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    void add(GCLogCycleEntry entry) {
+        int cycle = newCycle();
+        sequenceIds[cycle] = entry.getSequenceId();
+        timeStampNanos[cycle] = entry.getTimeStampNanos();
+        phases[cycle] = symbols.id(entry.getPhase());
+        aggregatedPhases[cycle] = symbols.id(entry.getAggregatedPhase());
+        causes[cycle] = symbols.id(entry.getCause());
+        heapBeforeGCMb[cycle] = entry.getHeapBeforeGCMb();
+        heapAfterGCMb[cycle] = entry.getHeapAfterGCMb();
+        heapSizeMb[cycle] = entry.getHeapSizeMb();
+        setTimeMs(cycle, entry.getTimeMs());
+        flags[cycle] = (byte) ((entry.isGenuineCollection() ? GENUINE_COLLECTION : 0) | (entry.isWasToSpaceExhausted() ? TO_SPACE_EXHAUSTED : 0));
+        maxAges[cycle] = entry.getMaxAge();
+        desiredSurvivorSizes[cycle] = entry.getDesiredSurvivorSize();
+        newTenuringThresholds[cycle] = entry.getNewTenuringThreshold();
+        maxTenuringThresholds[cycle] = entry.getMaxTenuringThreshold();
+
+        entry.getSubPhasesTime().forEach((name, time) -> subPhases.add(symbols.id(name), time.scale(), 0, 0, time.unscaledValue().longValueExact()));
+        subPhases.endCycle(cycle);
+        entry.getRegionsBeforeGC().forEach((name, before) -> regionCounts.add(symbols.id(name), raw(before),
+                raw(entry.getRegionsAfterGC().get(name)), raw(entry.getRegionsMax().get(name)), 0));
+        regionCounts.endCycle(cycle);
+        entry.getRegionsSizeAfterGC().forEach((name, regionSize) -> regionSizes.add(symbols.id(name), raw(regionSize),
+                raw(entry.getRegionsWastedAfterGC().get(name)), 0, 0));
+        regionSizes.endCycle(cycle);
+        entry.getLiveHumongousSizes().forEach(humongousSize -> liveHumongousSizes.add(0, 0, 0, 0, humongousSize));
+        liveHumongousSizes.endCycle(cycle);
+        entry.getDeadHumongousSizes().forEach(humongousSize -> deadHumongousSizes.add(0, 0, 0, 0, humongousSize));
+        deadHumongousSizes.endCycle(cycle);
+        entry.getBytesInAges().forEach((age, bytes) -> ages.add(age, 0, 0, 0, bytes));
+        ages.endCycle(cycle);
+    }
+
+    void addAll(GCCycleStore following) {
+        int[] ids = null;
+        if (following.symbols != symbols) {
+            ids = new int[following.symbols.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = symbols.id(following.symbols.name(i));
+            }
+        }
+        for (int source = 0; source < following.size; source++) {
+            int cycle = newCycle();
+            sequenceIds[cycle] = following.sequenceIds[source];
+            timeStampNanos[cycle] = following.timeStampNanos[source];
+            phases[cycle] = remap(ids, following.phases[source]);
+            aggregatedPhases[cycle] = remap(ids, following.aggregatedPhases[source]);
+            causes[cycle] = remap(ids, following.causes[source]);
+            heapBeforeGCMb[cycle] = following.heapBeforeGCMb[source];
+            heapAfterGCMb[cycle] = following.heapAfterGCMb[source];
+            heapSizeMb[cycle] = following.heapSizeMb[source];
+            timeMsUnscaled[cycle] = following.timeMsUnscaled[source];
+            timeMsScales[cycle] = following.timeMsScales[source];
+            flags[cycle] = following.flags[source];
+            maxAges[cycle] = following.maxAges[source];
+            desiredSurvivorSizes[cycle] = following.desiredSurvivorSizes[source];
+            newTenuringThresholds[cycle] = following.newTenuringThresholds[source];
+            maxTenuringThresholds[cycle] = following.maxTenuringThresholds[source];
+            subPhases.copyCycle(following.subPhases, source, cycle, ids);
+            regionCounts.copyCycle(following.regionCounts, source, cycle, ids);
+            regionSizes.copyCycle(following.regionSizes, source, cycle, ids);
+            liveHumongousSizes.copyCycle(following.liveHumongousSizes, source, cycle, null);
+            deadHumongousSizes.copyCycle(following.deadHumongousSizes, source, cycle, null);
+            ages.copyCycle(following.ages, source, cycle, null);
+        }
+    }
+
+    private int newCycle() {
+        if (size == sequenceIds.length) {
+            int capacity = size * 2;
+            sequenceIds = Arrays.copyOf(sequenceIds, capacity);
+            timeStampNanos = Arrays.copyOf(timeStampNanos, capacity);
+            phases = Arrays.copyOf(phases, capacity);
+            aggregatedPhases = Arrays.copyOf(aggregatedPhases, capacity);
+            causes = Arrays.copyOf(causes, capacity);
+            heapBeforeGCMb = Arrays.copyOf(heapBeforeGCMb, capacity);
+            heapAfterGCMb = Arrays.copyOf(heapAfterGCMb, capacity);
+            heapSizeMb = Arrays.copyOf(heapSizeMb, capacity);
+            timeMsUnscaled = Arrays.copyOf(timeMsUnscaled, capacity);
+            timeMsScales = Arrays.copyOf(timeMsScales, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            maxAges = Arrays.copyOf(maxAges, capacity);
+            desiredSurvivorSizes = Arrays.copyOf(desiredSurvivorSizes, capacity);
+            newTenuringThresholds = Arrays.copyOf(newTenuringThresholds, capacity);
+            maxTenuringThresholds = Arrays.copyOf(maxTenuringThresholds, capacity);
+        }
+        return size++;
+    }
+
+    private void setTimeMs(int cycle, BigDecimal time) {
+        if (time == null) {
+            timeMsScales[cycle] = NO_SCALE;
+        } else {
+            timeMsUnscaled[cycle] = time.unscaledValue().longValueExact();
+            timeMsScales[cycle] = (byte) time.scale();
+        }
+    }
+
+    // ids of another table, null when both stores share one
+    private static int remap(int[] ids, int id) {
+        return ids == null || id == NO_SYMBOL ? id : ids[id];
+    }
+
+    private static Integer regionValue(SideColumn column, int cycle, int regionId, int field) {
+        int index = column.indexOf(cycle, regionId);
+        return index < 0 ? null : value(column.ints(cycle, index, field));
+    }
+
+    private static int raw(Integer value) {
+        return value == null ? NO_VALUE : value;
+    }
+
+    private static Integer value(int raw) {
+        return raw == NO_VALUE ? null : raw;
+    }
+
+    // exact for the short decimals of GC logs, like BigDecimal.doubleValue()
+    private static double toDouble(long unscaled, int scale) {
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && Math.abs(unscaled) < 1L << 53) {
+            return unscaled / POWERS_OF_TEN[scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * Values of a variable number of items per cycle, every item having up to four int fields and at most one long field.
+     * Items of cycle {@code i} are the ones from the end of cycle {@code i - 1} to the end of cycle {@code i}; the first
+     * int field is the key looked up by {@link #indexOf(int, int)}.
+     */
+    private static final class SideColumn {
+        private final int intFields;
+        private final int longFields;
+        private int[] ends = new int[16];
+        private int items;
+        private int[] ints;
+        private long[] longs;
+
+        SideColumn(int intFields, boolean longField) {
+            this.intFields = intFields;
+            this.longFields = longField ? 1 : 0;
+            this.ints = new int[16 * intFields];
+            this.longs = new long[16 * longFields];
+        }
+
+        int count(int cycle) {
+            return ends[cycle] - start(cycle);
+        }
+
+        int ints(int cycle, int index, int field) {
+            return ints[(start(cycle) + index) * intFields + field];
+        }
+
+        long longs(int cycle, int index) {
+            return longs[start(cycle) + index];
+        }
+
+        int indexOf(int cycle, int key) {
+            int start = start(cycle);
+            for (int item = start; item < ends[cycle]; item++) {
+                if (ints[item * intFields] == key) {
+                    return item - start;
+                }
+            }
+            return -1;
+        }
+
+        long[] allLongs() {
+            return Arrays.copyOf(longs, items * longFields);
+        }
+
+        void add(int key, int first, int second, int third, long value) {
+            if ((items + 1) * intFields > ints.length) {
+                ints = Arrays.copyOf(ints, ints.length * 2);
+            }
+            if ((items + 1) * longFields > longs.length) {
+                longs = Arrays.copyOf(longs, longs.length * 2);
+            }
+            int offset = items * intFields;
+            switch (intFields) {
+                case 4:
+                    ints[offset + 3] = third;
+                    // fall through
+                case 3:
+                    ints[offset + 2] = second;
+                    // fall through
+                case 2:
+                    ints[offset + 1] = first;
+                    // fall through
+                case 1:
+                    ints[offset] = key;
+            }
+            if (longFields > 0) {
+                longs[items] = value;
+            }
+            items++;
+        }
+
+        void endCycle(int cycle) {
+            if (cycle == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[cycle] = items;
+        }
+
+        /**
+         * Copies items of a cycle of another column, translating the key through {@code ids} when given.
+         */
+        void copyCycle(SideColumn source, int sourceCycle, int cycle, int[] ids) {
+            for (int index = 0; index < source.count(sourceCycle); index++) {
+                int key = intFields > 0 ? source.ints(sourceCycle, index, 0) : 0;
+                add(ids == null ? key : ids[key],
+                        intFields > 1 ? source.ints(sourceCycle, index, 1) : 0,
+                        intFields > 2 ? source.ints(sourceCycle, index, 2) : 0,
+                        intFields > 3 ? source.ints(sourceCycle, index, 3) : 0,
+                        longFields > 0 ? source.longs(sourceCycle, index) : 0);
+            }
+            endCycle(cycle);
+        }
+
+        private int start(int cycle) {
+            return cycle == 0 ? 0 : ends[cycle - 1];
+        }
+    }
+}
@@ -17,10 +17,10 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
 
 public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
     public static final BigDecimal D1024 = new BigDecimal(1024L);
@@ -29,9 +29,22 @@ public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
     public static final BigDecimal JAVA_8_KB_MULTIPLIER = BigDecimal.ONE.divide(D1024, 12, RoundingMode.HALF_EVEN);
     public static final BigDecimal JAVA_8_B_MULTIPLIER = JAVA_8_KB_MULTIPLIER.divide(D1024, 12, RoundingMode.HALF_EVEN);
     public static final BigDecimal TO_MS_MULTIPLIER = new BigDecimal(1000);
+    private static final String SECS = " secs";
 
-    private GCLogFile gcLogFile = new GCLogFile();
+    private final GCLogFile gcLogFile;
+    private final SymbolTable symbols;
+    private String[] subSubPhaseNames = new String[16];
     private long java8SequenceId;
+    private int matchEnd;
+
+    public GCJdk8LogFileParser() {
+        this(new SymbolTable());
+    }
+
+    public GCJdk8LogFileParser(SymbolTable symbols) {
+        this.symbols = symbols;
+        gcLogFile = new GCLogFile(symbols);
+    }
 
     @Override
     public void parseLine(String line) {
@@ -90,31 +103,35 @@ public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
 
 
     private void addJava8PhaseYoungAndMixed(Long sequenceId, String line, GCLogFile gcLogFile, boolean subSubPhase) {
-        String phase = line.replaceFirst(".*\\[", "").replaceFirst(":.*", "");
-        if (subSubPhase) {
-            phase = "|______" + phase;
-        }
-        if (line.contains("Max:")) {
-            String time = line.replaceFirst(".*Max:", "").replaceFirst(", Diff.*", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+        int nameStart = line.lastIndexOf('[') + 1;
+        int nameEnd = indexOrLength(line, line.indexOf(':', nameStart));
+        int nameId = symbols.id(line, nameStart, nameEnd);
+        String phase = subSubPhase ? subSubPhaseName(nameId) : symbols.name(nameId);
+        int max = line.lastIndexOf("Max:");
+        if (max >= 0) {
+            int timeStart = max + "Max:".length();
+            gcLogFile.addSubPhaseTime(sequenceId, phase, decimal(line, timeStart, indexOrLength(line, line.indexOf(", Diff", timeStart))));
         } else {
-            String time = line.replaceFirst("ms.*", "").replaceFirst(".*:", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+            int timeEnd = indexOrLength(line, line.indexOf("ms"));
+            gcLogFile.addSubPhaseTime(sequenceId, phase, decimal(line, line.lastIndexOf(':', timeEnd - 1) + 1, timeEnd));
         }
     }
 
+    private String subSubPhaseName(int nameId) {
+        if (nameId >= subSubPhaseNames.length) {
+            subSubPhaseNames = Arrays.copyOf(subSubPhaseNames, Math.max(nameId + 1, subSubPhaseNames.length * 2));
+        }
+        if (subSubPhaseNames[nameId] == null) {
+            subSubPhaseNames[nameId] = "|______" + symbols.name(nameId);
+        }
+        return subSubPhaseNames[nameId];
+    }
+
     private void addJava8AgeCount(Long sequenceId, String line) {
-        String ageStr = line
-                .replaceFirst("- age", "")
-                .replaceFirst(":.*", "")
-                .trim();
-        String sizeStr = line
-                .replaceFirst(".*:", "")
-                .replaceFirst("bytes.*", "")
-                .trim();
-
-        int age = Integer.parseInt(ageStr);
-        long size = Long.parseLong(sizeStr);
+        int ageStart = line.indexOf("- age") + "- age".length();
+        int age = (int) number(line, ageStart, indexOrLength(line, line.indexOf(':', ageStart)), false);
+        int sizeStart = line.lastIndexOf(':') + 1;
+        long size = number(line, sizeStart, indexOrLength(line, line.indexOf("bytes", sizeStart)), true);
 
         gcLogFile.addAgeWithSize(sequenceId, age, size);
     }
@@ -131,61 +148,172 @@ public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
         gcLogFile.addSurvivorStats(sequenceId, desiredSize, newThreshold, maxThreshold);
     }
 
+    // the last "0,0123456 secs" before the [Times: ...] section
     private void addJava8Time(long sequenceId, String line) {
-        line = line.replaceFirst("\\[Times.*", "");
-        Pattern pattern = Pattern.compile("\\d+,\\d+ secs");
-        Matcher matcher = pattern.matcher(line);
-        String timeStr = null;
-        while ((matcher.find())) {
-            timeStr = matcher.group();
-        }
-        BigDecimal time = ParserUtils.parseFirstBigDecimal(timeStr, 0).multiply(TO_MS_MULTIPLIER);
+        int end = indexOrLength(line, line.indexOf("[Times"));
+        int timeStart = -1;
+        for (int found = find(line, 0, end, true, SECS); found >= 0; found = find(line, matchEnd, end, true, SECS)) {
+            timeStart = found;
+        }
+        if (timeStart < 0) {
+            throw new IllegalStateException("No time in line: " + line);
+        }
+        BigDecimal time = ParserUtils.parseFirstBigDecimal(line, timeStart).multiply(TO_MS_MULTIPLIER);
         gcLogFile.addTime(sequenceId, time);
     }
 
+    // the first sizes like 1024K (or 1024,0K with a comma) after the starting string: before, the maximal one before
+    // when present, after and the heap size
     private void addJava8Sizes(long sequenceId, String line, String startingString, boolean containsComma, boolean containsMaxHeapSizeBeforeGC) {
-        Pattern pattern = containsComma ? Pattern.compile("\\d+,\\d+[BMKG]") : Pattern.compile("\\d+[BMKG]");
-        String stringToSearch = line.substring(line.indexOf(startingString));
-        Matcher matcher = pattern.matcher(stringToSearch);
-        matcher.find();
-        String before = matcher.group().replace(",", ".");
+        BigDecimal before = nextSize(line, line.indexOf(startingString), containsComma);
         if (containsMaxHeapSizeBeforeGC) {
-            matcher.find();
+            nextSize(line, matchEnd, containsComma);
         }
-        matcher.find();
-        String after = matcher.group().replace(",", ".");
-        matcher.find();
-        String heapSize = matcher.group().replace(",", ".");
+        BigDecimal after = nextSize(line, matchEnd, containsComma);
+        BigDecimal heapSize = nextSize(line, matchEnd, containsComma);
 
-        gcLogFile.addSizes(sequenceId, getSizeWithUnit(before).intValue(), getSizeWithUnit(after).intValue(), getSizeWithUnit(heapSize).intValue());
+        gcLogFile.addSizes(sequenceId, before.intValue(), after.intValue(), heapSize.intValue());
     }
 
-    private BigDecimal getSizeWithUnit(String size) {
-        BigDecimal multiplier = getMultiplier(size);
-        return multiplier.multiply(new BigDecimal(size.substring(0, size.length() - 1))).setScale(2, RoundingMode.HALF_EVEN);
+    private BigDecimal nextSize(String line, int from, boolean withFraction) {
+        int start = find(line, from, line.length(), withFraction, null);
+        if (start < 0) {
+            throw new IllegalStateException("No size in line: " + line);
+        }
+        return getMultiplier(line.charAt(matchEnd - 1)).multiply(decimal(line, start, matchEnd - 1)).setScale(2, RoundingMode.HALF_EVEN);
     }
 
-    private BigDecimal getMultiplier(String size) {
-        if (size.charAt(size.length() - 1) == 'K') {
+    private BigDecimal getMultiplier(char unit) {
+        if (unit == 'K') {
             return JAVA_8_KB_MULTIPLIER;
         }
-        if (size.charAt(size.length() - 1) == 'M') {
+        if (unit == 'M') {
             return JAVA_8_MB_MULTIPLIER;
         }
-        if (size.charAt(size.length() - 1) == 'G') {
+        if (unit == 'G') {
             return JAVA_8_GB_MULTIPLIER;
         }
         return JAVA_8_B_MULTIPLIER;
     }
 
-    private BigDecimal getJava8TimeStamp(String line) {
-        Pattern pattern = Pattern.compile("\\d+,\\d+: ");
-        Matcher matcher = pattern.matcher(line);
-        matcher.find();
-        return new BigDecimal(matcher.group().replace(',', '.').replace(": ", "").trim());
+    private long getJava8TimeStamp(String line) {
+        int start = find(line, 0, line.length(), true, ": ");
+        if (start < 0) {
+            throw new IllegalStateException("No time stamp in line: " + line);
+        }
+        return decimal(line, start, matchEnd - 2).movePointRight(9).longValue();
     }
 
     private String getJava8Phase(String line) {
-        return line.substring(line.indexOf("("), line.lastIndexOf(")") + 1);
+        return symbols.name(symbols.id(line, line.indexOf("("), line.lastIndexOf(")") + 1));
+    }
+
+    /**
+     * Start of the first number between {@code from} and {@code to} made of digits (or digits, a comma and digits)
+     * and followed by the suffix, or by a size unit when there is no suffix; the end of the match is kept in
+     * {@link #matchEnd}. Matches the same text as {@code \d+,\d+ secs} or {@code \d+[BMKG]} patterns would.
+     */
+    private int find(String line, int from, int to, boolean withFraction, String suffix) {
+        int i = from;
+        while (i < to) {
+            if (!isDigit(line.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            i = skipDigits(line, i, to);
+            int end = i;
+            if (withFraction) {
+                if (end >= to || line.charAt(end) != ',') {
+                    continue;
+                }
+                end = skipDigits(line, end + 1, to);
+                if (end == i + 1) {
+                    continue;
+                }
+            }
+            int suffixEnd = suffix == null ? end + 1 : end + suffix.length();
+            if (suffixEnd <= to && (suffix == null ? isSizeUnit(line.charAt(end)) : line.startsWith(suffix, end))) {
+                matchEnd = suffixEnd;
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number between the given indexes with blanks around it, a comma or a dot separates the fraction.
+     */
+    private static BigDecimal decimal(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean separator = false;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (isDigit(c) && digits < 18) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (separator) {
+                    scale++;
+                }
+            } else if ((c == ',' || c == '.') && !separator) {
+                separator = true;
+            } else {
+                return new BigDecimal(line.substring(from, to).replace(',', '.'));
+            }
+        }
+        if (digits == 0) {
+            return new BigDecimal(line.substring(from, to).replace(',', '.'));
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static long number(String line, int from, int to, boolean asLong) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (!isDigit(c) || i - from >= 9) {
+                String number = line.substring(from, to);
+                return asLong ? Long.parseLong(number) : Integer.parseInt(number);
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (from == to) {
+            throw new NumberFormatException("No number in line: " + line);
+        }
+        return value;
+    }
+
+    private static int skipDigits(String line, int from, int to) {
+        int i = from;
+        while (i < to && isDigit(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSizeUnit(char c) {
+        return c == 'B' || c == 'M' || c == 'K' || c == 'G';
+    }
+
+    private static int indexOrLength(String line, int index) {
+        return index < 0 ? line.length() : index;
     }
 }
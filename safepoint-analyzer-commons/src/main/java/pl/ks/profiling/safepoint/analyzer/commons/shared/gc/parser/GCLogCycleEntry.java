@@ -22,6 +22,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 @Getter
 public class GCLogCycleEntry {
@@ -32,7 +33,7 @@ public class GCLogCycleEntry {
     public static final String REMARK_COLLECTION = "remark";
 
     private long sequenceId;
-    private BigDecimal timeStamp;
+    private long timeStampNanos;
     private String phase;
     private String aggregatedPhase;
     private String cause;
@@ -101,10 +102,10 @@ public class GCLogCycleEntry {
     public static final String REGIONS_OLD = "Old regions";
     public static final String REGIONS_HUMONGOUS = "Humongous regions";
 
-    GCLogCycleEntry(Long sequenceId, String phase, BigDecimal timeStamp) {
+    GCLogCycleEntry(Long sequenceId, String phase, long timeStampNanos) {
         this.sequenceId = sequenceId;
         this.phase = phase;
-        this.timeStamp = timeStamp;
+        this.timeStampNanos = timeStampNanos;
 
         if (phase.contains("Pause Young")) {
             if (phase.contains("(Mixed)")) {
@@ -142,6 +143,10 @@ public class GCLogCycleEntry {
         fillCause();
     }
 
+    public BigDecimal getTimeStamp() {
+        return TimeStampDecoder.toSeconds(timeStampNanos);
+    }
+
     private void fillCause() {
         int start = phase.lastIndexOf('(');
         int end = phase.lastIndexOf(')');
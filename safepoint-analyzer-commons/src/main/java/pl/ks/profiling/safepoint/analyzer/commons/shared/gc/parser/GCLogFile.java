@@ -21,10 +21,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
 
 public class GCLogFile {
     @Getter
-    private List<GCLogCycleEntry> cycleEntries = new ArrayList<>();
+    private final GCCycleStore cycleStore;
     @Getter
     private List<GCLogConcurrentCycleEntry> concurrentCycleEntries = new ArrayList<>();
     @Getter
@@ -33,21 +34,44 @@ public class GCLogFile {
     private GCStats stats;
 
     private GCLogConcurrentCycleEntry lastConcurrentCycle = null;
+    private int mixedCollectionsBeforeFirstConcurrentCycle;
+    private Integer remarkReclaimedBeforeFirstConcurrentCycle;
 
     private Map<Long, GCLogCycleEntry> unprocessedCycles = new HashMap<>();
+    private int statsCycleEntries;
+    private int statsConcurrentCycleEntries;
+
+    GCLogFile(SymbolTable symbols) {
+        cycleStore = new GCCycleStore(symbols);
+    }
+
+    /**
+     * Finished cycles, built from {@link #getCycleStore()} on every read.
+     */
+    public List<GCLogCycleEntry> getCycleEntries() {
+        return cycleStore.entries();
+    }
 
     void newLine(Long cycleId, String line) {
         rawLogLines.computeIfAbsent(cycleId, id -> new ArrayList<>()).add(line);
     }
 
-    void newPhase(Long sequenceId, String phase, BigDecimal timeStamp) {
-        GCLogCycleEntry cycle = new GCLogCycleEntry(sequenceId, phase, timeStamp);
+    void newPhase(Long sequenceId, String phase, long timeStampNanos) {
+        GCLogCycleEntry cycle = new GCLogCycleEntry(sequenceId, phase, timeStampNanos);
         unprocessedCycles.put(sequenceId, cycle);
-        if (cycle.isMixed() && lastConcurrentCycle != null) {
-            lastConcurrentCycle.nextMixedCollection();
+        if (cycle.isMixed()) {
+            if (lastConcurrentCycle != null) {
+                lastConcurrentCycle.nextMixedCollection();
+            } else {
+                mixedCollectionsBeforeFirstConcurrentCycle++;
+            }
         }
     }
 
+    boolean isCycleOpen(Long sequenceId) {
+        return unprocessedCycles.containsKey(sequenceId);
+    }
+
     void addSubPhaseTime(Long sequenceId, String phase, BigDecimal time) {
         GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
         if (gcLogCycleEntry == null) {
@@ -62,8 +86,8 @@ public class GCLogFile {
             return;
         }
         gcLogCycleEntry.addSizes(heapBeforeGC, heapAfterGC, heapSize);
-        if (gcLogCycleEntry.isRemark() && lastConcurrentCycle != null) {
-            lastConcurrentCycle.setRemarkReclaimed(heapBeforeGC - heapAfterGC);
+        if (gcLogCycleEntry.isRemark()) {
+            remarkReclaimed(heapBeforeGC - heapAfterGC);
         }
     }
 
@@ -72,7 +96,7 @@ public class GCLogFile {
         if (gcLogCycleEntry == null) {
             return;
         }
-        cycleEntries.add(gcLogCycleEntry);
+        cycleStore.add(gcLogCycleEntry);
     }
 
     void addSizesAndTime(Long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize, BigDecimal phaseTime) {
@@ -80,10 +104,18 @@ public class GCLogFile {
         if (gcLogCycleEntry == null) {
             return;
         }
-        cycleEntries.add(gcLogCycleEntry);
         gcLogCycleEntry.addSizesAndTime(heapBeforeGC, heapAfterGC, heapSize, phaseTime);
-        if (gcLogCycleEntry.isRemark() && lastConcurrentCycle != null) {
-            lastConcurrentCycle.setRemarkReclaimed(heapBeforeGC - heapAfterGC);
+        cycleStore.add(gcLogCycleEntry);
+        if (gcLogCycleEntry.isRemark()) {
+            remarkReclaimed(heapBeforeGC - heapAfterGC);
+        }
+    }
+
+    private void remarkReclaimed(int reclaimed) {
+        if (lastConcurrentCycle != null) {
+            lastConcurrentCycle.setRemarkReclaimed(reclaimed);
+        } else {
+            remarkReclaimedBeforeFirstConcurrentCycle = reclaimed;
         }
     }
 
@@ -156,11 +188,34 @@ public class GCLogFile {
         gcLogCycleEntry.addSurvivorStats(desiredSize, newThreshold, maxThreshold);
     }
 
+    void append(GCLogFile following) {
+        for (int i = 0; i < following.mixedCollectionsBeforeFirstConcurrentCycle; i++) {
+            if (lastConcurrentCycle != null) {
+                lastConcurrentCycle.nextMixedCollection();
+            } else {
+                mixedCollectionsBeforeFirstConcurrentCycle++;
+            }
+        }
+        if (following.remarkReclaimedBeforeFirstConcurrentCycle != null) {
+            remarkReclaimed(following.remarkReclaimedBeforeFirstConcurrentCycle);
+        }
+        cycleStore.addAll(following.cycleStore);
+        concurrentCycleEntries.addAll(following.concurrentCycleEntries);
+        if (following.lastConcurrentCycle != null) {
+            lastConcurrentCycle = following.lastConcurrentCycle;
+        }
+        unprocessedCycles.putAll(following.unprocessedCycles);
+        following.rawLogLines.forEach((cycleId, lines) -> rawLogLines.computeIfAbsent(cycleId, id -> new ArrayList<>()).addAll(lines));
+    }
+
+    // the stats are kept only while nothing was added, otherwise they are created again over the whole log
     void parsingCompleted() {
-        if (stats != null) {
+        if (stats != null && statsCycleEntries == cycleStore.size() && statsConcurrentCycleEntries == concurrentCycleEntries.size()) {
             return;
         }
 
         stats = GCStatsCreator.createStats(this);
+        statsCycleEntries = cycleStore.size();
+        statsConcurrentCycleEntries = concurrentCycleEntries.size();
     }
 }
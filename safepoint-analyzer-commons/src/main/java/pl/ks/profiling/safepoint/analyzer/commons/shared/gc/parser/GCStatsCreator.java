@@ -16,44 +16,46 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
 import org.apache.commons.collections4.MapUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.GroupedValues;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStatsUtil;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.OptionalDouble;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class GCStatsCreator {
     public static GCStats createStats(GCLogFile gcLogFile) {
+        GCCycleStore cycles = gcLogFile.getCycleStore();
         GCStats gcStats = new GCStats();
-        generateAgingStats(gcLogFile, gcStats);
-        generateAgingSummary(gcLogFile, gcStats);
-        generateCauseCounts(gcLogFile, gcStats);
+        generateAgingStats(cycles, gcStats);
+        generateAgingSummary(cycles, gcStats);
+        generateCauseCounts(cycles, gcStats);
 
-        gcStats.setGcRegions(gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet()));
-        gcStats.setGcPhases(gcLogFile.getCycleEntries().stream()
-                .map(GCLogCycleEntry::getPhase)
-                .collect(Collectors.toSet()));
-        gcStats.setGcAggregatedPhases(gcLogFile.getCycleEntries().stream()
-                .map(GCLogCycleEntry::getAggregatedPhase)
-                .collect(Collectors.toSet()));
+        Set<String> regions = new HashSet<>();
+        Set<String> phases = new HashSet<>();
+        Set<String> aggregatedPhases = new HashSet<>();
         Map<String, Set<String>> subPhasesMap = new LinkedHashMap<>();
-        for (GCLogCycleEntry GCLogCycleEntry : gcLogFile.getCycleEntries()) {
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            for (int i = 0; i < cycles.regionCount(cycle); i++) {
+                regions.add(cycles.symbolName(cycles.regionId(cycle, i)));
+            }
+            phases.add(cycles.phase(cycle));
+            aggregatedPhases.add(cycles.aggregatedPhase(cycle));
             Set<String> currentParentSet = null;
-            for (String phaseName : GCLogCycleEntry.getSubPhasesTime().keySet()) {
+            for (int i = 0; i < cycles.subPhaseCount(cycle); i++) {
+                String phaseName = cycles.subPhaseName(cycle, i);
                 if (phaseName.startsWith("--") && currentParentSet != null) {
                     currentParentSet.add(phaseName);
                 } else {
@@ -61,6 +63,9 @@ public class GCStatsCreator {
                 }
             }
         }
+        gcStats.setGcRegions(regions);
+        gcStats.setGcPhases(phases);
+        gcStats.setGcAggregatedPhases(aggregatedPhases);
 
         Set<String> subPhases = new LinkedHashSet<>();
         for (String parent : subPhasesMap.keySet()) {
@@ -70,62 +75,61 @@ public class GCStatsCreator {
 
         gcStats.setSubPhases(subPhases);
 
-        generatePhaseStats(gcLogFile, gcStats);
-        generateAggregatedPhaseStats(gcLogFile, gcStats);
+        generatePhaseStats(cycles, gcStats);
         generateConcurrentCycleStats(gcLogFile, gcStats);
-        generateHumongousStats(gcLogFile, gcStats);
-        generateToSpaceStats(gcLogFile, gcStats);
-        generateFullGcStats(gcLogFile, gcStats);
-        generateAllocationStats(gcLogFile, gcStats);
+        generateHumongousStats(cycles, gcStats);
+        generateToSpaceStats(cycles, gcStats);
+        generateFullGcStats(cycles, gcStats);
+        generateAllocationStats(cycles, gcStats);
         return gcStats;
     }
 
-    private static void generateAllocationStats(GCLogFile gcLogFile, GCStats gcStats) {
-        GCLogCycleEntry prev = null;
-        GCLogCycleEntry current = null;
-        BigDecimal allocation = BigDecimal.ZERO;
-        for (GCLogCycleEntry cycle : gcLogFile.getCycleEntries()) {
-            prev = current;
-            current = cycle;
-            if (prev == null) {
-                continue;
-            }
-            allocation = allocation.add(new BigDecimal(current.getHeapBeforeGCMb())).subtract(new BigDecimal(prev.getHeapAfterGCMb()));
+    private static void generateAllocationStats(GCCycleStore cycles, GCStats gcStats) {
+        long allocation = 0;
+        for (int cycle = 1; cycle < cycles.size(); cycle++) {
+            allocation += cycles.heapBeforeGCMb(cycle) - cycles.heapAfterGCMb(cycle - 1);
         }
         gcStats.setAllocationStats(new GCAllocationStats());
-        gcStats.getAllocationStats().setTotalAllocation(allocation);
+        gcStats.getAllocationStats().setTotalAllocation(BigDecimal.valueOf(allocation));
     }
 
-    private static void generateCauseCounts(GCLogFile gcLogFile, GCStats gcStats) {
-        Map<String, Long> map = gcLogFile.getCycleEntries().stream()
-                .map(GCLogCycleEntry::getCause)
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    private static void generateCauseCounts(GCCycleStore cycles, GCStats gcStats) {
+        long[] counts = new long[cycles.symbolCount()];
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            if (cycles.causeId(cycle) != GCCycleStore.NO_SYMBOL) {
+                counts[cycles.causeId(cycle)]++;
+            }
+        }
+        Map<String, Long> map = new HashMap<>();
+        for (int cause = 0; cause < counts.length; cause++) {
+            if (counts[cause] > 0) {
+                map.put(cycles.symbolName(cause), counts[cause]);
+            }
+        }
         if (MapUtils.isNotEmpty(map)) {
             gcStats.setReasonCount(map);
         }
     }
 
-    private static void generateFullGcStats(GCLogFile gcLogFile, GCStats gcStats) {
+    private static void generateFullGcStats(GCCycleStore cycles, GCStats gcStats) {
         gcStats.setFullGcSequenceIds(
-                gcLogFile.getCycleEntries().stream()
-                        .filter(GCLogCycleEntry -> GCLogCycleEntry.getPhase().contains("Full"))
-                        .map(GCLogCycleEntry::getSequenceId)
+                Arrays.stream(cycles.select(cycle -> cycles.phase(cycle).contains("Full")))
+                        .mapToObj(cycles::sequenceId)
                         .collect(Collectors.toList())
         );
     }
 
-    private static void generateToSpaceStats(GCLogFile gcLogFile, GCStats gcStats) {
-        List<GCToSpaceStats> toSPaceStats = gcLogFile.getCycleEntries().stream()
-                .filter(GCLogCycleEntry::isWasToSpaceExhausted)
-                .map(GCLogCycleEntry -> {
+    private static void generateToSpaceStats(GCCycleStore cycles, GCStats gcStats) {
+        List<GCToSpaceStats> toSPaceStats = Arrays.stream(cycles.select(cycles::isWasToSpaceExhausted))
+                .mapToObj(cycle -> {
                     GCToSpaceStats toSpaceStats = new GCToSpaceStats();
-                    toSpaceStats.setSequenceId(GCLogCycleEntry.getSequenceId());
+                    toSpaceStats.setSequenceId(cycles.sequenceId(cycle));
                     for (String region : gcStats.getGcRegions()) {
+                        int regionId = cycles.symbol(region);
                         String stat = "---";
-                        if (GCLogCycleEntry.getRegionsBeforeGC().get(region) != null &&
-                                GCLogCycleEntry.getRegionsAfterGC().get(region) != null) {
-                            stat = GCLogCycleEntry.getRegionsBeforeGC().get(region) + " --> " + GCLogCycleEntry.getRegionsAfterGC().get(region);
+                        if (cycles.regionsBeforeGC(cycle, regionId) != null &&
+                                cycles.regionsAfterGC(cycle, regionId) != null) {
+                            stat = cycles.regionsBeforeGC(cycle, regionId) + " --> " + cycles.regionsAfterGC(cycle, regionId);
                         }
                         toSpaceStats.getRegionStats().put(region, stat);
                     }
@@ -135,182 +139,232 @@ public class GCStatsCreator {
         gcStats.setToSpaceStats(toSPaceStats);
     }
 
-    private static void generateHumongousStats(GCLogFile gcLogFile, GCStats gcStats) {
-        List<Long> live = gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getLiveHumongousSizes().stream())
-                .collect(Collectors.toList());
-        List<Long> dead = gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getDeadHumongousSizes().stream())
-                .collect(Collectors.toList());
-        List<Long> all = new ArrayList<>(live.size() + dead.size());
-        all.addAll(live);
-        all.addAll(dead);
+    private static void generateHumongousStats(GCCycleStore cycles, GCStats gcStats) {
+        long[] live = cycles.liveHumongousSizes();
+        long[] dead = cycles.deadHumongousSizes();
 
         boolean any = false;
-        if (live.size() > 0) {
-            gcStats.setLiveHumongousStats(OneFiledAllStatsUtil.create(live.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+        if (live.length > 0) {
+            gcStats.setLiveHumongousStats(OneFiledAllStatsUtil.create(toDoubles(live)));
             any = true;
         }
-        if (dead.size() > 0) {
-            gcStats.setDeadHumongousStats(OneFiledAllStatsUtil.create(dead.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+        if (dead.length > 0) {
+            gcStats.setDeadHumongousStats(OneFiledAllStatsUtil.create(toDoubles(dead)));
             any = true;
         }
         if (any) {
-            gcStats.setAllHumongousStats(OneFiledAllStatsUtil.create(all.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+            double[] all = new double[live.length + dead.length];
+            for (int i = 0; i < live.length; i++) {
+                all[i] = live[i];
+            }
+            for (int i = 0; i < dead.length; i++) {
+                all[live.length + i] = dead[i];
+            }
+            gcStats.setAllHumongousStats(OneFiledAllStatsUtil.create(all));
         }
     }
 
     private static void generateConcurrentCycleStats(GCLogFile gcLogFile, GCStats gcStats) {
-        Set<String> phasesName = gcLogFile.getConcurrentCycleEntries().stream()
-                .map(GCLogConcurrentCycleEntry::getPhase)
-                .collect(Collectors.toSet());
-        List<GCConcurrentCycleStats> cyclesStats = phasesName.stream()
-                .map(phase -> {
-                    GCConcurrentCycleStats stats = new GCConcurrentCycleStats();
-                    stats.setName(phase);
-                    List<GCLogConcurrentCycleEntry> toProcess = gcLogFile.getConcurrentCycleEntries().stream()
-                            .filter(gcConcurrentCycleInfo -> phase.equals(gcConcurrentCycleInfo.getPhase()))
-                            .collect(Collectors.toList());
-                    stats.setCount((long) toProcess.size());
-                    stats.setTime(OneFiledAllStatsUtil.create(toProcess.stream()
-                            .mapToDouble(cycle -> cycle.getTime().doubleValue())
-                            .toArray()));
-                    return stats;
-                })
-                .collect(Collectors.toList());
+        List<GCLogConcurrentCycleEntry> entries = gcLogFile.getConcurrentCycleEntries();
+        Map<String, Integer> phases = new LinkedHashMap<>();
+        int[] entryPhases = new int[entries.size()];
+        int[] phaseCounts = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            entryPhases[i] = phases.computeIfAbsent(entries.get(i).getPhase(), ignored -> phases.size());
+            phaseCounts[entryPhases[i]]++;
+        }
+        GroupedValues times = new GroupedValues(phases.size(), 1);
+        for (int phase = 0; phase < phases.size(); phase++) {
+            times.expect(phase, 0, phaseCounts[phase]);
+        }
+        times.allocate();
+        for (int i = 0; i < entries.size(); i++) {
+            times.add(entryPhases[i], 0, entries.get(i).getTime().doubleValue());
+        }
+
+        List<GCConcurrentCycleStats> cyclesStats = new ArrayList<>(phases.size());
+        phases.forEach((phase, group) -> {
+            GCConcurrentCycleStats stats = new GCConcurrentCycleStats();
+            stats.setName(phase);
+            stats.setCount((long) times.count(group, 0));
+            stats.setTime(times.stats(group, 0));
+            cyclesStats.add(stats);
+        });
         gcStats.setGcConcurrentCycleStats(cyclesStats);
     }
 
-    private static void generatePhaseStats(GCLogFile gcLogFile, GCStats gcStats) {
-        List<GCPhaseStats> phasesStats = gcStats.getGcPhases().stream()
-                .map(phase -> {
-                    GCPhaseStats gcPhaseStats = new GCPhaseStats();
-                    gcPhaseStats.setName(phase);
-                    List<GCLogCycleEntry> cycles = gcLogFile.getCycleEntries().stream()
-                            .filter(GCLogCycleEntry -> phase.equals(GCLogCycleEntry.getPhase()))
-                            .collect(Collectors.toList());
-                    Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
-                    for (String subPhase : gcStats.getSubPhases()) {
-                        final String subPhaseName = subPhase;
-                        subPhasesStats.put(subPhase, OneFiledAllStatsUtil.create(cycles.stream()
-                                .map(GCLogCycleEntry -> GCLogCycleEntry.getSubPhasesTime().get(subPhaseName))
-                                .filter(Objects::nonNull)
-                                .mapToDouble(BigDecimal::doubleValue)
-                                .toArray()
-                        ));
-                    }
-                    gcPhaseStats.setSubPhaseTimes(subPhasesStats);
-                    gcPhaseStats.setCount((long) cycles.size());
-                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> cycleInfo.getTimeMs().doubleValue()));
-                    return gcPhaseStats;
-                })
-                .sorted(Comparator.comparing(GCPhaseStats::getName))
-                .collect(Collectors.toList());
-        gcStats.setGcPhaseStats(phasesStats);
+    // the time and the sub-phase times of every cycle go to its phase and to its aggregated phase, the first pass
+    // only counts them so that every cell is allocated once with its exact size
+    static void generatePhaseStats(GCCycleStore cycles, GCStats gcStats) {
+        List<String> phases = new ArrayList<>(gcStats.getGcPhases());
+        List<String> aggregatedPhases = new ArrayList<>(gcStats.getGcAggregatedPhases());
+        List<String> subPhases = new ArrayList<>(gcStats.getSubPhases());
+        int[] phaseGroups = indexesBySymbol(cycles, phases);
+        int[] aggregatedPhaseGroups = indexesBySymbol(cycles, aggregatedPhases);
+        int[] subPhaseKeys = indexesBySymbol(cycles, subPhases);
+        GroupedValues phaseValues = new GroupedValues(phases.size(), subPhases.size() + 1);
+        GroupedValues aggregatedPhaseValues = new GroupedValues(aggregatedPhases.size(), subPhases.size() + 1);
+
+        addPhaseValues(cycles, phaseGroups, aggregatedPhaseGroups, subPhaseKeys, subPhases.size(), phaseValues, aggregatedPhaseValues);
+        phaseValues.allocate();
+        aggregatedPhaseValues.allocate();
+        addPhaseValues(cycles, phaseGroups, aggregatedPhaseGroups, subPhaseKeys, subPhases.size(), phaseValues, aggregatedPhaseValues);
+
+        gcStats.setGcPhaseStats(createPhaseStats(phases, subPhases, phaseValues));
+        gcStats.setGcAggregatedPhaseStats(createPhaseStats(aggregatedPhases, subPhases, aggregatedPhaseValues));
     }
 
-    private static void generateAggregatedPhaseStats(GCLogFile gcLogFile, GCStats gcStats) {
-        List<GCPhaseStats> phasesStats = gcStats.getGcAggregatedPhases().stream()
-                .map(phase -> {
-                    GCPhaseStats gcPhaseStats = new GCPhaseStats();
-                    gcPhaseStats.setName(phase);
-                    List<GCLogCycleEntry> cycles = gcLogFile.getCycleEntries().stream()
-                            .filter(GCLogCycleEntry -> phase.equals(GCLogCycleEntry.getAggregatedPhase()))
-                            .collect(Collectors.toList());
-                    Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
-                    for (String subPhase : gcStats.getSubPhases()) {
-                        final String subPhaseName = subPhase;
-                        subPhasesStats.put(subPhase, OneFiledAllStatsUtil.create(cycles.stream()
-                                .map(GCLogCycleEntry -> GCLogCycleEntry.getSubPhasesTime().get(subPhaseName))
-                                .filter(Objects::nonNull)
-                                .mapToDouble(BigDecimal::doubleValue)
-                                .toArray()
-                        ));
-                    }
-                    gcPhaseStats.setSubPhaseTimes(subPhasesStats);
-                    gcPhaseStats.setCount((long) cycles.size());
-                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> cycleInfo.getTimeMs().doubleValue()));
-                    return gcPhaseStats;
-                })
-                .sorted(Comparator.comparing(GCPhaseStats::getName))
-                .collect(Collectors.toList());
-        gcStats.setGcAggregatedPhaseStats(phasesStats);
+    // the time of a cycle is kept under the key after its sub-phases
+    private static void addPhaseValues(GCCycleStore cycles, int[] phaseGroups, int[] aggregatedPhaseGroups, int[] subPhaseKeys, int timeKey,
+                                       GroupedValues phaseValues, GroupedValues aggregatedPhaseValues) {
+        // only the first time of a sub-phase logged twice in a cycle is counted
+        int[] lastCycles = new int[timeKey];
+        Arrays.fill(lastCycles, -1);
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            int phase = index(phaseGroups, cycles.phaseId(cycle));
+            int aggregatedPhase = index(aggregatedPhaseGroups, cycles.aggregatedPhaseId(cycle));
+            double time = cycles.timeMsAsDouble(cycle);
+            add(phaseValues, phase, timeKey, time);
+            add(aggregatedPhaseValues, aggregatedPhase, timeKey, time);
+            for (int i = 0; i < cycles.subPhaseCount(cycle); i++) {
+                int subPhase = index(subPhaseKeys, cycles.subPhaseId(cycle, i));
+                if (subPhase < 0 || lastCycles[subPhase] == cycle) {
+                    continue;
+                }
+                lastCycles[subPhase] = cycle;
+                double subPhaseTime = cycles.subPhaseTimeAsDouble(cycle, i);
+                add(phaseValues, phase, subPhase, subPhaseTime);
+                add(aggregatedPhaseValues, aggregatedPhase, subPhase, subPhaseTime);
+            }
+        }
     }
 
-    private static void generateAgingSummary(GCLogFile gcLogFile, GCStats gcStats) {
-        if (gcLogFile.getCycleEntries().size() < 2) {
+    private static List<GCPhaseStats> createPhaseStats(List<String> phases, List<String> subPhases, GroupedValues values) {
+        int timeKey = subPhases.size();
+        List<GCPhaseStats> phasesStats = new ArrayList<>(phases.size());
+        for (int phase = 0; phase < phases.size(); phase++) {
+            GCPhaseStats gcPhaseStats = new GCPhaseStats();
+            gcPhaseStats.setName(phases.get(phase));
+            Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
+            for (int subPhase = 0; subPhase < subPhases.size(); subPhase++) {
+                subPhasesStats.put(subPhases.get(subPhase), values.stats(phase, subPhase));
+            }
+            gcPhaseStats.setSubPhaseTimes(subPhasesStats);
+            gcPhaseStats.setCount((long) values.count(phase, timeKey));
+            gcPhaseStats.setTime(values.stats(phase, timeKey));
+            phasesStats.add(gcPhaseStats);
+        }
+        phasesStats.sort(Comparator.comparing(GCPhaseStats::getName));
+        return phasesStats;
+    }
+
+    // the index of the name of each symbol in the list, -1 for symbols not in it
+    private static int[] indexesBySymbol(GCCycleStore cycles, List<String> names) {
+        int[] indexes = new int[cycles.symbolCount()];
+        Arrays.fill(indexes, -1);
+        for (int i = 0; i < names.size(); i++) {
+            int id = cycles.symbol(names.get(i));
+            if (id != GCCycleStore.NO_SYMBOL && id < indexes.length) {
+                indexes[id] = i;
+            }
+        }
+        return indexes;
+    }
+
+    private static int index(int[] indexesBySymbol, int id) {
+        return id == GCCycleStore.NO_SYMBOL ? -1 : indexesBySymbol[id];
+    }
+
+    private static void add(GroupedValues values, int group, int key, double value) {
+        if (group >= 0) {
+            values.add(group, key, value);
+        }
+    }
+
+    private static void generateAgingSummary(GCCycleStore cycles, GCStats gcStats) {
+        if (cycles.size() < 2) {
             return;
         }
 
-        GCAgingSummary gcAgingSummary = new GCAgingSummary();
-        gcAgingSummary.setSurvivedRatio(new HashMap<>());
-        for (int i = 1; i <= gcStats.getMaxSurvivorAge() - 1; i++) {
-            int age = i;
-            OptionalDouble averageRatio = gcStats.getGcAgingStats().stream()
-                    .filter(gcAgingStats -> gcAgingStats.getSurvivedRatio().containsKey(age))
-                    .mapToDouble(value -> value.getSurvivedRatio().get(age).doubleValue())
-                    .average();
-            gcAgingSummary.getSurvivedRatio().put(age, averageRatio.orElse(-1.0));
+        int maxAge = (int) gcStats.getMaxSurvivorAge();
+        DoubleSummaryStatistics[] ratios = new DoubleSummaryStatistics[maxAge + 1];
+        for (int age = 1; age <= maxAge; age++) {
+            ratios[age] = new DoubleSummaryStatistics();
+        }
+        for (GCAgingStats gcAgingStats : gcStats.getGcAgingStats()) {
+            gcAgingStats.getSurvivedRatio().forEach((age, ratio) -> {
+                if (age >= 1 && age <= maxAge - 1) {
+                    ratios[age].accept(ratio.doubleValue());
+                }
+            });
         }
 
-        for (int i = 1; i <= gcStats.getMaxSurvivorAge(); i++) {
-            int age = i;
-            double[] sizes = gcLogFile.getCycleEntries().stream()
-                    .filter(GCLogCycleEntry -> !GCLogCycleEntry.getBytesInAges().isEmpty())
-                    .map(GCLogCycleEntry -> GCLogCycleEntry.getBytesInAges().get(age))
-                    .filter(Objects::nonNull)
-                    .mapToDouble(Long::doubleValue)
-                    .toArray();
+        GroupedValues sizes = new GroupedValues(1, maxAge + 1);
+        addAgingSizes(cycles, maxAge, sizes);
+        sizes.allocate();
+        addAgingSizes(cycles, maxAge, sizes);
 
-            gcAgingSummary.getAgingSizes().put(age, OneFiledAllStatsUtil.create(sizes));
+        GCAgingSummary gcAgingSummary = new GCAgingSummary();
+        gcAgingSummary.setSurvivedRatio(new HashMap<>());
+        for (int age = 1; age <= maxAge - 1; age++) {
+            gcAgingSummary.getSurvivedRatio().put(age, ratios[age].getCount() == 0 ? -1.0 : ratios[age].getAverage());
+        }
+        for (int age = 1; age <= maxAge; age++) {
+            gcAgingSummary.getAgingSizes().put(age, sizes.stats(0, age));
         }
         gcStats.setGcAgingSummary(gcAgingSummary);
     }
 
-    private static void generateAgingStats(GCLogFile gcLogFile, GCStats gcStats) {
-        if (gcLogFile.getCycleEntries() == null || gcLogFile.getCycleEntries().size() < 2) {
+    private static void addAgingSizes(GCCycleStore cycles, int maxAge, GroupedValues sizes) {
+        // only the first size of an age logged twice in a cycle is counted
+        int[] lastCycles = new int[maxAge + 1];
+        Arrays.fill(lastCycles, -1);
+        for (int cycle = 0; cycle < cycles.size(); cycle++) {
+            for (int i = 0; i < cycles.ageCount(cycle); i++) {
+                int age = cycles.age(cycle, i);
+                if (age >= 1 && age <= maxAge && lastCycles[age] != cycle) {
+                    lastCycles[age] = cycle;
+                    sizes.add(0, age, cycles.bytesInAgeAt(cycle, i));
+                }
+            }
+        }
+    }
+
+    private static void generateAgingStats(GCCycleStore cycles, GCStats gcStats) {
+        if (cycles.size() < 2) {
             return;
         }
 
         List<GCAgingStats> gcAgingStatsList = new ArrayList<>();
-        GCLogCycleEntry prev = null;
+        int prev = -1;
         long maxAge = 0L;
-        List<GCLogCycleEntry> toProcess = gcLogFile.getCycleEntries().stream()
-                .filter(GCLogCycleEntry -> !GCLogCycleEntry.getBytesInAges().isEmpty())
-                .collect(Collectors.toList());
-
-        for (GCLogCycleEntry gcLogCycleEntry : toProcess) {
-            if (prev != null) {
+        for (int cycle : cycles.select(cycles::hasAges)) {
+            if (prev >= 0) {
                 GCAgingStats gcAgingStats = new GCAgingStats();
-                for (Map.Entry<Integer, Long> agingEntry : gcLogCycleEntry.getBytesInAges().entrySet()) {
-                    if (agingEntry.getKey() == 1) {
+                for (int i = 0; i < cycles.ageCount(cycle); i++) {
+                    int age = cycles.age(cycle, i);
+                    if (age == 1) {
                         continue;
                     }
-                    BigDecimal rate = BigDecimal.valueOf(agingEntry.getValue()).divide(BigDecimal.valueOf(prev.getBytesInAges().get(agingEntry.getKey() - 1)), 3, RoundingMode.HALF_EVEN);
-                    gcAgingStats.getSurvivedRatio().put(agingEntry.getKey() - 1, rate);
+                    BigDecimal rate = BigDecimal.valueOf(cycles.bytesInAgeAt(cycle, i)).divide(BigDecimal.valueOf(cycles.bytesInAge(prev, age - 1)), 3, RoundingMode.HALF_EVEN);
+                    gcAgingStats.getSurvivedRatio().put(age - 1, rate);
                 }
-                gcAgingStats.setSequenceId(gcLogCycleEntry.getSequenceId());
-                gcAgingStats.setTimeStamp(gcLogCycleEntry.getTimeStamp());
+                gcAgingStats.setSequenceId(cycles.sequenceId(cycle));
+                gcAgingStats.setTimeStamp(cycles.timeStamp(cycle));
                 gcAgingStatsList.add(gcAgingStats);
             }
-            maxAge = Math.max(maxAge, gcLogCycleEntry.getMaxAge());
-            prev = gcLogCycleEntry;
+            maxAge = Math.max(maxAge, cycles.maxAge(cycle));
+            prev = cycle;
         }
         gcStats.setGcAgingStats(gcAgingStatsList);
         gcStats.setMaxSurvivorAge(maxAge);
     }
 
-    private static OneFiledAllStats createAllStats(List<GCLogCycleEntry> cycles, Function<GCLogCycleEntry, Double> valueFunc) {
-        double[] values = cycles.stream()
-                .map(valueFunc)
-                .mapToDouble(Double::doubleValue)
-                .toArray();
-        return OneFiledAllStatsUtil.create(values);
+    private static double[] toDoubles(long[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
     }
 }
@@ -15,77 +15,99 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.MultiPatternMatcher;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
-    private final GCLogFile gcLogFile = new GCLogFile();
+import java.util.Set;
+
+public class GCUnifiedLogFileParser implements MergeableFileParser<GCLogFile, GCUnifiedLogFileParser> {
+    private final SymbolTable symbols;
+    private final GCLogFile gcLogFile;
+    private final G1LineScanner scanner = new G1LineScanner();
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
+    private final boolean partial;
+    private final List<String> orphanLines = new ArrayList<>();
+    private Long firstStartedSequenceId;
     private String lastRegion;
 
-    public interface TriConsumer<A, B, C> {
-        void accept(A a, B b, C c);
+    interface LineHandler {
+        void apply(GCUnifiedLogFileParser parser, GCLogFile logFile, Long sequenceId, String line);
     }
 
     static class GcLineParser {
-        private final List<String> included;
-        private final List<String> excluded;
-        private final TriConsumer<GCLogFile, Long, String> parseLine;
+        final List<String> included;
+        final List<String> excluded;
+        private final LineHandler parseLine;
+        private final boolean cycleStartRequired;
+        private long includedMask;
+        private long excludedMask;
+
+        public GcLineParser(List<String> included, List<String> excluded, LineHandler parseLine) {
+            this(included, excluded, true, parseLine);
+        }
 
-        public GcLineParser(List<String> included, List<String> excluded, TriConsumer<GCLogFile, Long, String> parseLine) {
+        public GcLineParser(List<String> included, List<String> excluded, boolean cycleStartRequired, LineHandler parseLine) {
             this.included = included;
             this.excluded = excluded;
+            this.cycleStartRequired = cycleStartRequired;
             this.parseLine = parseLine;
         }
 
-        public boolean accepts(String line) {
-            return includesAll(line) && excludesAll(line);
+        private void compile(MultiPatternMatcher matcher) {
+            includedMask = matcher.mask(included);
+            excludedMask = matcher.mask(excluded);
         }
 
-        public void apply(GCLogFile logFile, String line) {
-            parseLine.accept(logFile, getSequenceId(line), line);
+        public boolean accepts(long foundPatterns) {
+            return (foundPatterns & includedMask) == includedMask && (foundPatterns & excludedMask) == 0;
         }
 
-        private boolean includesAll(String line) {
-            return included.stream().allMatch(line::contains);
-        }
-
-        private boolean excludesAll(String line) {
-            if (excluded != null) {
-                return excluded.stream().noneMatch(line::contains);
-            } else {
-                return true;
-            }
+        public void apply(GCUnifiedLogFileParser parser, Long sequenceId, String line) {
+            parseLine.apply(parser, parser.gcLogFile, sequenceId, line);
         }
 
         private Long getSequenceId(String line) {
-            Pattern pattern = Pattern.compile("\\(\\d+\\)");
-            Matcher matcher = pattern.matcher(line);
-            matcher.find();
-            return Long.valueOf(matcher.group().replace("(", "").replace(")", "").trim());
+            return G1LineScanner.sequenceId(line);
         }
     }
 
-    private final List<GcLineParser> parsers = List.of(
-            new GcLineParser(includes("gc,start"), excludes(), this::gcStart),
-            new GcLineParser(includes("gc ", "Concurrent Cycle", "ms"), excludes(), this::addConcurrentCycleDataIfPresent),
-            new GcLineParser(includes("gc ", "Concurrent Mark Cycle", "ms"), excludes(), this::addConcurrentCycleDataIfPresent),
-            new GcLineParser(includes("gc,phases", "ms", ")   "), excludes(")       ", "Queue Fixup", "Table Fixup"), this::addPhaseYoungAndMixed),
-            new GcLineParser(includes("gc,phases", "ms"), excludes(")  "), this::addPhaseConcurrentSTW),
-            new GcLineParser(includes("gc ", "->"), excludes(), this::addSizesAndTime),
-            new GcLineParser(includes("regions", "gc,heap", "info"), excludes(), this::addRegionsCounts),
-            new GcLineParser(includes("gc,heap", "trace"), excludes(), this::addRegionsSizes),
-            new GcLineParser(includes("gc,humongous", "debug"), excludes(), this::addHumongous),
-            new GcLineParser(includes("- age"), excludes(), this::addAgeCount),
-            new GcLineParser(includes("gc,age", "debug"), excludes(), this::addSurvivorStats),
-            new GcLineParser(includes("To-space exhausted"), excludes(), this::toSpaceExhausted)
+    // the first accepting parser is used
+    static final List<GcLineParser> PARSERS = List.of(
+            new GcLineParser(includes("gc,start"), excludes(), false, GCUnifiedLogFileParser::gcStart),
+            new GcLineParser(includes("gc ", "Concurrent Cycle", "ms"), excludes(), false, GCUnifiedLogFileParser::addConcurrentCycleDataIfPresent),
+            new GcLineParser(includes("gc ", "Concurrent Mark Cycle", "ms"), excludes(), false, GCUnifiedLogFileParser::addConcurrentCycleDataIfPresent),
+            new GcLineParser(includes("gc,phases", "ms", ")   "), excludes(")       ", "Queue Fixup", "Table Fixup"), GCUnifiedLogFileParser::addPhaseYoungAndMixed),
+            new GcLineParser(includes("gc,phases", "ms"), excludes(")  "), GCUnifiedLogFileParser::addPhaseConcurrentSTW),
+            new GcLineParser(includes("gc ", "->"), excludes(), GCUnifiedLogFileParser::addSizesAndTime),
+            new GcLineParser(includes("regions", "gc,heap", "info"), excludes(), GCUnifiedLogFileParser::addRegionsCounts),
+            new GcLineParser(includes("gc,heap", "trace"), excludes(), GCUnifiedLogFileParser::addRegionsSizes),
+            new GcLineParser(includes("gc,humongous", "debug"), excludes(), GCUnifiedLogFileParser::addHumongous),
+            new GcLineParser(includes("- age"), excludes(), GCUnifiedLogFileParser::addAgeCount),
+            new GcLineParser(includes("gc,age", "debug"), excludes(), GCUnifiedLogFileParser::addSurvivorStats),
+            new GcLineParser(includes("To-space exhausted"), excludes(), GCUnifiedLogFileParser::toSpaceExhausted)
     );
+    private static final List<String> GC_LOG = List.of("gc", "GC(");
+    static final MultiPatternMatcher PATTERNS = compile(PARSERS);
+    private static final long GC_LOG_MASK = PATTERNS.mask(GC_LOG);
+
+    private static MultiPatternMatcher compile(List<GcLineParser> parsers) {
+        Set<String> patterns = new LinkedHashSet<>(GC_LOG);
+        for (GcLineParser parser : parsers) {
+            patterns.addAll(parser.included);
+            patterns.addAll(parser.excluded);
+        }
+        MultiPatternMatcher matcher = new MultiPatternMatcher(new ArrayList<>(patterns));
+        parsers.forEach(parser -> parser.compile(matcher));
+        return matcher;
+    }
 
     private static List<String> includes(String... included) {
         return new ArrayList<>(Arrays.asList(included));
@@ -96,38 +118,85 @@ public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
     }
 
     public GCUnifiedLogFileParser() {
+        this(new SymbolTable());
+    }
+
+    public GCUnifiedLogFileParser(SymbolTable symbols) {
+        this(symbols, false);
+    }
+
+    private GCUnifiedLogFileParser(SymbolTable symbols, boolean partial) {
+        this.symbols = symbols;
+        this.gcLogFile = new GCLogFile(symbols);
+        this.partial = partial;
+    }
+
+    @Override
+    public GCUnifiedLogFileParser newPartialParser() {
+        return new GCUnifiedLogFileParser(symbols, true);
+    }
+
+    @Override
+    public void merge(GCUnifiedLogFileParser following) {
+        following.orphanLines.forEach(this::parseLine);
+        gcLogFile.append(following.gcLogFile);
+        if (following.lastRegion != null) {
+            lastRegion = following.lastRegion;
+        }
+        if (firstStartedSequenceId == null) {
+            firstStartedSequenceId = following.firstStartedSequenceId;
+        }
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        long foundPatterns = PATTERNS.find(line);
+        if (isGcLog(foundPatterns)) {
+            useFirstAccepting(line.toString(), foundPatterns);
+        }
     }
 
     @Override
     public void parseLine(String line) {
-        if (isGcLog(line)) {
-            useFirstAccepting(line, parsers);
+        long foundPatterns = PATTERNS.find(line);
+        if (isGcLog(foundPatterns)) {
+            useFirstAccepting(line, foundPatterns);
         }
     }
 
-    private boolean isGcLog(String line) {
-        return line.contains("gc") && line.contains("GC(");
+    static boolean isGcLog(long foundPatterns) {
+        return (foundPatterns & GC_LOG_MASK) == GC_LOG_MASK;
     }
 
-    private void useFirstAccepting(String line, List<GcLineParser> parsers) {
-        for (GcLineParser parser : parsers) {
-            if (parser.accepts(line)) {
-                parser.apply(this.gcLogFile, line);
+    private void useFirstAccepting(String line, long foundPatterns) {
+        for (GcLineParser parser : PARSERS) {
+            if (parser.accepts(foundPatterns)) {
+                Long sequenceId = parser.getSequenceId(line);
+                if (parser.cycleStartRequired && startedBeforeThisPart(sequenceId)) {
+                    orphanLines.add(line);
+                } else {
+                    parser.apply(this, sequenceId, line);
+                }
                 return;
             }
         }
     }
 
+    private boolean startedBeforeThisPart(Long sequenceId) {
+        return partial
+                && !gcLogFile.isCycleOpen(sequenceId)
+                && (firstStartedSequenceId == null || sequenceId < firstStartedSequenceId);
+    }
+
     private void gcStart(GCLogFile gcLogFile, Long sequenceId, String line) {
-        gcLogFile.newPhase(sequenceId, getPhase(line), ParserUtils.getTimeStamp(line));
+        if (firstStartedSequenceId == null) {
+            firstStartedSequenceId = sequenceId;
+        }
+        gcLogFile.newPhase(sequenceId, getPhase(line), timeStamps.nanos(line));
     }
 
     private void addConcurrentCycleDataIfPresent(GCLogFile gcLogFile, Long sequenceId, String line) {
-        Pattern pattern = Pattern.compile("\\d+.\\d+ms");
-        Matcher matcher = pattern.matcher(line);
-        matcher.find();
-        String time = matcher.group().replace("ms", "").replace(",", ".");
-        gcLogFile.newConcurrentCycle(sequenceId, new BigDecimal(time));
+        gcLogFile.newConcurrentCycle(sequenceId, scanner.firstMillis(line));
     }
 
     @Override
@@ -137,41 +206,41 @@ public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
     }
 
     private void addPhaseConcurrentSTW(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String phaseWithTime = line.replaceFirst(".*GC\\(\\d+\\)", "").trim();
-        int indexOfSpace = phaseWithTime.lastIndexOf(" ");
-        String phase = phaseWithTime.substring(0, indexOfSpace);
-        String time = phaseWithTime.substring(indexOfSpace + 1).replaceAll("ms", "").replaceAll(",", ".");
-        gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+        int start = G1LineScanner.trimStart(line, G1LineScanner.afterLastSequenceId(line), line.length());
+        int end = G1LineScanner.trimEnd(line, start, line.length());
+        int indexOfSpace = G1LineScanner.lastIndexOf(line, " ", start, end);
+        String phase = symbols.name(symbols.id(line, start, indexOfSpace));
+        gcLogFile.addSubPhaseTime(sequenceId, phase, scanner.decimalWithoutMs(line, indexOfSpace + 1, end));
     }
 
     private void addPhaseYoungAndMixed(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String phase = line.replaceFirst(".*GC\\(\\d+\\)", "").replaceFirst(":.*", "").replace("   ", "").replaceAll("  ", "|______").replace(" (ms)", "");
+        int length = line.length();
+        int phaseStart = G1LineScanner.afterLastSequenceId(line);
+        CharSequence name = scanner.phaseName(line, phaseStart, G1LineScanner.endBefore(line, ":", phaseStart, length));
+        String phase = symbols.name(symbols.id(name, 0, name.length()));
         if (line.contains("Max:")) {
-            String time = line.replaceFirst(".*Max:", "").replaceFirst(",.*", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+            int start = G1LineScanner.afterLast(line, "Max:", 0, length);
+            int end = G1LineScanner.endBefore(line, ",", start, length);
+            start = G1LineScanner.trimStart(line, start, end);
+            gcLogFile.addSubPhaseTime(sequenceId, phase, scanner.decimal(line, start, G1LineScanner.trimEnd(line, start, end)));
         } else if (line.contains("skipped")) {
             gcLogFile.addSubPhaseTime(sequenceId, phase, BigDecimal.ZERO);
         } else {
-            String time = line.replaceFirst(".*:", "").replaceFirst("ms", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+            int start = G1LineScanner.afterLast(line, ":", 0, length);
+            gcLogFile.addSubPhaseTime(sequenceId, phase, scanner.decimalWithoutFirstMs(line, start, length));
         }
     }
 
     private void addSizesAndTime(GCLogFile gcLogFile, Long sequenceId, String line) {
-        Pattern pattern = Pattern.compile("\\d+M");
-        Matcher matcher = pattern.matcher(line);
-        matcher.find();
-        String before = matcher.group().replace("M", "");
-        matcher.find();
-        String after = matcher.group().replace("M", "");
-        matcher.find();
-        String heapSize = matcher.group().replace("M", "");
-        pattern = Pattern.compile("\\d+.\\d+ms");
-        matcher = pattern.matcher(line);
-        matcher.find();
-        String time = matcher.group().replace("ms", "").replace(",", ".");
-
-        gcLogFile.addSizesAndTime(sequenceId, Integer.parseInt(before), Integer.parseInt(after), Integer.parseInt(heapSize), new BigDecimal(time));
+        long before = G1LineScanner.nextMegabytes(line, 0);
+        long after = G1LineScanner.nextMegabytes(line, (int) before + 1);
+        long heapSize = G1LineScanner.nextMegabytes(line, (int) after + 1);
+
+        gcLogFile.addSizesAndTime(sequenceId, megabytes(line, before), megabytes(line, after), megabytes(line, heapSize), scanner.firstMillis(line));
+    }
+
+    private static int megabytes(String line, long digits) {
+        return Integer.parseInt(line, (int) (digits >>> 32), (int) digits, 10);
     }
 
     private void addSurvivorStats(GCLogFile gcLogFile, Long sequenceId, String line) {
@@ -192,73 +261,65 @@ public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
 
     private void addHumongous(GCLogFile gcLogFile, Long sequenceId, String line) {
         boolean live = line.contains("reclaim candidate 0");
-        String size = line
-                .replaceFirst(".*object size", "")
-                .replaceFirst("start.*", "")
-                .replaceFirst("@.*", "")
-                .trim();
+        int start = G1LineScanner.afterLast(line, "object size", 0, line.length());
+        int end = G1LineScanner.endBefore(line, "start", start, line.length());
+        long size = G1LineScanner.parseLong(line, start, G1LineScanner.endBefore(line, "@", start, end));
         if (live) {
-            gcLogFile.addLiveHumongous(sequenceId, Long.valueOf(size));
+            gcLogFile.addLiveHumongous(sequenceId, size);
         } else {
-            gcLogFile.addDeadHumongous(sequenceId, Long.valueOf(size));
+            gcLogFile.addDeadHumongous(sequenceId, size);
         }
     }
 
     private void addRegionsSizes(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String size = line
-                .replaceFirst(".*Used:", "")
-                .replaceFirst("K,.*", "")
-                .trim();
-        String wasted = line
-                .replaceFirst(".*Waste:", "")
-                .replaceFirst("K.*", "")
-                .trim();
-        gcLogFile.addRegionSizes(sequenceId, lastRegion, Integer.valueOf(size), Integer.valueOf(wasted));
+        int length = line.length();
+        int sizeStart = G1LineScanner.afterLast(line, "Used:", 0, length);
+        int size = G1LineScanner.parseInt(line, sizeStart, G1LineScanner.endBefore(line, "K,", sizeStart, length));
+        int wastedStart = G1LineScanner.afterLast(line, "Waste:", 0, length);
+        int wasted = G1LineScanner.parseInt(line, wastedStart, G1LineScanner.endBefore(line, "K", wastedStart, length));
+        gcLogFile.addRegionSizes(sequenceId, lastRegion, size, wasted);
     }
 
     private void addRegionsCounts(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String regionInfo = line
-                .replaceFirst(".* GC", "")
-                .replaceFirst(".*\\) ", "")
-                .trim();
+        int length = line.length();
+        int infoStart = G1LineScanner.afterLast(line, " GC", 0, length);
+        infoStart = G1LineScanner.trimStart(line, G1LineScanner.afterLast(line, ") ", infoStart, length), length);
+        int infoEnd = G1LineScanner.trimEnd(line, infoStart, length);
 
-        String regionName = regionInfo.replaceFirst(":.*", "").trim();
-        String before = regionInfo.replaceFirst(".*:", "").replaceFirst("->.*", "").trim();
-        String after = regionInfo.replaceFirst(".*->", "").replaceFirst("\\(.*", "").trim();
-        String max = regionInfo.replaceFirst(".*->", "");
+        String regionName = symbol(line, infoStart, G1LineScanner.endBefore(line, ":", infoStart, infoEnd));
+        int beforeStart = G1LineScanner.afterLast(line, ":", infoStart, infoEnd);
+        int before = G1LineScanner.parseInt(line, beforeStart, G1LineScanner.endBefore(line, "->", beforeStart, infoEnd));
+        int afterStart = G1LineScanner.afterLast(line, "->", infoStart, infoEnd);
+        int after = G1LineScanner.parseInt(line, afterStart, G1LineScanner.endBefore(line, "(", afterStart, infoEnd));
 
         Integer maxRegions = null;
-        if (max.contains("(")) {
-            max = max.replaceFirst(".*\\(", "").replace(")", "").trim();
-            if (max.length() > 0) {
-                maxRegions = Integer.valueOf(max);
-            }
+        if (G1LineScanner.endBefore(line, "(", afterStart, infoEnd) < infoEnd) {
+            int maxStart = G1LineScanner.afterLast(line, "(", afterStart, infoEnd);
+            maxRegions = scanner.parseIntWithoutParenthesis(line, maxStart, infoEnd);
         }
-        gcLogFile.addRegionCount(sequenceId, regionName, Integer.valueOf(before), Integer.valueOf(after), maxRegions);
+        gcLogFile.addRegionCount(sequenceId, regionName, before, after, maxRegions);
 
         lastRegion = regionName;
     }
 
     private String getPhase(String line) {
-        String phase = line
-                .replaceFirst(".* GC\\(", "")
-                .replaceFirst(".*\\) Pause", "Pause")
-                .trim();
-        return phase;
+        int start = G1LineScanner.afterLast(line, " GC(", 0, line.length());
+        int pause = G1LineScanner.lastIndexOf(line, ") Pause", start, line.length());
+        return symbol(line, pause < 0 ? start : pause + 2, line.length());
+    }
+
+    private String symbol(String line, int from, int to) {
+        int start = G1LineScanner.trimStart(line, from, to);
+        return symbols.name(symbols.id(line, start, G1LineScanner.trimEnd(line, start, to)));
     }
 
     private void addAgeCount(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String ageStr = line
-                .replaceFirst(".* - age", "")
-                .replaceFirst(":.*", "")
-                .trim();
-        String sizeStr = line
-                .replaceFirst(".*:", "")
-                .replaceFirst("bytes.*", "")
-                .trim();
-
-        int age = Integer.parseInt(ageStr);
-        long size = Long.parseLong(sizeStr);
+        int length = line.length();
+        int ageStart = G1LineScanner.afterLast(line, " - age", 0, length);
+        int sizeStart = G1LineScanner.afterLast(line, ":", 0, length);
+
+        int age = G1LineScanner.parseInt(line, ageStart, G1LineScanner.endBefore(line, ":", ageStart, length));
+        long size = G1LineScanner.parseLong(line, sizeStart, G1LineScanner.endBefore(line, "bytes", sizeStart, length));
 
         gcLogFile.addAgeWithSize(sequenceId, age, size);
     }
@@ -40,7 +40,7 @@ public class JitCodeCacheStats implements PageCreator {
                                 .map(entry ->
                                         Chart.builder()
                                                 .chartType(Chart.ChartType.LINE)
-                                                .title(entry.getKey())
+                                                .title(jvmLogFile.getJitLogFile().getSymbols().name(entry.getKey()))
                                                 .xAxisLabel("Seconds since application start")
                                                 .yAxisLabel("Size in KB")
                                                 .data(getCurrentCountChart(entry.getValue()))
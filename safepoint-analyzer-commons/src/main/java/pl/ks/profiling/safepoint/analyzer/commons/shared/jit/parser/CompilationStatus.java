@@ -19,12 +19,13 @@ import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
 import lombok.With;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 @With
 @Value
 @Builder
 public class CompilationStatus {
-    BigDecimal timeStamp;
+    long timeStampNanos;
     long loadedCount;
     long unloadedCount;
     long tier1LoadedCount;
@@ -36,6 +37,10 @@ public class CompilationStatus {
     long tier4LoadedCount;
     long tier4UnloadedCount;
 
+    public BigDecimal getTimeStamp() {
+        return TimeStampDecoder.toSeconds(timeStampNanos);
+    }
+
     public long getCurrentCount() {
         return loadedCount - unloadedCount;
     }
@@ -20,14 +20,31 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import lombok.AccessLevel;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
 
 @Getter
 public class JitLogFile {
+    private final SymbolTable symbols;
     private List<CompilationStatus> compilationStatuses = new ArrayList<>();
     private List<CodeCacheSweeperActivity> codeCacheSweeperActivities = new ArrayList<>();
-    private Map<String, List<CodeCacheStatus>> codeCacheStatuses = new HashMap<>();
+    // by segment name id
+    private Map<Integer, List<CodeCacheStatus>> codeCacheStatuses = new HashMap<>();
     private CompilationStatus lastStatus = null;
+    // a log starting with a tier 0 event counts it, later ones are not counted
+    @Getter(AccessLevel.NONE)
+    private CompilationStatus firstEventAdjustment = CompilationStatus.builder().build();
+
+    JitLogFile(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    static JitLogFile partial(SymbolTable symbols) {
+        JitLogFile jitLogFile = new JitLogFile(symbols);
+        jitLogFile.lastStatus = CompilationStatus.builder().build();
+        return jitLogFile;
+    }
 
     void newCodeCacheSweeperActivity(BigDecimal timeStamp) {
         codeCacheSweeperActivities.add(CodeCacheSweeperActivity.builder()
@@ -35,7 +52,7 @@ public class JitLogFile {
                 .build());
     }
 
-    void newCodeCacheStats(String segment, BigDecimal timeStamp, long size, long maxUsed, long used) {
+    void newCodeCacheStats(int segment, BigDecimal timeStamp, long size, long maxUsed, long used) {
         codeCacheStatuses.computeIfAbsent(segment, name -> new ArrayList<>()).add(
                 CodeCacheStatus.builder()
                         .timeStamp(timeStamp)
@@ -46,11 +63,11 @@ public class JitLogFile {
         );
     }
 
-    void newCompilation(BigDecimal timeStamp, int tier) {
+    void newCompilation(long timeStampNanos, int tier) {
         if (lastStatus == null) {
             lastStatus = CompilationStatus.builder()
                     .loadedCount(1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
 
             switch (tier) {
@@ -68,7 +85,10 @@ public class JitLogFile {
                     break;
             }
         } else {
-            lastStatus = lastStatus.withTimeStamp(timeStamp);
+            if (compilationStatuses.isEmpty() && isUnknownTier(tier)) {
+                firstEventAdjustment = firstEventAdjustment.withLoadedCount(1);
+            }
+            lastStatus = lastStatus.withTimeStampNanos(timeStampNanos);
             switch (tier) {
                 case 1:
                     lastStatus = lastStatus.withTier1LoadedCount(lastStatus.getTier1LoadedCount() + 1).withLoadedCount(lastStatus.getLoadedCount() + 1);
@@ -88,11 +108,11 @@ public class JitLogFile {
         compilationStatuses.add(lastStatus);
     }
 
-    void compilationMadeNodEntrant(BigDecimal timeStamp, int tier) {
+    void compilationMadeNodEntrant(long timeStampNanos, int tier) {
         if (lastStatus == null) {
             lastStatus = CompilationStatus.builder()
                     .unloadedCount(1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
 
             switch (tier) {
@@ -110,7 +130,10 @@ public class JitLogFile {
                     break;
             }
         } else {
-            lastStatus = lastStatus.withTimeStamp(timeStamp);
+            if (compilationStatuses.isEmpty() && isUnknownTier(tier)) {
+                firstEventAdjustment = firstEventAdjustment.withUnloadedCount(1);
+            }
+            lastStatus = lastStatus.withTimeStampNanos(timeStampNanos);
             switch (tier) {
                 case 1:
                     lastStatus = lastStatus.withTier1UnloadedCount(lastStatus.getTier1UnloadedCount() + 1).withUnloadedCount(lastStatus.getUnloadedCount() + 1);
@@ -130,4 +153,34 @@ public class JitLogFile {
         compilationStatuses.add(lastStatus);
     }
 
+    private static boolean isUnknownTier(int tier) {
+        return tier < 1 || tier > 4;
+    }
+
+    void append(JitLogFile following) {
+        CompilationStatus base = lastStatus == null ? following.firstEventAdjustment : lastStatus;
+        if (compilationStatuses.isEmpty()) {
+            firstEventAdjustment = following.firstEventAdjustment;
+        }
+        for (CompilationStatus status : following.compilationStatuses) {
+            lastStatus = CompilationStatus.builder()
+                    .timeStampNanos(status.getTimeStampNanos())
+                    .loadedCount(base.getLoadedCount() + status.getLoadedCount())
+                    .unloadedCount(base.getUnloadedCount() + status.getUnloadedCount())
+                    .tier1LoadedCount(base.getTier1LoadedCount() + status.getTier1LoadedCount())
+                    .tier1UnloadedCount(base.getTier1UnloadedCount() + status.getTier1UnloadedCount())
+                    .tier2LoadedCount(base.getTier2LoadedCount() + status.getTier2LoadedCount())
+                    .tier2UnloadedCount(base.getTier2UnloadedCount() + status.getTier2UnloadedCount())
+                    .tier3LoadedCount(base.getTier3LoadedCount() + status.getTier3LoadedCount())
+                    .tier3UnloadedCount(base.getTier3UnloadedCount() + status.getTier3UnloadedCount())
+                    .tier4LoadedCount(base.getTier4LoadedCount() + status.getTier4LoadedCount())
+                    .tier4UnloadedCount(base.getTier4UnloadedCount() + status.getTier4UnloadedCount())
+                    .build();
+            compilationStatuses.add(lastStatus);
+        }
+        codeCacheSweeperActivities.addAll(following.codeCacheSweeperActivities);
+        following.codeCacheStatuses.forEach((segment, statuses) -> codeCacheStatuses
+                .computeIfAbsent(following.symbols == symbols ? segment : symbols.id(following.symbols.name(segment)), name -> new ArrayList<>())
+                .addAll(statuses));
+    }
 }
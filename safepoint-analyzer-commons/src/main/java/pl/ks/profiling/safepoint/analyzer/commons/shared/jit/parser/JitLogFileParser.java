@@ -16,16 +16,48 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser;
 
 import java.math.BigDecimal;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
-public class JitLogFileParser implements FileParser<JitLogFile> {
-    private final JitLogFile jitLogFile = new JitLogFile();
+public class JitLogFileParser implements MergeableFileParser<JitLogFile, JitLogFileParser> {
+    private final JitLogFile jitLogFile;
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
+
+    public JitLogFileParser() {
+        this(new SymbolTable());
+    }
+
+    public JitLogFileParser(SymbolTable symbols) {
+        this(new JitLogFile(symbols));
+    }
+
+    private JitLogFileParser(JitLogFile jitLogFile) {
+        this.jitLogFile = jitLogFile;
+    }
+
+    @Override
+    public JitLogFileParser newPartialParser() {
+        return new JitLogFileParser(JitLogFile.partial(jitLogFile.getSymbols()));
+    }
+
+    @Override
+    public void merge(JitLogFileParser following) {
+        jitLogFile.append(following.jitLogFile);
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "codecache,sweep") || ParserUtils.contains(line, "jit,compilation")) {
+            parseLine(line.toString());
+        }
+    }
 
     @Override
     public void parseLine(String line) {
         if (line.contains("codecache,sweep,start")) {
-            jitLogFile.newCodeCacheSweeperActivity(ParserUtils.getTimeStamp(line));
+            jitLogFile.newCodeCacheSweeperActivity(TimeStampDecoder.toSeconds(timeStamps.nanos(line)));
         } else if (line.contains("codecache,sweep") && line.contains("size=")) {
             parseCodeCacheStats(line);
         } else if (line.contains("jit,compilation") && line.contains("debug")) {
@@ -34,9 +66,9 @@ public class JitLogFileParser implements FileParser<JitLogFile> {
     }
 
     private void parseCodeCacheStats(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
-        String segment = line.substring(line.lastIndexOf(']') + 2);
-        segment = segment.substring(0, segment.indexOf(':'));
+        BigDecimal timeStamp = TimeStampDecoder.toSeconds(timeStamps.nanos(line));
+        int segmentStart = line.lastIndexOf(']') + 2;
+        int segment = jitLogFile.getSymbols().id(line, segmentStart, line.indexOf(':', segmentStart));
         long size = parseFirstNumber(line, line.indexOf("size="));
         long used = parseFirstNumber(line, line.indexOf("used="));
         long maxUsed = parseFirstNumber(line, line.indexOf("max_used="));
@@ -61,12 +93,12 @@ public class JitLogFileParser implements FileParser<JitLogFile> {
     }
 
     private void parseJitCompilation(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
+        long timeStampNanos = timeStamps.nanos(line);
         int tier = getTier(line);
         if (line.lastIndexOf(')') == line.length() - 1) {
-            jitLogFile.newCompilation(timeStamp, tier);
+            jitLogFile.newCompilation(timeStampNanos, tier);
         } else if (line.contains("made not entrant")) {
-            jitLogFile.compilationMadeNodEntrant(timeStamp, tier);
+            jitLogFile.compilationMadeNodEntrant(timeStampNanos, tier);
         }
     }
 
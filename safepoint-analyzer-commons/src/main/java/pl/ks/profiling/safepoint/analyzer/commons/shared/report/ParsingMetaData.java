@@ -9,4 +9,5 @@ public class ParsingMetaData {
     private final String name;
     private final List<LogsFile> files;
     private final long numberOfLines;
+    private List<String> skippedParsers = List.of();
 }
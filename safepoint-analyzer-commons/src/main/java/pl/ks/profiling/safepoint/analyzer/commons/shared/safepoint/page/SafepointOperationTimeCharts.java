@@ -17,16 +17,16 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointLogEntry;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointOperationStatsByName;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointStore;
 
 public class SafepointOperationTimeCharts implements PageCreator {
     public static final BigDecimal MULTIPLIER = new BigDecimal(1000);
@@ -51,25 +51,22 @@ public class SafepointOperationTimeCharts implements PageCreator {
     }
 
     private static Object[][] getChart(JvmLogFile jvmLogFile) {
-        List<String> names = jvmLogFile.getSafepointLogFile().getSafepointOperationStats().getStatsByNames().stream()
-                .map(SafepointOperationStatsByName::getOperationName)
-                .collect(Collectors.toList());
-        Object[][] stats = new Object[jvmLogFile.getSafepointLogFile().getSafepoints().size() + 1][names.size() + 1];
+        List<SafepointOperationStatsByName> operations = new ArrayList<>(jvmLogFile.getSafepointLogFile().getSafepointOperationStats().getStatsByNames());
+        SafepointStore safepoints = jvmLogFile.getSafepointLogFile().getStore();
+        Object[][] stats = new Object[safepoints.size() + 1][operations.size() + 1];
 
-        Map<String, Integer> namesMap = new HashMap<>();
+        Map<Integer, Integer> columns = new HashMap<>();
         int j = 1;
-        for (String name : names) {
-            namesMap.put(name, j);
-            stats[0][j] = name;
+        for (SafepointOperationStatsByName operation : operations) {
+            columns.put(operation.getOperationId(), j);
+            stats[0][j] = operation.getOperationName();
             j++;
         }
 
         stats[0][0] = "Time";
-        int i = 1;
-        for (SafepointLogEntry safepointLogEntry : jvmLogFile.getSafepointLogFile().getSafepoints()) {
-            stats[i][0] = safepointLogEntry.getTimeStamp();
-            stats[i][namesMap.get(safepointLogEntry.getOperationName())] = safepointLogEntry.getStoppedTime().add(safepointLogEntry.getTtsTime()).multiply(MULTIPLIER);
-            i++;
+        for (int safepoint = 0; safepoint < safepoints.size(); safepoint++) {
+            stats[safepoint + 1][0] = safepoints.timeStamp(safepoint);
+            stats[safepoint + 1][columns.get(safepoints.operationId(safepoint))] = safepoints.seconds(safepoints.stoppedTimeNanos(safepoint) + safepoints.ttsNanos(safepoint)).multiply(MULTIPLIER);
         }
         return stats;
     }
@@ -15,30 +15,33 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.stream.Stream;
 import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
 
 public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile> {
-    private static final int SCALE = 10;
-    private static final String JDK8_REGEX = ".*: .*\\[.*\\] *.*\\[.*\\].*";
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+    private static final long NO_TIME = -1;
 
-    private boolean waitForNext = true;
     private boolean jdk8 = false;
-    private BigDecimal lastAppTime = null;
+    private long lastAppTimeNanos = NO_TIME;
 
-    private SafepointLogFile safepointLogFile = new SafepointLogFile();
+    private final SafepointLogFile safepointLogFile;
+
+    public SafepointJdk8LogFileParser() {
+        this(new SymbolTable());
+    }
+
+    public SafepointJdk8LogFileParser(SymbolTable symbols) {
+        safepointLogFile = new SafepointLogFile(symbols);
+    }
 
     @Override
     public void parseLine(String line) {
         if (line.contains("vmop") && line.contains("initially_running")) {
             jdk8 = true;
-        } else if (jdk8 && line.matches(JDK8_REGEX) && line.split("\\[").length == 3) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line));
-            lastAppTime = addJava8OneLine(line, safepointLogFile, lastAppTime);
-            waitForNext = false;
+        } else if (jdk8) {
+            addJava8OneLine(line);
         }
     }
 
@@ -48,37 +51,140 @@ public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile>
         return safepointLogFile;
     }
 
-    //[1,060s][info][safepoint] Safepoint "Cleanup", Time since last: 1000140224 ns, Reaching safepoint: 196482 ns, At safepoint: 16740 ns, Total: 213222 ns
-
-    private static BigDecimal addJava8OneLine(String line, SafepointLogFile current, BigDecimal lastAppTime) {
-        String[] splittedLine = line.split(" ");
-        String[] lineNoBlank = Stream.of(splittedLine)
-                .filter(s -> s.length() > 0)
-                .toArray(String[]::new);
-        StringBuilder operationName = new StringBuilder();
+    //   6,436: G1IncCollectionPause             [     106          0              2    ]      [     0     0     0     0    11    ]  0
+    //  uptime  operation                         threads: total initially_running wait_to_block  time: spin block sync cleanup vmop
+    private void addJava8OneLine(String line) {
+        int threadsStart = line.indexOf('[');
+        int timesStart = threadsStart < 0 ? -1 : line.indexOf('[', threadsStart + 1);
+        if (timesStart < 0 || line.indexOf('[', timesStart + 1) >= 0 || !isToken(line, threadsStart) || !isToken(line, timesStart)) {
+            return;
+        }
+        int threadsEnd = line.indexOf(']', threadsStart);
+        int uptimeEnd = line.indexOf(": ");
+        if (uptimeEnd < 0 || uptimeEnd > threadsStart || threadsEnd < 0 || threadsEnd > timesStart || line.indexOf(']', timesStart) < 0) {
+            return;
+        }
 
-        int index = 0;
-        BigDecimal currentAppTime = new BigDecimal(lineNoBlank[index++].replaceAll("\\.", "").replaceAll(",", "").replaceAll(":", ""));
-        while (!"[".equals(lineNoBlank[index])) {
-            operationName.append(lineNoBlank[index]).append(" ");
-            index++;
+        int uptimeStart = skipSpaces(line, 0);
+        int uptimeTokenEnd = line.indexOf(' ', uptimeStart);
+        if (line.charAt(uptimeTokenEnd - 1) != ':') {
+            return;
+        }
+        long currentAppTimeDigits = digits(line, uptimeStart, uptimeTokenEnd);
+        long timeStampNanos = nanos(line, uptimeStart, uptimeTokenEnd - 1, NANOS_IN_SECOND);
+        int operationStart = skipSpaces(line, uptimeTokenEnd);
+        int operationEnd = threadsStart;
+        while (operationEnd > operationStart && line.charAt(operationEnd - 1) == ' ') {
+            operationEnd--;
         }
 
-        index++;
-        while (!"[".equals(lineNoBlank[index])) {
-            index++;
+        int sync = timesStart;
+        for (int i = 0; i < 3 && sync >= 0; i++) {
+            sync = nextToken(line, sync);
+        }
+        int vmop = sync;
+        for (int i = 0; i < 2 && vmop >= 0; i++) {
+            vmop = nextToken(line, vmop);
+        }
+        if (currentAppTimeDigits < 0 || timeStampNanos == NO_TIME || operationEnd == operationStart || vmop < 0) {
+            return;
+        }
+        long ttsNanos = nanos(line, sync, tokenEnd(line, sync), NANOS_IN_MILLI);
+        long vmopNanos = nanos(line, vmop, tokenEnd(line, vmop), NANOS_IN_MILLI);
+        if (ttsNanos == NO_TIME || vmopNanos == NO_TIME) {
+            return;
         }
 
-        BigDecimal tts = new BigDecimal(lineNoBlank[index + 3]);
-        BigDecimal stoppedTime = new BigDecimal(lineNoBlank[index + 5]).add(tts);
-        current.addAllData(
-                tts.divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                stoppedTime.divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                lastAppTime == null ? BigDecimal.ZERO : currentAppTime.subtract(lastAppTime).subtract(stoppedTime)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                operationName.toString().trim()
+        // the uptime is printed with three decimals, so its digits are milliseconds
+        long currentAppTimeNanos = currentAppTimeDigits * NANOS_IN_MILLI;
+        long stoppedTimeNanos = vmopNanos + ttsNanos;
+        safepointLogFile.newSafepoint(timeStampNanos);
+        safepointLogFile.addAllData(
+                ttsNanos,
+                stoppedTimeNanos,
+                lastAppTimeNanos == NO_TIME ? 0 : currentAppTimeNanos - lastAppTimeNanos - stoppedTimeNanos,
+                operationId(line, operationStart, operationEnd)
         );
+        lastAppTimeNanos = currentAppTimeNanos;
+    }
 
-        return currentAppTime;
+    // names are printed padded, words of a name are separated by single spaces
+    private int operationId(String line, int from, int to) {
+        SymbolTable symbols = safepointLogFile.getSymbols();
+        if (line.indexOf("  ", from) < 0 || line.indexOf("  ", from) >= to) {
+            return symbols.id(line, from, to);
+        }
+        StringBuilder name = new StringBuilder();
+        for (int i = from; i < to; i = skipSpaces(line, i)) {
+            int end = tokenEnd(line, i);
+            name.append(name.length() == 0 ? "" : " ").append(line, i, end);
+            i = end;
+        }
+        return symbols.id(name.toString());
+    }
+
+    private static boolean isToken(String line, int index) {
+        return (index == 0 || line.charAt(index - 1) == ' ') && (index + 1 == line.length() || line.charAt(index + 1) == ' ');
+    }
+
+    private static int nextToken(String line, int token) {
+        int next = skipSpaces(line, tokenEnd(line, token));
+        return next < line.length() ? next : -1;
+    }
+
+    private static int tokenEnd(String line, int from) {
+        int end = line.indexOf(' ', from);
+        return end < 0 ? line.length() : end;
+    }
+
+    private static int skipSpaces(String line, int from) {
+        int i = from;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    // the uptime with its separators dropped, e.g. 6436 for "6,436:", -1 when it is not a number
+    private static long digits(String line, int from, int to) {
+        long value = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9' && digits < 18) {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c != '.' && c != ',' && c != ':') {
+                return -1;
+            }
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    // a plain number with an optional comma or dot before the fraction as nanoseconds of the given unit, the digits
+    // past nanosecond precision dropped, NO_TIME for other text
+    private static long nanos(String line, int from, int to, long unitNanos) {
+        long whole = 0;
+        long fraction = 0;
+        long fractionUnit = unitNanos;
+        int digits = 0;
+        boolean separator = false;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9' && digits < 18) {
+                if (!separator) {
+                    whole = whole * 10 + (c - '0');
+                } else if (fractionUnit > 1) {
+                    fractionUnit /= 10;
+                    fraction += (c - '0') * fractionUnit;
+                }
+                digits++;
+            } else if ((c == '.' || c == ',') && !separator) {
+                separator = true;
+            } else {
+                return NO_TIME;
+            }
+        }
+        return digits == 0 ? NO_TIME : whole * unitNanos + fraction;
     }
 }
@@ -16,51 +16,23 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
 import java.math.BigDecimal;
-import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
 
+/**
+ * A finished safepoint as read back from the columns of the parse, times in seconds.
+ */
 @Getter
 @Builder
 @AllArgsConstructor
 public class SafepointLogEntry {
-    @Setter(AccessLevel.PACKAGE)
     private BigDecimal timeStamp;
     private long sequenceId;
+    // the instance kept by the symbol table of the parse, shared by all entries of the operation
     private String operationName;
     private BigDecimal applicationTime;
     private BigDecimal ttsTime;
     private BigDecimal stoppedTime;
     private boolean completed;
-
-    SafepointLogEntry(BigDecimal timeStamp, long sequenceId) {
-        this.timeStamp = timeStamp;
-        this.sequenceId = sequenceId;
-    }
-
-    SafepointLogEntry(BigDecimal timeStamp, long sequenceId, BigDecimal applicationTime) {
-        this.timeStamp = timeStamp;
-        this.sequenceId = sequenceId;
-        this.applicationTime = applicationTime;
-    }
-
-    void addOperationName(String operationName) {
-        this.operationName = operationName;
-    }
-
-    void addTimeToSafepointAndStoppedTime(BigDecimal ttsTime, BigDecimal stoppedTime) {
-        this.ttsTime = ttsTime;
-        this.stoppedTime = stoppedTime;
-        this.completed = true;
-    }
-
-    void addAllData(BigDecimal ttsTime, BigDecimal stoppedTime, BigDecimal applicationTime, String operationName) {
-        this.applicationTime = applicationTime;
-        this.operationName = operationName;
-        this.ttsTime = ttsTime;
-        this.stoppedTime = stoppedTime;
-        this.completed = true;
-    }
 }
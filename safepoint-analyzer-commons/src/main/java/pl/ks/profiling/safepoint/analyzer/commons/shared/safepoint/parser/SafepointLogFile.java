@@ -15,64 +15,128 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
 
 public class SafepointLogFile {
+    private static final int NOT_STORED = -1;
+
+    @Getter
+    private final SymbolTable symbols;
     @Getter
-    private List<SafepointLogEntry> safepoints = new ArrayList<>();
+    private final SafepointStore store;
     @Getter
     private SafepointOperationStats safepointOperationStats;
-    private SafepointLogEntry lastEntry;
     private long sequenceId;
+    private int statsSafepoints;
 
-    void newSafepoint(BigDecimal timeStamp) {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
-        }
-        lastEntry = new SafepointLogEntry(timeStamp, sequenceId++);
+    // the last safepoint, stored once completed; it stays open afterwards, so parsing can go on after stats were created
+    private boolean lastEntryStarted;
+    private long lastSequenceId;
+    private long lastTimeStampNanos;
+    private long lastApplicationTimeNanos;
+    private long lastTtsNanos;
+    private long lastStoppedTimeNanos;
+    private int lastOperationId = SymbolTable.NO_SYMBOL;
+    private boolean lastEntryCompleted;
+    private int lastEntryStoredAt = NOT_STORED;
+
+    SafepointLogFile(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.store = new SafepointStore(symbols);
     }
 
-    void newSafepoint(BigDecimal timeStamp, BigDecimal applicationTime) {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
+    /**
+     * Finished safepoints, built from {@link #getStore()} on every read.
+     */
+    public List<SafepointLogEntry> getSafepoints() {
+        return store.entries();
+    }
+
+    void newSafepoint(long timeStampNanos) {
+        newSafepoint(timeStampNanos, 0);
+    }
+
+    void newSafepoint(long timeStampNanos, long applicationTimeNanos) {
+        storeLastEntry();
+        lastEntryStarted = true;
+        lastSequenceId = sequenceId++;
+        lastTimeStampNanos = timeStampNanos;
+        lastApplicationTimeNanos = applicationTimeNanos;
+        lastTtsNanos = 0;
+        lastStoppedTimeNanos = 0;
+        lastOperationId = SymbolTable.NO_SYMBOL;
+        lastEntryCompleted = false;
+        lastEntryStoredAt = NOT_STORED;
+    }
+
+    private void storeLastEntry() {
+        if (!lastEntryCompleted) {
+            return;
+        }
+        if (lastEntryStoredAt == NOT_STORED) {
+            lastEntryStoredAt = store.add(lastSequenceId, lastTimeStampNanos, lastApplicationTimeNanos, lastTtsNanos, lastStoppedTimeNanos, lastOperationId);
+        } else {
+            store.set(lastEntryStoredAt, lastSequenceId, lastTimeStampNanos, lastApplicationTimeNanos, lastTtsNanos, lastStoppedTimeNanos, lastOperationId);
         }
-        lastEntry = new SafepointLogEntry(timeStamp, sequenceId++, applicationTime);
     }
 
-    void addOperationName(String operationName) {
-        if (lastEntry == null) {
+    void addOperationName(int operationId) {
+        if (!lastEntryStarted) {
             return;
         }
-        lastEntry.addOperationName(operationName);
+        lastOperationId = operationId;
     }
 
-    void addTimeToSafepointAndStoppedTime(BigDecimal timeToSafepoint, BigDecimal stoppedTime) {
-        if (lastEntry == null) {
+    void addTimeToSafepointAndStoppedTime(long ttsNanos, long stoppedTimeNanos) {
+        if (!lastEntryStarted) {
             return;
         }
-        lastEntry.addTimeToSafepointAndStoppedTime(timeToSafepoint, stoppedTime);
+        lastTtsNanos = ttsNanos;
+        lastStoppedTimeNanos = stoppedTimeNanos;
+        lastEntryCompleted = true;
     }
 
-    void addAllData(BigDecimal timeToSafepoint, BigDecimal stoppedTime, BigDecimal applicationTime, String operationName) {
-        if (lastEntry == null) {
+    void addAllData(long ttsNanos, long stoppedTimeNanos, long applicationTimeNanos, int operationId) {
+        if (!lastEntryStarted) {
             return;
         }
-        lastEntry.addAllData(timeToSafepoint, stoppedTime, applicationTime, operationName);
+        lastApplicationTimeNanos = applicationTimeNanos;
+        lastOperationId = operationId;
+        addTimeToSafepointAndStoppedTime(ttsNanos, stoppedTimeNanos);
+    }
+
+    boolean isStarted() {
+        return sequenceId > 0;
+    }
+
+    void append(SafepointLogFile following) {
+        storeLastEntry();
+        int offset = store.size();
+        store.addAll(following.store, sequenceId);
+        lastEntryStarted = following.lastEntryStarted;
+        lastSequenceId = following.lastSequenceId + sequenceId;
+        lastTimeStampNanos = following.lastTimeStampNanos;
+        lastApplicationTimeNanos = following.lastApplicationTimeNanos;
+        lastTtsNanos = following.lastTtsNanos;
+        lastStoppedTimeNanos = following.lastStoppedTimeNanos;
+        lastOperationId = following.lastOperationId;
+        lastEntryCompleted = following.lastEntryCompleted;
+        lastEntryStoredAt = following.lastEntryStoredAt == NOT_STORED ? NOT_STORED : following.lastEntryStoredAt + offset;
+        sequenceId += following.sequenceId;
     }
 
+    // the stats are kept only while nothing was added, otherwise they are created again over the whole log
     void parsingCompleted() {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
-            lastEntry = null;
-        }
+        storeLastEntry();
+        store.trimToSize();
 
-        if (safepointOperationStats != null) {
+        if (safepointOperationStats != null && statsSafepoints == store.size()) {
             return;
         }
 
         safepointOperationStats = SafepointStatsCreator.create(this);
+        statsSafepoints = store.size();
     }
 }
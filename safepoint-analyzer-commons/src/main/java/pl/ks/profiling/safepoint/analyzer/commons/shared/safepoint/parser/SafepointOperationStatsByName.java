@@ -16,6 +16,7 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.Set;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -25,10 +26,47 @@ import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats;
 @Getter
 @Setter(AccessLevel.PACKAGE)
 public class SafepointOperationStatsByName {
+    private int operationId;
     private String operationName;
     private long count;
     private BigDecimal countPercent;
     private BigDecimal timeWithTtsPercent;
     private OneFiledAllStats operationTime;
+    // for the n-th operation of the name: the time since the first safepoint, and the operation time of the n so far
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long[] timeNanos;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long[] timeSpentNanos;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int secondsScale;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private Set<SafepointInTimeStats> statsByTime;
+
+    void setStatsByTime(long[] timeNanos, long[] timeSpentNanos, int secondsScale) {
+        this.timeNanos = timeNanos;
+        this.timeSpentNanos = timeSpentNanos;
+        this.secondsScale = secondsScale;
+    }
+
+    /**
+     * Built from the primitive columns on the first read.
+     */
+    public Set<SafepointInTimeStats> getStatsByTime() {
+        if (statsByTime != null) {
+            return statsByTime;
+        }
+        statsByTime = new HashSet<>(timeNanos.length * 4 / 3 + 1);
+        for (int i = 0; i < timeNanos.length; i++) {
+            SafepointInTimeStats stat = new SafepointInTimeStats();
+            stat.setCount(i + 1);
+            stat.setTime(SafepointStore.toSeconds(timeNanos[i], secondsScale));
+            stat.setTimeSpent(SafepointStore.toSeconds(timeSpentNanos[i], secondsScale));
+            statsByTime.add(stat);
+        }
+        return statsByTime;
+    }
 }
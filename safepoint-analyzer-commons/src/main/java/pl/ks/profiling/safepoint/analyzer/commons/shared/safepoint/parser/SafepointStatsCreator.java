@@ -18,176 +18,186 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
-import lombok.Builder;
-import lombok.Value;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStatsUtil;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 public class SafepointStatsCreator {
-    static final BigDecimal TO_MS_MULTIPLIER = new BigDecimal(1000);
     private static final BigDecimal PERCENT_MULTIPLIER = new BigDecimal(100);
     private static final int NEW_SCALE = 2;
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
 
     public static SafepointOperationStats create(SafepointLogFile safepointLogFile) {
+        SafepointStore store = safepointLogFile.getStore();
         SafepointOperationStats stats = new SafepointOperationStats();
-        stats.setTts(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getTtsTime().multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setApplicationTime(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getApplicationTime().multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setOperationTime(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getStoppedTime().subtract(operation.getTtsTime()).multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setTotalCount(safepointLogFile.getSafepoints().size());
-        stats.setTimesInTimes2sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("2")));
-        stats.setTimesInTimes5sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("5")));
-        stats.setTimesInTimes15sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("15")));
-        Map<String, List<SafepointLogEntry>> statsByNameMap = new HashMap<>();
-        safepointLogFile.getSafepoints().forEach(operation -> {
-            List<SafepointLogEntry> operationsByName = statsByNameMap.computeIfAbsent(operation.getOperationName(), name -> new ArrayList<>());
-            operationsByName.add(operation);
-        });
-
-        stats.setStatsByNames(new HashSet<>());
-        for (Map.Entry<String, List<SafepointLogEntry>> entry : statsByNameMap.entrySet()) {
-            List<SafepointLogEntry> operationsByName = entry.getValue();
+        stats.setTts(OneFiledAllStatsUtil.create(store.ttsMillis()));
+        stats.setApplicationTime(OneFiledAllStatsUtil.create(store.applicationTimeMillis()));
+        stats.setOperationTime(OneFiledAllStatsUtil.create(store.operationTimeMillis()));
+        stats.setTotalCount(store.size());
+
+        // a single pass feeding the intervals and the operations, by operation id with operations without a name first
+        long startNanos = store.size() == 0 ? 0 : store.timeStampNanos(0);
+        Intervals intervals2sec = new Intervals(store, startNanos, 2 * NANOS_IN_SECOND);
+        Intervals intervals5sec = new Intervals(store, startNanos, 5 * NANOS_IN_SECOND);
+        Intervals intervals15sec = new Intervals(store, startNanos, 15 * NANOS_IN_SECOND);
+        Operations[] operationsByIds = new Operations[store.symbolCount() + 1];
+        long timeNanos = 0;
+        for (int safepoint = 0; safepoint < store.size(); safepoint++) {
+            long applicationTimeNanos = store.applicationTimeNanos(safepoint);
+            long ttsNanos = store.ttsNanos(safepoint);
+            long operationTimeNanos = store.operationTimeNanos(safepoint);
+            intervals2sec.add(applicationTimeNanos, ttsNanos, operationTimeNanos);
+            intervals5sec.add(applicationTimeNanos, ttsNanos, operationTimeNanos);
+            intervals15sec.add(applicationTimeNanos, ttsNanos, operationTimeNanos);
+
+            int index = store.operationId(safepoint) + 1;
+            if (operationsByIds[index] == null) {
+                operationsByIds[index] = new Operations();
+            }
+            operationsByIds[index].add(timeNanos, operationTimeNanos);
+            timeNanos += applicationTimeNanos + store.stoppedTimeNanos(safepoint);
+        }
+        stats.setTimesInTimes2sec(intervals2sec.timesInTimes);
+        stats.setTimesInTimes5sec(intervals5sec.timesInTimes);
+        stats.setTimesInTimes15sec(intervals15sec.timesInTimes);
+
+        List<SafepointOperationStatsByName> statsByNames = new ArrayList<>();
+        for (int index = 0; index < operationsByIds.length; index++) {
+            Operations operations = operationsByIds[index];
+            if (operations == null) {
+                continue;
+            }
+            int operationId = index - 1;
             SafepointOperationStatsByName statsByName = new SafepointOperationStatsByName();
-            statsByName.setOperationTime(createAllStats(operationsByName, operation -> operation.getStoppedTime()
-                    .subtract(operation.getTtsTime())
-                    .multiply(TO_MS_MULTIPLIER)
-                    .setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-            statsByName.setCount(operationsByName.size());
-            statsByName.setOperationName(entry.getKey());
-            statsByName.setCountPercent(new BigDecimal(operationsByName.size())
+            statsByName.setOperationTime(OneFiledAllStatsUtil.create(operations.operationTimeMillis()));
+            statsByName.setCount(operations.count);
+            statsByName.setOperationId(operationId);
+            statsByName.setOperationName(store.symbolName(operationId));
+            statsByName.setCountPercent(new BigDecimal(operations.count)
                     .multiply(PERCENT_MULTIPLIER)
-                    .divide(new BigDecimal(safepointLogFile.getSafepoints().size()), NEW_SCALE, RoundingMode.HALF_EVEN)
+                    .divide(new BigDecimal(store.size()), NEW_SCALE, RoundingMode.HALF_EVEN)
                     .setScale(NEW_SCALE, RoundingMode.HALF_EVEN));
             BigDecimal ttsTime = stats.getTts().getAverage()
-                    .multiply(new BigDecimal(operationsByName.size()));
+                    .multiply(new BigDecimal(operations.count));
             statsByName.setTimeWithTtsPercent(statsByName.getOperationTime().getTotal()
                     .add(ttsTime)
                     .multiply(PERCENT_MULTIPLIER)
                     .divide(stats.getOperationTime().getTotal().add(stats.getTts().getTotal()), NEW_SCALE, RoundingMode.HALF_EVEN)
                     .setScale(NEW_SCALE, RoundingMode.HALF_EVEN));
-            statsByName.setStatsByTime(generateInTimeStats(safepointLogFile.getSafepoints(), entry.getKey()));
-            stats.getStatsByNames().add(statsByName);
+            statsByName.setStatsByTime(Arrays.copyOf(operations.timeNanos, operations.count),
+                    Arrays.copyOf(operations.timeSpentNanos, operations.count), store.secondsScale());
+            statsByNames.add(statsByName);
         }
+        // by name, so tables and series of the operations keep their order from one parse to another
+        statsByNames.sort(Comparator.comparing(SafepointOperationStatsByName::getOperationName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        stats.setStatsByNames(new LinkedHashSet<>(statsByNames));
         return stats;
     }
 
-    private static List<TimesInTime> generateTimeStats(List<SafepointLogEntry> operations, BigDecimal interval) {
-        List<Phase> phases = new ArrayList<>(operations.size() * 3);
-        for (SafepointLogEntry operation : operations) {
-            phases.add(Phase.builder()
-                    .time(operation.getApplicationTime())
-                    .type(PhaseType.APPLICATION)
-                    .build());
-            phases.add(Phase.builder()
-                    .time(operation.getTtsTime())
-                    .type(PhaseType.TTS)
-                    .build());
-            phases.add(Phase.builder()
-                    .time(operation.getStoppedTime().subtract(operation.getTtsTime()))
-                    .type(PhaseType.SAFEPOINT)
-                    .build());
-        }
+    /**
+     * Application time, time to safepoint and operation time of every safepoint, one after another, cut into intervals
+     * of the same length.
+     */
+    private static class Intervals {
+        private final SafepointStore store;
+        private final long intervalNanos;
+        private final List<TimesInTime> timesInTimes = new ArrayList<>();
+        private long startNanos;
+        private long remainingNanos;
+        private long applicationTimeNanos;
+        private long ttsNanos;
+        private long operationTimeNanos;
 
-        if (operations.size() == 0) {
-            return Collections.emptyList();
+        Intervals(SafepointStore store, long startNanos, long intervalNanos) {
+            this.store = store;
+            this.startNanos = startNanos;
+            this.intervalNanos = intervalNanos;
+            this.remainingNanos = intervalNanos;
         }
-        BigDecimal currentStartTime = operations.get(0).getTimeStamp();
-        if (currentStartTime == null) {
-            currentStartTime = BigDecimal.ZERO;
+
+        void add(long applicationTimeNanos, long ttsNanos, long operationTimeNanos) {
+            add(Phase.APPLICATION, applicationTimeNanos);
+            add(Phase.TTS, ttsNanos);
+            add(Phase.SAFEPOINT, operationTimeNanos);
         }
-        BigDecimal remainingTime = interval;
-        BigDecimal currentEndTime = currentStartTime.add(interval);
-
-        List<TimesInTime> timesInTimes = new ArrayList<>();
-        TimesInTime current = new TimesInTime();
-        current.setStartTime(currentStartTime);
-        current.setEndTime(currentEndTime);
-
-        for (Phase phase : phases) {
-            BigDecimal phaseTime = phase.getTime();
-            while (phaseTime.compareTo(remainingTime) >= 0) {
-                switch (phase.getType()) {
-                    case APPLICATION:
-                        current.setApplicationTime(current.getApplicationTime().add(remainingTime));
-                        break;
-                    case SAFEPOINT:
-                        current.setOperationTime(current.getOperationTime().add(remainingTime));
-                        break;
-                    case TTS:
-                        current.setTts(current.getTts().add(remainingTime));
-                        break;
-                }
-                phaseTime = phaseTime.subtract(remainingTime);
-                remainingTime = interval;
-                timesInTimes.add(current);
-                currentStartTime = currentEndTime;
-                currentEndTime = currentEndTime.add(interval);
-                current = new TimesInTime();
-                current.setStartTime(currentStartTime);
-                current.setEndTime(currentEndTime);
+
+        // closes the intervals the phase fills up, what is left of it goes to the current one
+        private void add(Phase phase, long phaseNanos) {
+            while (phaseNanos >= remainingNanos) {
+                addToCurrent(phase, remainingNanos);
+                phaseNanos -= remainingNanos;
+                remainingNanos = intervalNanos;
+                close();
             }
-            switch (phase.getType()) {
+            addToCurrent(phase, phaseNanos);
+            remainingNanos -= phaseNanos;
+        }
+
+        private void addToCurrent(Phase phase, long nanos) {
+            switch (phase) {
                 case APPLICATION:
-                    current.setApplicationTime(current.getApplicationTime().add(phaseTime));
-                    break;
-                case SAFEPOINT:
-                    current.setOperationTime(current.getOperationTime().add(phaseTime));
+                    applicationTimeNanos += nanos;
                     break;
                 case TTS:
-                    current.setTts(current.getTts().add(phaseTime));
+                    ttsNanos += nanos;
+                    break;
+                case SAFEPOINT:
+                    operationTimeNanos += nanos;
                     break;
             }
-            remainingTime = remainingTime.subtract(phaseTime);
         }
 
-        return timesInTimes;
-    }
-
-
-    @Value
-    @Builder
-    private static class Phase {
-        private BigDecimal time;
-        private PhaseType type;
+        private void close() {
+            TimesInTime timesInTime = new TimesInTime();
+            timesInTime.setStartTime(TimeStampDecoder.toSeconds(startNanos));
+            timesInTime.setEndTime(TimeStampDecoder.toSeconds(startNanos + intervalNanos));
+            timesInTime.setTts(store.seconds(ttsNanos));
+            timesInTime.setOperationTime(store.seconds(operationTimeNanos));
+            timesInTime.setApplicationTime(store.seconds(applicationTimeNanos));
+            timesInTimes.add(timesInTime);
+            startNanos += intervalNanos;
+            applicationTimeNanos = 0;
+            ttsNanos = 0;
+            operationTimeNanos = 0;
+        }
     }
 
-    enum PhaseType {
+    enum Phase {
         APPLICATION,
-        SAFEPOINT,
-        TTS
+        TTS,
+        SAFEPOINT
     }
 
-    private static Set<SafepointInTimeStats> generateInTimeStats(List<SafepointLogEntry> operations, String name) {
-        Set<SafepointInTimeStats> safepointInTimeStats = new HashSet<>();
-        BigDecimal time = BigDecimal.ZERO;
-        long count = 0;
-        BigDecimal timeSpent = BigDecimal.ZERO;
-        for (SafepointLogEntry operation : operations) {
-            if (operation.getOperationName().equals(name)) {
-                count++;
-                timeSpent = timeSpent.add(operation.getStoppedTime().subtract(operation.getTtsTime()));
-                SafepointInTimeStats stat = new SafepointInTimeStats();
-                stat.setCount(count);
-                stat.setTime(time);
-                stat.setTimeSpent(timeSpent);
-                safepointInTimeStats.add(stat);
+    /**
+     * Operations of one name, with the time since the first safepoint and the operation time of them so far.
+     */
+    private static class Operations {
+        private int count;
+        private long[] timeNanos = new long[16];
+        private long[] operationTimeNanos = new long[16];
+        private long[] timeSpentNanos = new long[16];
+
+        void add(long time, long operationTime) {
+            if (count == timeNanos.length) {
+                timeNanos = Arrays.copyOf(timeNanos, count * 2);
+                operationTimeNanos = Arrays.copyOf(operationTimeNanos, count * 2);
+                timeSpentNanos = Arrays.copyOf(timeSpentNanos, count * 2);
             }
-            time = time.add(operation.getApplicationTime()).add(operation.getStoppedTime());
+            timeNanos[count] = time;
+            operationTimeNanos[count] = operationTime;
+            timeSpentNanos[count] = count == 0 ? operationTime : timeSpentNanos[count - 1] + operationTime;
+            count++;
         }
-        return safepointInTimeStats;
-    }
 
-    private static OneFiledAllStats createAllStats(List<SafepointLogEntry> operations, Function<SafepointLogEntry, Double> valueFunc) {
-        double[] values = operations.stream()
-                .map(valueFunc)
-                .mapToDouble(Double::doubleValue)
-                .toArray();
-        return OneFiledAllStatsUtil.create(values);
+        double[] operationTimeMillis() {
+            double[] millis = new double[count];
+            for (int i = 0; i < count; i++) {
+                millis[i] = SafepointStore.toMillis(operationTimeNanos[i]);
+            }
+            return millis;
+        }
     }
 }
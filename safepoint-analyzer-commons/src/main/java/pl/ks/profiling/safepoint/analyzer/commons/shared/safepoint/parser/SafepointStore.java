@@ -0,0 +1,243 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
+
+/**
+ * Finished safepoints kept column by column: times as nanoseconds and operation names as ids of the
+ * {@link SymbolTable} of the parse. Safepoints are addressed by their index, in the order they finished; a
+ * {@link SafepointLogEntry} is built only when asked for with {@link #entry(int)}. The columns are trimmed to size
+ * when parsing completes, about 44 bytes per safepoint.
+ */
+public final class SafepointStore {
+    public static final int NO_SYMBOL = SymbolTable.NO_SYMBOL;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int SECONDS_SCALE = 10;
+    private static final long NANOS_IN_HUNDREDTH_OF_MILLI = 10_000;
+
+    private final SymbolTable symbols;
+
+    private int secondsScale = SECONDS_SCALE;
+    private int size;
+    private long[] sequenceIds = new long[INITIAL_CAPACITY];
+    private long[] timeStampNanos = new long[INITIAL_CAPACITY];
+    private long[] applicationTimeNanos = new long[INITIAL_CAPACITY];
+    private long[] ttsNanos = new long[INITIAL_CAPACITY];
+    private long[] stoppedTimeNanos = new long[INITIAL_CAPACITY];
+    private int[] operationIds = new int[INITIAL_CAPACITY];
+
+    SafepointStore(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String symbolName(int id) {
+        return symbols.name(id);
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    public long sequenceId(int safepoint) {
+        return sequenceIds[safepoint];
+    }
+
+    public long timeStampNanos(int safepoint) {
+        return timeStampNanos[safepoint];
+    }
+
+    public BigDecimal timeStamp(int safepoint) {
+        return TimeStampDecoder.toSeconds(timeStampNanos[safepoint]);
+    }
+
+    public long applicationTimeNanos(int safepoint) {
+        return applicationTimeNanos[safepoint];
+    }
+
+    public long ttsNanos(int safepoint) {
+        return ttsNanos[safepoint];
+    }
+
+    public long stoppedTimeNanos(int safepoint) {
+        return stoppedTimeNanos[safepoint];
+    }
+
+    /**
+     * Time at the safepoint, without reaching it.
+     */
+    public long operationTimeNanos(int safepoint) {
+        return stoppedTimeNanos[safepoint] - ttsNanos[safepoint];
+    }
+
+    public int operationId(int safepoint) {
+        return operationIds[safepoint];
+    }
+
+    public String operationName(int safepoint) {
+        return symbols.name(operationIds[safepoint]);
+    }
+
+    public double[] ttsMillis() {
+        double[] millis = new double[size];
+        for (int safepoint = 0; safepoint < size; safepoint++) {
+            millis[safepoint] = toMillis(ttsNanos[safepoint]);
+        }
+        return millis;
+    }
+
+    public double[] applicationTimeMillis() {
+        double[] millis = new double[size];
+        for (int safepoint = 0; safepoint < size; safepoint++) {
+            millis[safepoint] = toMillis(applicationTimeNanos[safepoint]);
+        }
+        return millis;
+    }
+
+    public double[] operationTimeMillis() {
+        double[] millis = new double[size];
+        for (int safepoint = 0; safepoint < size; safepoint++) {
+            millis[safepoint] = toMillis(stoppedTimeNanos[safepoint] - ttsNanos[safepoint]);
+        }
+        return millis;
+    }
+
+    /**
+     * Scale of the seconds in the log, the one the parsers divided nanoseconds and milliseconds with if the log has
+     * none.
+     */
+    public int secondsScale() {
+        return secondsScale;
+    }
+
+    /**
+     * Seconds with the scale of the log.
+     */
+    public BigDecimal seconds(long nanos) {
+        return toSeconds(nanos, secondsScale);
+    }
+
+    public SafepointLogEntry entry(int safepoint) {
+        return SafepointLogEntry.builder()
+                .timeStamp(timeStamp(safepoint))
+                .sequenceId(sequenceIds[safepoint])
+                .operationName(operationName(safepoint))
+                .applicationTime(seconds(applicationTimeNanos[safepoint]))
+                .ttsTime(seconds(ttsNanos[safepoint]))
+                .stoppedTime(seconds(stoppedTimeNanos[safepoint]))
+                .completed(true)
+                .build();
+    }
+
+    /**
+     * Safepoints as entries, each built again whenever it is read.
+     */
+    public List<SafepointLogEntry> entries() {
+        return new AbstractList<>() {
+            @Override
+            public SafepointLogEntry get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+                }
+                return entry(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    int add(long sequenceId, long timeStampNanos, long applicationTimeNanos, long ttsNanos, long stoppedTimeNanos, int operationId) {
+        if (size == sequenceIds.length) {
+            grow(Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        set(size, sequenceId, timeStampNanos, applicationTimeNanos, ttsNanos, stoppedTimeNanos, operationId);
+        return size++;
+    }
+
+    void set(int safepoint, long sequenceId, long timeStampNanos, long applicationTimeNanos, long ttsNanos, long stoppedTimeNanos, int operationId) {
+        this.sequenceIds[safepoint] = sequenceId;
+        this.timeStampNanos[safepoint] = timeStampNanos;
+        this.applicationTimeNanos[safepoint] = applicationTimeNanos;
+        this.ttsNanos[safepoint] = ttsNanos;
+        this.stoppedTimeNanos[safepoint] = stoppedTimeNanos;
+        this.operationIds[safepoint] = operationId;
+    }
+
+    /**
+     * Adds the safepoints of a store sharing the symbol table, with their sequence ids shifted.
+     */
+    void setSecondsScale(int secondsScale) {
+        this.secondsScale = secondsScale;
+    }
+
+    void addAll(SafepointStore following, long sequenceIdOffset) {
+        if (following.secondsScale != SECONDS_SCALE) {
+            secondsScale = following.secondsScale;
+        }
+        if (size + following.size > sequenceIds.length) {
+            grow(Math.max(size + following.size, size * 2));
+        }
+        for (int source = 0; source < following.size; source++) {
+            sequenceIds[size + source] = following.sequenceIds[source] + sequenceIdOffset;
+        }
+        System.arraycopy(following.timeStampNanos, 0, timeStampNanos, size, following.size);
+        System.arraycopy(following.applicationTimeNanos, 0, applicationTimeNanos, size, following.size);
+        System.arraycopy(following.ttsNanos, 0, ttsNanos, size, following.size);
+        System.arraycopy(following.stoppedTimeNanos, 0, stoppedTimeNanos, size, following.size);
+        System.arraycopy(following.operationIds, 0, operationIds, size, following.size);
+        size += following.size;
+    }
+
+    /**
+     * Drops the spare capacity, safepoints can still be added afterwards.
+     */
+    void trimToSize() {
+        if (size < sequenceIds.length) {
+            grow(size);
+        }
+    }
+
+    private void grow(int capacity) {
+        sequenceIds = Arrays.copyOf(sequenceIds, capacity);
+        timeStampNanos = Arrays.copyOf(timeStampNanos, capacity);
+        applicationTimeNanos = Arrays.copyOf(applicationTimeNanos, capacity);
+        ttsNanos = Arrays.copyOf(ttsNanos, capacity);
+        stoppedTimeNanos = Arrays.copyOf(stoppedTimeNanos, capacity);
+        operationIds = Arrays.copyOf(operationIds, capacity);
+    }
+
+    /**
+     * Seconds with the scale the parsers used to divide nanoseconds and milliseconds with.
+     */
+    public static BigDecimal toSeconds(long nanos) {
+        return toSeconds(nanos, SECONDS_SCALE);
+    }
+
+    public static BigDecimal toSeconds(long nanos, int scale) {
+        return BigDecimal.valueOf(nanos, 9).setScale(scale, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Milliseconds rounded half even to two places, the same double as {@code toSeconds(nanos) * 1000} with scale 2.
+     */
+    public static double toMillis(long nanos) {
+        long hundredths = nanos / NANOS_IN_HUNDREDTH_OF_MILLI;
+        long remainder = Math.abs(nanos % NANOS_IN_HUNDREDTH_OF_MILLI);
+        if (remainder > NANOS_IN_HUNDREDTH_OF_MILLI / 2 || (remainder == NANOS_IN_HUNDREDTH_OF_MILLI / 2 && (hundredths & 1) != 0)) {
+            hundredths += nanos < 0 ? -1 : 1;
+        }
+        return hundredths / 100.0;
+    }
+}
@@ -15,23 +15,78 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import java.util.ArrayList;
+import java.util.List;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
-public class SafepointUnifiedLogFileParser implements FileParser<SafepointLogFile> {
-    private static final BigDecimal NS_TO_MS_DIVISIOR = new BigDecimal(1_000_000);
-    private static final int SCALE = 10;
+public class SafepointUnifiedLogFileParser implements MergeableFileParser<SafepointLogFile, SafepointUnifiedLogFileParser> {
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+    private static final String OPERATION_NAME_START = "Entering safepoint region: ";
+    private static final String APPLICATION_TIME = "Application time: ";
+    private static final String STOPPED_TIME = "Total time for which application threads were stopped: ";
+    private static final String TTS_TIME = "Stopping threads took: ";
+    private static final String JAVA_13_OPERATION_NAME_START = " Safepoint \"";
+    private static final String JAVA_13_OPERATION_NAME_END = "\", Time since";
+    private static final String JAVA_13_APPLICATION_TIME = "Time since last: ";
+    private static final String JAVA_13_TTS_TIME = " Reaching safepoint: ";
+    private static final String JAVA_13_STOPPED_TIME = "Total: ";
 
+    private final SymbolTable symbols;
+    private final boolean partial;
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
+    private final List<String> leadingLines = new ArrayList<>();
     private boolean waitForNext = true;
+    private boolean secondsScaleKnown;
 
-    private SafepointLogFile safepointLogFile = new SafepointLogFile();
+    private final SafepointLogFile safepointLogFile;
+
+    public SafepointUnifiedLogFileParser() {
+        this(new SymbolTable());
+    }
+
+    public SafepointUnifiedLogFileParser(SymbolTable symbols) {
+        this(symbols, false);
+    }
+
+    private SafepointUnifiedLogFileParser(SymbolTable symbols, boolean partial) {
+        this.symbols = symbols;
+        this.partial = partial;
+        this.safepointLogFile = new SafepointLogFile(symbols);
+    }
+
+    @Override
+    public SafepointUnifiedLogFileParser newPartialParser() {
+        return new SafepointUnifiedLogFileParser(symbols, true);
+    }
+
+    @Override
+    public void merge(SafepointUnifiedLogFileParser following) {
+        following.leadingLines.forEach(this::parseLine);
+        if (following.safepointLogFile.isStarted()) {
+            safepointLogFile.append(following.safepointLogFile);
+            waitForNext = following.waitForNext;
+        }
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "Application time")
+                || ParserUtils.contains(line, "Entering safepoint region")
+                || ParserUtils.contains(line, "Total time for which application threads were stopped")
+                || ParserUtils.contains(line, "Reaching safepoint")) {
+            parseLine(line.toString());
+        }
+    }
 
     @Override
     public void parseLine(String line) {
-        if (line.contains("Application time")) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line), parseApplicationTime(line));
+        if (partial && !safepointLogFile.isStarted() && (line.contains("Entering safepoint region") || line.contains("Total time for which application threads were stopped"))) {
+            leadingLines.add(line);
+        } else if (line.contains("Application time")) {
+            safepointLogFile.newSafepoint(timeStamps.nanos(line), secondsAsNanos(line, APPLICATION_TIME));
             waitForNext = false;
         } else if (!waitForNext && line.contains("Entering safepoint region")) {
             addOperationName(line, safepointLogFile);
@@ -39,7 +94,7 @@ public class SafepointUnifiedLogFileParser implements FileParser<SafepointLogFil
             addTtsAndStoppedTime(line, safepointLogFile);
             waitForNext = true;
         } else if (line.contains("Reaching safepoint")) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line));
+            safepointLogFile.newSafepoint(timeStamps.nanos(line));
             addJava13OneLine(line, safepointLogFile);
             waitForNext = false;
         }
@@ -51,65 +106,108 @@ public class SafepointUnifiedLogFileParser implements FileParser<SafepointLogFil
         return safepointLogFile;
     }
 
-    private static void addJava13OneLine(String line, SafepointLogFile current) {
-        String name = line
-                .replaceFirst(".* Safepoint \"", "")
-                .replaceFirst("\", Time since.*", "")
-                .trim();
-        String tts = line
-                .replaceFirst(".* Reaching safepoint: ", "")
-                .replaceFirst(" ns, .*", "")
-                .trim();
-        String stopped = line
-                .replaceFirst(".*Total: ", "")
-                .replaceFirst(" ns", "")
-                .trim();
-        String appTime = line
-                .replaceFirst(".*Time since last: ", "")
-                .replaceFirst(" ns, .*", "")
-                .trim();
+    // Safepoint "Cleanup", Time since last: 18420792 ns, Reaching safepoint: 21958 ns, At safepoint: 85292 ns, Total: 107250 ns
+    // the operation time is the total without reaching the safepoint, so it covers the cleanup printed by some JVMs too
+    private void addJava13OneLine(String line, SafepointLogFile current) {
+        int nameStart = line.lastIndexOf(JAVA_13_OPERATION_NAME_START);
+        nameStart = nameStart < 0 ? 0 : nameStart + JAVA_13_OPERATION_NAME_START.length();
+        int nameEnd = line.indexOf(JAVA_13_OPERATION_NAME_END, nameStart);
         current.addAllData(
-                new BigDecimal(tts)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                new BigDecimal(stopped)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                new BigDecimal(appTime)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                name
+                nanos(line, JAVA_13_TTS_TIME),
+                nanos(line, JAVA_13_STOPPED_TIME),
+                nanos(line, JAVA_13_APPLICATION_TIME),
+                operationId(line, nameStart, nameEnd < 0 ? line.length() : nameEnd)
         );
     }
 
-    private static void addTtsAndStoppedTime(String line, SafepointLogFile current) {
-        String tts = line
-                .replaceFirst(".*Stopping threads took: ", "")
-                .replace(" seconds", "")
-                .replace(',', '.')
-                .trim();
-        String stopped = line
-                .replaceFirst(".*Total time for which application threads were stopped: ", "")
-                .replaceFirst(" seconds, Stopping threads.*", "")
-                .replace(',', '.')
-                .trim();
+    private void addTtsAndStoppedTime(String line, SafepointLogFile current) {
+        if (!secondsScaleKnown) {
+            // the seconds are always printed with the same precision, times are shown with it like the log does
+            current.getStore().setSecondsScale(fractionDigits(line, STOPPED_TIME));
+            secondsScaleKnown = true;
+        }
+        current.addTimeToSafepointAndStoppedTime(secondsAsNanos(line, TTS_TIME), secondsAsNanos(line, STOPPED_TIME));
+    }
 
-        current.addTimeToSafepointAndStoppedTime(new BigDecimal(tts), new BigDecimal(stopped));
+    private void addOperationName(String line, SafepointLogFile safepointLogFile) {
+        int nameStart = line.lastIndexOf(OPERATION_NAME_START);
+        safepointLogFile.addOperationName(operationId(line, nameStart < 0 ? 0 : nameStart + OPERATION_NAME_START.length(), line.length()));
     }
 
-    private static void addOperationName(String line, SafepointLogFile safepointLogFile) {
-        String name = line
-                .replaceFirst(".*Entering safepoint region: ", "")
-                .trim();
-        safepointLogFile.addOperationName(name);
+    // the trimmed name, without creating a string for a known one
+    private int operationId(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return symbols.id(line, from, to);
+    }
+
+    // digits after the last label, like 21958 in "Reaching safepoint: 21958 ns"
+    private static long nanos(String line, String label) {
+        int from = valueStart(line, label);
+        int to = digitsEnd(line, from);
+        if (to == from || to - from > 18) {
+            throw new NumberFormatException("No nanoseconds after '" + label + "' in line: " + line);
+        }
+        return number(line, from, to);
+    }
+
+    // seconds after the last label, like 0.0001234 or 0,0001234 in "Stopping threads took: 0.0001234 seconds", the
+    // digits past nanosecond precision are dropped
+    private static long secondsAsNanos(String line, String label) {
+        int from = valueStart(line, label);
+        int separator = digitsEnd(line, from);
+        if (separator == from || separator - from > 9) {
+            throw new NumberFormatException("No seconds after '" + label + "' in line: " + line);
+        }
+        long nanos = number(line, from, separator) * NANOS_IN_SECOND;
+        if (separator < line.length() && (line.charAt(separator) == '.' || line.charAt(separator) == ',')) {
+            int fractionEnd = digitsEnd(line, separator + 1);
+            long unit = NANOS_IN_SECOND;
+            for (int i = separator + 1; i < fractionEnd && unit > 1; i++) {
+                unit /= 10;
+                nanos += (line.charAt(i) - '0') * unit;
+            }
+        }
+        return nanos;
     }
 
-    private static BigDecimal parseApplicationTime(String line) {
-        String appTime = line
-                .replaceFirst(".*Application time: ", "")
-                .replace(" seconds", "")
-                .replace(',', '.')
-                .trim();
-        return new BigDecimal(appTime);
+    private static int fractionDigits(String line, String label) {
+        int separator = digitsEnd(line, valueStart(line, label));
+        if (separator < line.length() && (line.charAt(separator) == '.' || line.charAt(separator) == ',')) {
+            return digitsEnd(line, separator + 1) - separator - 1;
+        }
+        return 0;
+    }
+
+    private static int valueStart(String line, String label) {
+        int from = line.lastIndexOf(label);
+        if (from < 0) {
+            throw new NumberFormatException("No '" + label + "' in line: " + line);
+        }
+        from += label.length();
+        while (from < line.length() && line.charAt(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static long number(String line, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int digitsEnd(String line, int from) {
+        int end = from;
+        while (end < line.length() && line.charAt(end) >= '0' && line.charAt(end) <= '9') {
+            end++;
+        }
+        return end;
     }
 }
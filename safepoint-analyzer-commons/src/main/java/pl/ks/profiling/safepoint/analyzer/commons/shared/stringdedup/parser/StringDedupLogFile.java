@@ -26,6 +26,7 @@ public class StringDedupLogFile {
     private StringDedupLogEntry lastEntry = new StringDedupLogEntry();
 
     private Stage stage = Stage.UNKNOWN;
+    private boolean started;
 
     void newEntry(BigDecimal timestamp) {
         if (lastEntry.isInitialized()) {
@@ -34,6 +35,21 @@ public class StringDedupLogFile {
         }
         stage = Stage.UNKNOWN;
         lastEntry.setTimeStamp(timestamp);
+        started = true;
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    void append(StringDedupLogFile following) {
+        if (lastEntry.isInitialized()) {
+            entries.add(lastEntry);
+        }
+        entries.addAll(following.entries);
+        lastEntry = following.lastEntry;
+        stage = following.stage;
+        started = true;
     }
 
     void lastExecOccurred() {
@@ -16,16 +16,22 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiConsumer;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.Consumer3;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
-public class StringDedupLogFileParser implements FileParser<StringDedupLogFile> {
+public class StringDedupLogFileParser implements MergeableFileParser<StringDedupLogFile, StringDedupLogFileParser> {
     private final StringDedupLogFile logFile = new StringDedupLogFile();
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
+    private final boolean partial;
+    private final List<String> leadingLines = new ArrayList<>();
 
     private final TokenParser[] parsers = new TokenParser[]{
-            new SimpleTokenParser("Concurrent String Deduplication", StringDedupLogFileParser::markDeduplicationStarted),
+            new SimpleTokenParser("Concurrent String Deduplication", this::markDeduplicationStarted),
             new SimpleTokenParser("Last Exec", StringDedupLogFileParser::markLastExecSection),
             new SimpleTokenParser("Total Exec", StringDedupLogFileParser::markTotalExecOccurredSection),
             new SizeCountParser("Deduplicated", StringDedupLogFile::deduplicated),
@@ -34,8 +40,29 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
             new SizeCountParser("New", StringDedupLogFile::newStrings, SizeCountParser.SIZE_MARKERS_WITHOUT_PARENTHESIS)
     };
 
-    private static void markDeduplicationStarted(StringDedupLogFile logFile, String line) {
-        logFile.newEntry(ParserUtils.getTimeStamp(line));
+    public StringDedupLogFileParser() {
+        this(false);
+    }
+
+    private StringDedupLogFileParser(boolean partial) {
+        this.partial = partial;
+    }
+
+    @Override
+    public StringDedupLogFileParser newPartialParser() {
+        return new StringDedupLogFileParser(true);
+    }
+
+    @Override
+    public void merge(StringDedupLogFileParser following) {
+        following.leadingLines.forEach(this::parseLine);
+        if (following.logFile.isStarted()) {
+            logFile.append(following.logFile);
+        }
+    }
+
+    private void markDeduplicationStarted(StringDedupLogFile logFile, String line) {
+        logFile.newEntry(TimeStampDecoder.toSeconds(timeStamps.nanos(line)));
     }
 
     private static void markLastExecSection(StringDedupLogFile logFile, String line) {
@@ -46,12 +73,24 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
         logFile.totalExecOccurred();
     }
 
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "gc,stringdedup")) {
+            parseLine(line.toString());
+        }
+    }
+
     @Override
     public void parseLine(String line) {
         if (!isStringDeduplicationLine(line)) {
             return;
         }
 
+        if (partial && !logFile.isStarted() && !line.contains("Concurrent String Deduplication")) {
+            leadingLines.add(line);
+            return;
+        }
+
         useFirstAccepting(line, parsers);
     }
 
@@ -7,6 +7,7 @@ import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.LogsFile;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,13 +27,16 @@ public class SummaryPageCreator implements PageCreator {
     }
 
     private Table summaryTable(JvmLogFile jvmLogFile) {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(List.of("Parsing name", jvmLogFile.getParsing().getName()));
+        rows.add(List.of("Number of lines", String.valueOf(jvmLogFile.getParsing().getNumberOfLines())));
+        if (!jvmLogFile.getParsing().getSkippedParsers().isEmpty()) {
+            rows.add(List.of("Skipped parsers (no matching tags)", String.join(", ", jvmLogFile.getParsing().getSkippedParsers())));
+        }
         return Table.builder()
                 .title("Summary")
                 .header(List.of("", ""))
-                .table(List.of(
-                        List.of("Parsing name", jvmLogFile.getParsing().getName()),
-                        List.of("Number of lines", String.valueOf(jvmLogFile.getParsing().getNumberOfLines()))
-                ))
+                .table(rows)
                 .build();
     }
 
@@ -15,7 +15,6 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
@@ -25,37 +24,49 @@ public class ThreadLogFile {
     private List<ThreadsStatus> threadsStatuses = new ArrayList<>();
     private ThreadsStatus lastStatus = null;
 
-    void newThreadAdded(BigDecimal timeStamp) {
+    void newThreadAdded(long timeStampNanos) {
         if (lastStatus == null) {
             lastStatus = ThreadsStatus.builder()
                     .createdCount(1)
                     .destroyedCount(0)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         } else {
             lastStatus = ThreadsStatus.builder()
                     .createdCount(lastStatus.getCreatedCount() + 1)
                     .destroyedCount(lastStatus.getDestroyedCount())
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         }
         threadsStatuses.add(lastStatus);
     }
 
-    void threadDestroyed(BigDecimal timeStamp) {
+    void threadDestroyed(long timeStampNanos) {
         if (lastStatus == null) {
             lastStatus = ThreadsStatus.builder()
                     .createdCount(0)
                     .destroyedCount(1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         } else {
             lastStatus = ThreadsStatus.builder()
                     .createdCount(lastStatus.getCreatedCount())
                     .destroyedCount(lastStatus.getDestroyedCount() + 1)
-                    .timeStamp(timeStamp)
+                    .timeStampNanos(timeStampNanos)
                     .build();
         }
         threadsStatuses.add(lastStatus);
     }
+
+    void append(ThreadLogFile following) {
+        ThreadsStatus base = lastStatus;
+        for (ThreadsStatus status : following.threadsStatuses) {
+            lastStatus = base == null ? status : ThreadsStatus.builder()
+                    .createdCount(base.getCreatedCount() + status.getCreatedCount())
+                    .destroyedCount(base.getDestroyedCount() + status.getDestroyedCount())
+                    .timeStampNanos(status.getTimeStampNanos())
+                    .build();
+            threadsStatuses.add(lastStatus);
+        }
+    }
 }
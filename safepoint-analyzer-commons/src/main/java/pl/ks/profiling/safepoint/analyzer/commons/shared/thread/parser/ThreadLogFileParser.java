@@ -15,15 +15,34 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
-public class ThreadLogFileParser implements FileParser<ThreadLogFile> {
+public class ThreadLogFileParser implements MergeableFileParser<ThreadLogFile, ThreadLogFileParser> {
     private final ThreadLogFile threadLogFile = new ThreadLogFile();
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
 
     public ThreadLogFileParser() {
     }
 
+    @Override
+    public ThreadLogFileParser newPartialParser() {
+        return new ThreadLogFileParser();
+    }
+
+    @Override
+    public void merge(ThreadLogFileParser following) {
+        threadLogFile.append(following.threadLogFile);
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "os,thread")) {
+            parseLine(line.toString());
+        }
+    }
+
     @Override
     public void parseLine(String line) {
         if (!line.contains("os,thread")) {
@@ -31,9 +50,9 @@ public class ThreadLogFileParser implements FileParser<ThreadLogFile> {
         }
 
         if (line.contains("Thread started")) {
-            threadLogFile.newThreadAdded(ParserUtils.getTimeStamp(line));
+            threadLogFile.newThreadAdded(timeStamps.nanos(line));
         } else if (line.contains("Thread finished")) {
-            threadLogFile.threadDestroyed(ParserUtils.getTimeStamp(line));
+            threadLogFile.threadDestroyed(timeStamps.nanos(line));
         }
     }
 
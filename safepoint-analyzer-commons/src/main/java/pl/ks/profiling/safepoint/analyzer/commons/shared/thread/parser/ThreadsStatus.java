@@ -18,14 +18,19 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser;
 import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 @Value
 @Builder
 public class ThreadsStatus {
-    BigDecimal timeStamp;
+    long timeStampNanos;
     long createdCount;
     long destroyedCount;
 
+    public BigDecimal getTimeStamp() {
+        return TimeStampDecoder.toSeconds(timeStampNanos);
+    }
+
     public long getCurrentCount() {
         return createdCount - destroyedCount;
     }
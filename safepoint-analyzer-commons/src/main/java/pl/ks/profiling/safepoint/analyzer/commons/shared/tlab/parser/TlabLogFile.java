@@ -58,9 +58,14 @@ public class TlabLogFile {
         threadTlabsBeforeGC.add(threadTlabBeforeGC);
     }
 
-    public void newSummary(BigDecimal timeStamp, long threadCount, long refills, long maxRefills, long slowAllocs, long maxSlowAllocs, BigDecimal wastePercent) {
+    void append(TlabLogFile following) {
+        tlabSummaries.addAll(following.tlabSummaries);
+        threadTlabsBeforeGC.addAll(following.threadTlabsBeforeGC);
+    }
+
+    public void newSummary(long timeStampNanos, long threadCount, long refills, long maxRefills, long slowAllocs, long maxSlowAllocs, BigDecimal wastePercent) {
         tlabSummaries.add(TlabSummaryInfo.builder()
-                .timeStamp(timeStamp)
+                .timeStampNanos(timeStampNanos)
                 .threadCount(threadCount)
                 .refills(refills)
                 .maxRefills(maxRefills)
@@ -15,8 +15,9 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 import java.math.BigDecimal;
 import java.util.Comparator;
@@ -25,11 +26,49 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class TlabLogFileParser implements FileParser<TlabLogFile> {
+public class TlabLogFileParser implements MergeableFileParser<TlabLogFile, TlabLogFileParser> {
     private final TlabLogFile tlabLogFile = new TlabLogFile();
+    private final TimeStampDecoder timeStamps = new TimeStampDecoder();
     private final Map<String, String> lastThreadMap = new HashMap<>();
+    private final boolean partial;
+    private final Map<String, String> leadingThreadMap = new HashMap<>();
+    private boolean gcStartSeen;
     private final Comparator<ThreadTlabBeforeGC> MostFrequentSlowAllocsFirst = Comparator.comparingLong(ThreadTlabBeforeGC::getSlowAllocs).reversed();
 
+    public TlabLogFileParser() {
+        this(false);
+    }
+
+    private TlabLogFileParser(boolean partial) {
+        this.partial = partial;
+    }
+
+    @Override
+    public TlabLogFileParser newPartialParser() {
+        return new TlabLogFileParser(true);
+    }
+
+    @Override
+    public void merge(TlabLogFileParser following) {
+        lastThreadMap.putAll(following.leadingThreadMap);
+        if (following.gcStartSeen) {
+            gcStarted();
+        }
+        tlabLogFile.append(following.tlabLogFile);
+        if (following.gcStartSeen) {
+            lastThreadMap.clear();
+        }
+        // without a gc start in the following part its thread lines are still waiting for the next one
+        lastThreadMap.putAll(following.lastThreadMap);
+    }
+
+    @Override
+    public void parseLine(CharSequence line) {
+        if (ParserUtils.contains(line, "gc,tlab") || ParserUtils.contains(line, "gc,start")) {
+            parseLine(line.toString());
+        }
+    }
+
     @Override
     public void parseLine(String line) {
         if (isTlabLine(line)) {
@@ -38,9 +77,19 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
             } else if (isTlabSummaryLine(line)) {
                 parseTlabSummary(line);
             }
-        } else if (gcStarts(line) && !lastThreadMap.isEmpty()) {
+        } else if (gcStarts(line)) {
+            gcStarted();
+        }
+    }
+
+    private void gcStarted() {
+        if (partial && !gcStartSeen) {
+            leadingThreadMap.putAll(lastThreadMap);
+            lastThreadMap.clear();
+        } else if (!lastThreadMap.isEmpty()) {
             logStatsForThreads();
         }
+        gcStartSeen = true;
     }
 
     private boolean isTlabLine(String line) {
@@ -85,7 +134,7 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
     }
 
     private void parseTlabSummary(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
+        long timeStampNanos = timeStamps.nanos(line);
 
         PositionalParser parser = new PositionalParser(line);
         parser.moveAfter("TLAB totals:");
@@ -96,7 +145,7 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
         long maxSlowAllocs = parser.readNumericValue("max");
         BigDecimal wastePercent = parser.readPercentValue("waste:");
 
-        tlabLogFile.newSummary(timeStamp, threadCount, refills, maxRefills, slowAllocs, maxSlowAllocs, wastePercent);
+        tlabLogFile.newSummary(timeStampNanos, threadCount, refills, maxRefills, slowAllocs, maxSlowAllocs, wastePercent);
     }
 
     private boolean isTlabSummaryLine(String line) {
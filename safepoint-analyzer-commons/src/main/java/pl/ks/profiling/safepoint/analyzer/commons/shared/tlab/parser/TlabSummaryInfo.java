@@ -18,15 +18,20 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser;
 import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TimeStampDecoder;
 
 @Value
 @Builder
 public class TlabSummaryInfo {
-    BigDecimal timeStamp;
+    long timeStampNanos;
     long threadCount;
     long refills;
     long maxRefills;
     long slowAllocs;
     long maxSlowAllocs;
     BigDecimal wastePercent;
+
+    public BigDecimal getTimeStamp() {
+        return TimeStampDecoder.toSeconds(timeStampNanos);
+    }
 }
@@ -0,0 +1,83 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+class GroupedValuesSpec extends Specification {
+    def "should keep values of every group and key apart"() {
+        given:
+        GroupedValues values = new GroupedValues(2, 3)
+
+        when:
+        2.times {
+            (1..20).each { values.add(0, 1, it) }
+            values.add(1, 2, 7.5d)
+            if (it == 0) {
+                values.allocate()
+            }
+        }
+
+        then:
+        values.count(0, 1) == 20
+        values.values(0, 1) == (1..20).collect { it as double } as double[]
+        values.stats(0, 1).total == 210G
+        values.count(0, 0) == 0
+        values.values(1, 0).length == 0
+        values.stats(1, 2).percentile100 == 7.5G
+    }
+
+    def "should size cells from expected counts"() {
+        given:
+        GroupedValues values = new GroupedValues(1, 2)
+        values.expect(0, 1, 2)
+        values.allocate()
+
+        when:
+        values.add(0, 1, 1d)
+        values.add(0, 1, 2d)
+
+        then:
+        values.values(0, 1) == [1d, 2d] as double[]
+        values.values(0, 0).length == 0
+    }
+
+    def "should release values once their stats are taken"() {
+        given:
+        GroupedValues values = new GroupedValues(1, 1)
+        values.add(0, 0, 1d)
+        values.allocate()
+        values.add(0, 0, 1d)
+        values.stats(0, 0)
+
+        when:
+        values.values(0, 0)
+
+        then:
+        thrown(IllegalStateException)
+        values.count(0, 0) == 1
+    }
+
+    def "should reject more values than counted"() {
+        given:
+        GroupedValues values = new GroupedValues(1, 1)
+        values.add(0, 0, 1d)
+        values.allocate()
+        values.add(0, 0, 1d)
+
+        when:
+        values.add(0, 0, 2d)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should reject keys out of range"() {
+        given:
+        GroupedValues values = new GroupedValues(2, 3)
+
+        when:
+        values.add(0, 3, 1d)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+}
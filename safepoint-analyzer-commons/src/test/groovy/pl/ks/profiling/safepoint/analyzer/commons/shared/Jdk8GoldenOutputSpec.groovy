@@ -0,0 +1,48 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.G1GoldenOutputSpec
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCJdk8LogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointJdk8LogFileParser
+import spock.lang.Specification
+
+/**
+ * {@code jdk8/*.expected} hold the output of the former, regex based parsing of {@code -XX:+PrintGCDetails
+ * -XX:+PrintSafepointStatistics} logs, with safepoint time stamps taken from the uptime printed in the statistics.
+ */
+class Jdk8GoldenOutputSpec extends Specification {
+    def "should parse #log exactly as the regex based parsers did"() {
+        given:
+        SymbolTable symbols = new SymbolTable()
+        SafepointJdk8LogFileParser safepointParser = new SafepointJdk8LogFileParser(symbols)
+        GCJdk8LogFileParser gcParser = new GCJdk8LogFileParser(symbols)
+
+        when:
+        resource("/jdk8/${log}.log").eachLine {
+            safepointParser.parseLine(it)
+            gcParser.parseLine(it)
+        }
+
+        then:
+        (G1GoldenOutputSpec.dump(gcParser.fetchData()) + dump(safepointParser.fetchData().safepoints)).readLines() == resource("/jdk8/${log}.expected").readLines()
+
+        where:
+        log << ["g1-gc-safepoint", "parallel-gc-safepoint", "cms-gc-safepoint"]
+    }
+
+    private static String dump(List<?> safepoints) {
+        StringBuilder dump = new StringBuilder()
+        safepoints.each { entry ->
+            dump.append(entry.class.simpleName).append('\n')
+            new TreeMap(entry.properties).each { String key, value ->
+                if (key != "class") {
+                    dump.append("  $key=$value\n")
+                }
+            }
+        }
+        return dump.toString()
+    }
+
+    private static String resource(String name) {
+        Jdk8GoldenOutputSpec.getResourceAsStream(name).text
+    }
+}
@@ -0,0 +1,75 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+import java.util.function.Predicate
+
+class LogLineDecoratorsSpec extends Specification {
+    def "should read tags of line '#line'"() {
+        given:
+        LogLineDecorators decorators = new LogLineDecorators()
+
+        expect:
+        decorators.parse(line) == (tags != null)
+        !decorators.hasTags() || decorators.tags() == tags
+
+        where:
+        line                                                                                          || tags
+        "[2020-12-21T01:04:47.091+0000][1778483.410s][info ][gc,start             ] GC(597760) Pause" || "gc,start"
+        "[100.000s][info][safepoint] Application time: 0.1 seconds"                                   || "safepoint"
+        "[gc,tlab] GC(3) TLAB totals: thrds: 1"                                                       || "gc,tlab"
+        "[100.000s][info ] Application time: 0.1 seconds"                                             || null
+        "[100.000s] Application time: 0.1 seconds"                                                    || null
+        "  continuation of a previous line"                                                           || null
+        "[gc,start"                                                                                   || null
+    }
+
+    def "should route lines to parsers subscribed to their tags"() {
+        given:
+        TagRoutes routes = new TagRoutes([{ String tags -> tags.contains("gc") } as Predicate<String>, { String tags -> tags == "safepoint" } as Predicate<String>])
+
+        expect:
+        routes.route("[1.000s][info][gc,heap   ] GC(1) Eden regions: 1->0(9)") == 0b01
+        routes.route("[1.000s][info][safepoint ] Application time: 0.1 seconds") == 0b10
+        routes.route("[1.000s][info][os,thread ] Thread started") == 0
+        routes.route("[1.000s][info] Application time: 0.1 seconds") == 0b11
+    }
+
+    def "should route lines without decorators to parsers of seen tag sets once the log is sampled"() {
+        given:
+        TagRoutes routes = new TagRoutes([{ String tags -> tags.contains("gc") } as Predicate<String>, { String tags -> tags == "safepoint" } as Predicate<String>], 100)
+
+        expect:
+        routes.route("  continuation of a previous line") == 0b11
+        routes.route("[1.000s][info][gc,heap   ] GC(1) Eden regions: 1->0(9)") == 0b01
+        routes.route("  continuation of a previous line") == 0b01
+        routes.route("[1.000s][info] Application time: 0.1 seconds") == 0b11
+        routes.route("[1.000s][info][safepoint ] Application time: 0.1 seconds") == 0b10
+        routes.route("  continuation of a previous line") == 0b11
+        routes.parsersWithTagsFound() == 0b11
+    }
+
+    def "should find parsers by their own tags only, not by blank lines or tags they need besides"() {
+        given:
+        List<Predicate<String>> subscriptions = [{ String tags -> tags.contains("gc") } as Predicate<String>, { String tags -> tags.contains("gc,tlab") || tags.contains("gc,start") } as Predicate<String>]
+        List<Predicate<String>> ownTags = [subscriptions[0], { String tags -> tags.contains("gc,tlab") } as Predicate<String>]
+        TagRoutes routes = new TagRoutes(subscriptions, ownTags)
+        TagRoutes following = new TagRoutes(subscriptions, ownTags)
+
+        when:
+        routes.route("")
+        routes.route("  continuation of a previous line")
+        routes.route("[1.000s][info][gc,start ] GC(1) Pause Young (Normal) (G1 Evacuation Pause)")
+
+        then:
+        routes.parsersWithTagsFound() == 0b01
+
+        when:
+        following.route("")
+        following.route("[2.000s][trace][gc,tlab ] GC(2) TLAB: gc thread: 0x1 [id: 1] desired_size: 1KB")
+        routes.merge(following)
+
+        then:
+        routes.parsersWithTagsFound() == 0b11
+    }
+}
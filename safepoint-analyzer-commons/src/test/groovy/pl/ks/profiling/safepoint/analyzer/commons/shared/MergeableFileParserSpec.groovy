@@ -0,0 +1,108 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.safepoint.analyzer.commons.MergeableFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser.ClassLoaderLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.JitLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointUnifiedLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser.StringDedupLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser.ThreadLogFileParser
+import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser.TlabLogFileParser
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MergeableFileParserSpec extends Specification {
+    @Shared
+    List<String> lines = MergeableFileParserSpec.getResourceAsStream("/merge/unified.log").readLines()
+
+    @Shared
+    Map<String, Closure> parsers = [
+            gc         : { new GCUnifiedLogFileParser() },
+            safepoint  : { new SafepointUnifiedLogFileParser() },
+            thread     : { new ThreadLogFileParser() },
+            classLoader: { new ClassLoaderLogFileParser() },
+            jit        : { new JitLogFileParser() },
+            tlab       : { new TlabLogFileParser() },
+            stringDedup: { new StringDedupLogFileParser() }
+    ]
+
+    @Shared
+    Map<String, Closure> results = [
+            gc         : { [values(it.cycleEntries), values(it.concurrentCycleEntries)] },
+            safepoint  : { values(it.safepoints) },
+            thread     : { [it.threadsStatuses, it.lastStatus] },
+            classLoader: { [it.classStatuses, it.lastStatus] },
+            jit        : { [it.compilationStatuses, it.lastStatus, it.codeCacheSweeperActivities, it.codeCacheStatuses] },
+            tlab       : { [it.tlabSummaries, it.threadTlabsBeforeGC] },
+            stringDedup: { values(it.entries) }
+    ]
+
+    @Unroll
+    def "merging #name parser state of two parts should give the same result as parsing the whole log"() {
+        given:
+        def expected = results[name](parse(parsers[name](), lines).fetchData())
+
+        expect:
+        (0..lines.size()).every { int split ->
+            MergeableFileParser first = parse(parsers[name](), lines.subList(0, split))
+            first.merge(parse(first.newPartialParser(), lines.subList(split, lines.size())))
+            results[name](first.fetchData()) == expected
+        }
+
+        where:
+        name << parsers.keySet()
+    }
+
+    @Unroll
+    def "merging #name parser state should be associative"() {
+        given:
+        def expected = results[name](parse(parsers[name](), lines).fetchData())
+        def splits = (0..lines.size()).step(11)
+
+        expect:
+        [splits, splits].combinations().findAll { it[0] <= it[1] }.every { int first, int second ->
+            MergeableFileParser left = parse(parsers[name](), lines.subList(0, first))
+            MergeableFileParser middle = parse(left.newPartialParser(), lines.subList(first, second))
+            MergeableFileParser right = parse(left.newPartialParser(), lines.subList(second, lines.size()))
+            middle.merge(right)
+            left.merge(middle)
+            results[name](left.fetchData()) == expected
+        }
+
+        where:
+        name << parsers.keySet()
+    }
+
+    @Unroll
+    def "merging #name parser state of three parts from the left should give the same result as parsing the whole log"() {
+        given:
+        def expected = results[name](parse(parsers[name](), lines).fetchData())
+        def splits = (0..lines.size()).step(11)
+
+        expect:
+        [splits, splits].combinations().findAll { it[0] <= it[1] }.every { int first, int second ->
+            MergeableFileParser left = parse(parsers[name](), lines.subList(0, first))
+            left.merge(parse(left.newPartialParser(), lines.subList(first, second)))
+            left.merge(parse(left.newPartialParser(), lines.subList(second, lines.size())))
+            results[name](left.fetchData()) == expected
+        }
+
+        where:
+        name << parsers.keySet()
+    }
+
+    def "test log should exercise every parser"() {
+        expect:
+        parsers.every { name, parser -> !results[name](parse(parser(), lines).fetchData()).flatten().isEmpty() }
+    }
+
+    private static MergeableFileParser parse(MergeableFileParser parser, List<String> part) {
+        part.each { parser.parseLine(it) }
+        return parser
+    }
+
+    private static List<Map> values(List entries) {
+        return entries.collect { it.properties.findAll { key, value -> key != "class" } }
+    }
+}
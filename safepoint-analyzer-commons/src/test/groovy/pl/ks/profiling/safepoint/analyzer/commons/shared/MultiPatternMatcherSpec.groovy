@@ -0,0 +1,36 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+class MultiPatternMatcherSpec extends Specification {
+    def "should find overlapping patterns"() {
+        given:
+        MultiPatternMatcher matcher = new MultiPatternMatcher(["he", "she", "his", "hers", ")   ", ")  "])
+
+        expect:
+        matcher.find(text) == expected
+
+        where:
+        text                 || expected
+        "ushers"             || 0b001011
+        "this"               || 0b000100
+        "GC(1)   Total: 1ms" || 0b110000
+        "GC(1)  Total"       || 0b100000
+        "zażółć"             || 0
+        ""                   || 0
+    }
+
+    def "should find the same patterns as String.contains in unified log lines"() {
+        given:
+        List<String> patterns = ["gc", "GC(", "gc,start", "gc ", "ms", ")   ", ")       ", ")  ", "->", "- age", "Concurrent Cycle",
+                                 "Concurrent Mark Cycle", "gc,heap", "info", "trace", "debug", "safepoint", "Queue Fixup"]
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patterns)
+
+        expect:
+        MultiPatternMatcherSpec.getResourceAsStream("/merge/unified.log").readLines().every { String line ->
+            long expected = 0
+            patterns.eachWithIndex { String pattern, int i -> if (line.contains(pattern)) expected |= 1L << i }
+            matcher.find(line) == expected
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.io.source.MappedFileLogsSource
+import pl.ks.profiling.io.source.RegularFilesSource
+import pl.ks.profiling.io.source.TailingLogsSource
+import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.function.Function
+
+class StatsServiceSpec extends Specification {
+    private StatsService statsService = new StatsService()
+
+    def "should produce the same results when parsing chunks in parallel"() {
+        given:
+        File file = Files.createTempFile("parallel-parsing", ".log").toFile()
+        file.deleteOnExit()
+        file.text = unifiedLog(200)
+
+        when:
+        JvmLogFile sequential = statsService.createAllStatsUnifiedLogger(new MappedFileLogsSource<>("test", [file], Function.identity()), ParsingOptions.SEQUENTIAL, {}, {})
+        JvmLogFile parallel = statsService.createAllStatsUnifiedLogger(new MappedFileLogsSource<>("test", [file], Function.identity()), ParsingOptions.SEQUENTIAL.withParallelism(4), {}, {})
+
+        then:
+        parallel.gcLogFile.cycleEntries.collect { [it.sequenceId, it.phase, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] } ==
+                sequential.gcLogFile.cycleEntries.collect { [it.sequenceId, it.phase, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] }
+        parallel.gcLogFile.cycleEntries.size() == 200
+        parallel.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.applicationTime, it.ttsTime, it.stoppedTime] } ==
+                sequential.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.applicationTime, it.ttsTime, it.stoppedTime] }
+        parallel.safepointLogFile.safepoints.size() == 400
+        parallel.threadLogFile.threadsStatuses == sequential.threadLogFile.threadsStatuses
+        parallel.classLoaderLogFile.classStatuses == sequential.classLoaderLogFile.classStatuses
+        parallel.parsing.numberOfLines == sequential.parsing.numberOfLines
+        parallel.parsing.skippedParsers == sequential.parsing.skippedParsers
+    }
+
+    def "should produce the same results when parsers run on #parserThreads threads"() {
+        given:
+        File file = Files.createTempFile("fan-out-parsing", ".log").toFile()
+        file.deleteOnExit()
+        file.text = unifiedLog(3000)
+
+        when:
+        JvmLogFile sequential = statsService.createAllStatsUnifiedLogger(new RegularFilesSource<>("test", [file], Function.identity()), ParsingOptions.SEQUENTIAL, {}, {})
+        JvmLogFile fanOut = statsService.createAllStatsUnifiedLogger(new RegularFilesSource<>("test", [file], Function.identity()), ParsingOptions.SEQUENTIAL.withParserThreads(parserThreads), {}, {})
+
+        then:
+        fanOut.gcLogFile.cycleEntries.collect { [it.sequenceId, it.phase, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] } ==
+                sequential.gcLogFile.cycleEntries.collect { [it.sequenceId, it.phase, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] }
+        fanOut.gcLogFile.cycleEntries.size() == 3000
+        fanOut.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.applicationTime, it.ttsTime, it.stoppedTime] } ==
+                sequential.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.applicationTime, it.ttsTime, it.stoppedTime] }
+        fanOut.threadLogFile.threadsStatuses == sequential.threadLogFile.threadsStatuses
+        fanOut.classLoaderLogFile.classStatuses == sequential.classLoaderLogFile.classStatuses
+        fanOut.parsing.numberOfLines == sequential.parsing.numberOfLines
+        fanOut.pages*.fullName == sequential.pages*.fullName
+        fanOut.parsing.skippedParsers == ["JIT", "TLAB", "String deduplication"]
+        sequential.parsing.skippedParsers == ["JIT", "TLAB", "String deduplication"]
+
+        where:
+        parserThreads << [2, 16]
+    }
+
+    def "should refresh incremental parsing with appended lines"() {
+        given:
+        File file = Files.createTempFile("incremental-parsing", ".log").toFile()
+        file.deleteOnExit()
+        String log = unifiedLog(100)
+        int split = log.indexOf("\n", log.length().intdiv(2)) - 20
+        file.text = log.substring(0, split)
+        IncrementalParsing incremental = statsService.startIncrementalUnifiedLogger(new TailingLogsSource(file, Function.identity()))
+
+        when:
+        int firstCycles = incremental.refresh().gcLogFile.cycleEntries.size()
+        file << log.substring(split)
+        JvmLogFile refreshed = incremental.refresh()
+        JvmLogFile whole = statsService.createAllStatsUnifiedLogger(new RegularFilesSource<>("test", [file], Function.identity()), {}, {})
+
+        then:
+        firstCycles > 0 && firstCycles < 100
+        refreshed.gcLogFile.cycleEntries.collect { [it.sequenceId, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] } ==
+                whole.gcLogFile.cycleEntries.collect { [it.sequenceId, it.heapBeforeGCMb, it.heapAfterGCMb, it.timeMs, it.subPhasesTime] }
+        refreshed.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.stoppedTime] } ==
+                whole.safepointLogFile.safepoints.collect { [it.sequenceId, it.operationName, it.stoppedTime] }
+        refreshed.safepointLogFile.safepointOperationStats.totalCount == whole.safepointLogFile.safepointOperationStats.totalCount
+        refreshed.gcLogFile.stats.gcPhaseStats*.count == whole.gcLogFile.stats.gcPhaseStats*.count
+        refreshed.pages*.fullName == whole.pages*.fullName
+
+        cleanup:
+        incremental?.close()
+    }
+
+    private static String unifiedLog(int cycles) {
+        StringBuilder log = new StringBuilder()
+        cycles.times { int i ->
+            String uptime = "${100 + i}.000s"
+            log << "[2020-12-21T01:04:47.091+0000][${uptime}][info ][safepoint            ] Application time: 0.${100 + i} seconds\n"
+            log << "[2020-12-21T01:04:47.091+0000][${uptime}][info ][gc,start             ] GC(${i}) Pause Young (Normal) (G1 Evacuation Pause)\n"
+            log << "[2020-12-21T01:04:47.091+0000][${uptime}][info ][safepoint            ] Entering safepoint region: G1CollectForAllocation\n"
+            log << "[2020-12-21T01:04:47.091+0000][${uptime}][info ][os,thread            ] Thread started (tid: ${i}, pthread id: ${i}).\n"
+            log << "[2020-12-21T01:04:47.097+0000][${uptime}][info ][gc,phases            ] GC(${i})   Pre Evacuate Collection Set: 0.${i % 10}ms\n"
+            log << "[2020-12-21T01:04:47.097+0000][${uptime}][info ][gc,phases            ] GC(${i})   Evacuate Collection Set: 2.3ms\n"
+            log << "[2020-12-21T01:04:47.097+0000][${uptime}][info ][class,load           ] java.lang.Object${i} source: shared objects file\n"
+            log << "[2020-12-21T01:04:47.098+0000][${uptime}][info ][gc,heap              ] GC(${i}) Eden regions: ${i % 50}->0(1473)\n"
+            log << "[2020-12-21T01:04:47.098+0000][${uptime}][info ][gc                   ] GC(${i}) Pause Young (Normal) (G1 Evacuation Pause) ${1000 + i}M->${500 + i}M(5120M) ${i % 9}.363ms\n"
+            log << "[2020-12-21T01:04:47.098+0000][${uptime}][info ][safepoint            ] Total time for which application threads were stopped: 0.00${i % 10} seconds, Stopping threads took: 0.0001 seconds\n"
+            log << "[2020-12-21T01:04:47.099+0000][${uptime}][info ][safepoint            ] Safepoint \"Cleanup\", Time since last: ${1000 + i} ns, Reaching safepoint: 21958 ns, At safepoint: 85292 ns, Total: ${107250 + i} ns\n"
+            log << "[2020-12-21T01:04:47.099+0000][${uptime}][info ][os,thread            ] Thread finished (tid: ${i}, pthread id: ${i}).\n"
+        }
+        return log.toString()
+    }
+}
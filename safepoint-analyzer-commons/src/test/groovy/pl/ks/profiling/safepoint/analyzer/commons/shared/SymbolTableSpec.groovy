@@ -0,0 +1,46 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class SymbolTableSpec extends Specification {
+    def "should give the same id to the same name"() {
+        given:
+        SymbolTable symbols = new SymbolTable()
+
+        String line = "[safepoint] Entering safepoint region: G1CollectForAllocation"
+
+        when:
+        int id = symbols.id("G1CollectForAllocation")
+
+        then:
+        symbols.id(line, line.indexOf(": ") + 2, line.length()) == id
+        symbols.id("Cleanup") != id
+        symbols.find("G1CollectForAllocation") == id
+        symbols.find("Unknown") == SymbolTable.NO_SYMBOL
+        symbols.name(id) == "G1CollectForAllocation"
+        symbols.id(null) == SymbolTable.NO_SYMBOL
+        symbols.name(SymbolTable.NO_SYMBOL) == null
+        symbols.size() == 2
+    }
+
+    def "should give one id per name when used from many threads"() {
+        given:
+        SymbolTable symbols = new SymbolTable()
+        List<String> names = (0..<5_000).collect { "Phase $it".toString() }
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<List<Integer>> ids = executor.invokeAll((0..<8).collect { int thread ->
+            { -> (thread % 2 == 0 ? names : names.reverse()).collect { symbols.id(it) } } as Callable<List<Integer>>
+        })*.get()
+        executor.shutdown()
+
+        then:
+        symbols.size() == names.size()
+        ids.every { it.toSet().size() == names.size() }
+        names.every { symbols.name(symbols.find(it)) == it }
+    }
+}
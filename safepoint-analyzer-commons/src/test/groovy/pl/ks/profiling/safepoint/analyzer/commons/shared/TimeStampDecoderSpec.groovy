@@ -0,0 +1,70 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+import java.time.LocalDate
+import java.time.OffsetDateTime
+
+class TimeStampDecoderSpec extends Specification {
+    def "should read #decorator decorator of '#line'"() {
+        given:
+        TimeStampDecoder decoder = new TimeStampDecoder()
+
+        expect:
+        decoder.nanos(line) == nanos
+        decoder.decorator() == decorator
+
+        where:
+        line                                                                                  || nanos                  | decorator
+        "[1778483,430s][info][gc] GC(1) Pause"                                                || 1778483_430_000_000L   | TimeStampDecoder.Decorator.UPTIME
+        "[100.132s][info][safepoint] Application time: 0.1 seconds"                           || 100_132_000_000L       | TimeStampDecoder.Decorator.UPTIME
+        "[2020-12-21T01:04:47.091+0100][12.5s][info][gc] GC(1) Pause"                         || 12_500_000_000L        | TimeStampDecoder.Decorator.UPTIME
+        "[1608512687091ms][12345ms][info][gc] GC(1) Pause"                                    || 12_345_000_000L        | TimeStampDecoder.Decorator.UPTIME_MILLIS
+        "[12345678ns][info][gc] GC(1) Pause"                                                  || 12_345_678L            | TimeStampDecoder.Decorator.UPTIME_NANOS
+        "[2020-12-21T01:04:47.091+0100][info][gc] GC(1) Pause"                                || epochNanos("2020-12-21T01:04:47.091+01:00") | TimeStampDecoder.Decorator.TIME
+        "[2020-02-29T23:59:59.999-0230][info][gc] GC(1) Pause"                                || epochNanos("2020-02-29T23:59:59.999-02:30") | TimeStampDecoder.Decorator.TIME
+        "[1608512687091ms][info][gc] GC(1) Pause"                                             || 1608512687091_000_000L | TimeStampDecoder.Decorator.TIME_MILLIS
+        "[1608512687091234567ns][info][gc] GC(1) Pause"                                       || 1608512687091234567L   | TimeStampDecoder.Decorator.TIME_NANOS
+    }
+
+    def "should detect the layout again when a line does not fit"() {
+        given:
+        TimeStampDecoder decoder = new TimeStampDecoder()
+
+        expect:
+        decoder.nanos("[1.000s][info][gc] GC(1) Pause") == 1_000_000_000L
+        decoder.nanos("[2000ms][info][gc] GC(2) Pause") == 2_000_000_000L
+        decoder.decorator() == TimeStampDecoder.Decorator.UPTIME_MILLIS
+
+        when:
+        decoder.nanos("  continuation of a previous line")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "should compute days since epoch"() {
+        expect:
+        (0..200_000).step(97).every { int day ->
+            LocalDate date = LocalDate.ofEpochDay(day - 100_000)
+            TimeStampDecoder.epochDay(date.year, date.monthValue, date.dayOfMonth) == date.toEpochDay()
+        }
+    }
+
+    def "should keep scale of printed uptime in seconds"() {
+        expect:
+        TimeStampDecoder.toSeconds(nanos) == seconds
+        TimeStampDecoder.toSeconds(nanos).scale() == seconds.scale()
+
+        where:
+        nanos            || seconds
+        100_132_000_000L || new BigDecimal("100.132")
+        0L               || new BigDecimal("0.000")
+        12_345_678L      || new BigDecimal("0.012345678")
+    }
+
+    private static long epochNanos(String time) {
+        OffsetDateTime dateTime = OffsetDateTime.parse(time)
+        return dateTime.toEpochSecond() * 1_000_000_000L + dateTime.nano
+    }
+}
@@ -0,0 +1,36 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import spock.lang.Specification
+
+/**
+ * {@code gc/g1-unified.expected} holds the output of the former, regex based parsing of {@code gc/g1-unified.log}.
+ */
+class G1GoldenOutputSpec extends Specification {
+    def "should parse G1 log exactly as the regex based parser did"() {
+        given:
+        GCUnifiedLogFileParser parser = new GCUnifiedLogFileParser()
+
+        when:
+        resource("/gc/g1-unified.log").eachLine { parser.parseLine(it) }
+
+        then:
+        dump(parser.fetchData()).readLines() == resource("/gc/g1-unified.expected").readLines()
+    }
+
+    static String dump(GCLogFile gcLogFile) {
+        StringBuilder dump = new StringBuilder()
+        (gcLogFile.cycleEntries + gcLogFile.concurrentCycleEntries).each { entry ->
+            dump.append(entry.class.simpleName).append('\n')
+            new TreeMap(entry.properties).each { String key, value ->
+                if (key != "class" && !key.matches(/[A-Z_]+/)) {
+                    dump.append("  $key=${value instanceof Map && !(value instanceof LinkedHashMap) ? new TreeMap(value) : value}\n")
+                }
+            }
+        }
+        return dump.toString()
+    }
+
+    private static String resource(String name) {
+        G1GoldenOutputSpec.getResourceAsStream(name).text
+    }
+}
@@ -0,0 +1,29 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable
+import spock.lang.Specification
+
+class GCCycleStoreSpec extends Specification {
+    def "should keep cycles when stores with own symbol tables are appended"() {
+        given:
+        GCUnifiedLogFileParser parser = new GCUnifiedLogFileParser()
+        GCCycleStoreSpec.getResourceAsStream("/gc/g1-unified.log").eachLine { parser.parseLine(it) }
+        List<GCLogCycleEntry> entries = parser.fetchData().cycleEntries
+        GCCycleStore first = new GCCycleStore(new SymbolTable())
+        GCCycleStore second = new GCCycleStore(new SymbolTable())
+        entries.take(entries.size().intdiv(2)).each { first.add(it) }
+        entries.drop(entries.size().intdiv(2)).each { second.add(it) }
+
+        when:
+        first.addAll(second)
+
+        then:
+        first.size() == entries.size()
+        first.entries().collect { describe(it) } == entries.collect { describe(it) }
+        first.symbolName(first.phaseId(entries.size() - 1)) == entries.last().phase
+    }
+
+    private static String describe(GCLogCycleEntry entry) {
+        new TreeMap(entry.properties.collectEntries { key, value -> [(key): value instanceof Map ? new TreeMap(value) : value] }).toString()
+    }
+}
@@ -0,0 +1,113 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import groovy.transform.CompileStatic
+import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats
+import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStatsUtil
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable
+
+import java.util.function.IntUnaryOperator
+
+/**
+ * Not run by surefire. Compares the phase and aggregated phase statistics of {@link GCStatsCreator}, gathered in a
+ * counting pass and a filling pass over all cycles, against filtering the cycles of every phase and of every aggregated
+ * phase and scanning them again for every sub-phase, on generated G1 cycles. Both produce the same statistics, the
+ * rest of {@link GCStatsCreator#createStats} is computed once up front and not timed:
+ * <pre>
+ * mvn -pl safepoint-analyzer-commons -am install -DskipTests
+ * mvn -pl safepoint-analyzer-commons dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx5g -cp safepoint-analyzer-commons/target/test-classes:safepoint-analyzer-commons/target/classes:$(cat safepoint-analyzer-commons/target/cp.txt) \
+ *     pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCStatsCreatorBenchmark [cycles] [sub-phases]
+ * </pre>
+ */
+@CompileStatic
+class GCStatsCreatorBenchmark {
+    private static final int ROUNDS = 5
+    private static final String TIME = ""
+    private static final List<String> PHASES = [
+            "Pause Young (Normal) (G1 Evacuation Pause)",
+            "Pause Young (Concurrent Start) (G1 Humongous Allocation)",
+            "Pause Young (Prepare Mixed) (G1 Evacuation Pause)",
+            "Pause Young (Mixed) (G1 Evacuation Pause)",
+            "Pause Remark",
+            "Pause Cleanup",
+            "Pause Full (G1 Compaction Pause)"
+    ]
+
+    static void main(String[] args) {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000
+        int subPhases = args.length > 1 ? Integer.parseInt(args[1]) : 60
+        GCLogFile gcLogFile = generate(cycles, subPhases)
+        println "Cycles: ${cycles}, sub-phases: ${subPhases}"
+
+        GCStats stats = GCStatsCreator.createStats(gcLogFile)
+        GCCycleStore cycleStore = gcLogFile.cycleStore
+        ROUNDS.times {
+            long start = System.nanoTime()
+            GCStatsCreator.generatePhaseStats(cycleStore, stats)
+            report("two passes        ", start)
+
+            start = System.nanoTime()
+            Map<String, Map<String, OneFiledAllStats>> scannedPhases = scanPerPhase(cycleStore, stats.gcPhases, stats.subPhases) { int cycle -> cycleStore.phaseId(cycle) }
+            Map<String, Map<String, OneFiledAllStats>> scannedAggregatedPhases = scanPerPhase(cycleStore, stats.gcAggregatedPhases, stats.subPhases) { int cycle -> cycleStore.aggregatedPhaseId(cycle) }
+            report("scans per phase   ", start)
+            check(stats.gcPhaseStats, scannedPhases)
+            check(stats.gcAggregatedPhaseStats, scannedAggregatedPhases)
+        }
+    }
+
+    private static void check(List<GCPhaseStats> phasesStats, Map<String, Map<String, OneFiledAllStats>> scanned) {
+        phasesStats.each { GCPhaseStats phase ->
+            assert phase.time.total == scanned[phase.name][TIME].total
+            phase.subPhaseTimes.each { String subPhase, OneFiledAllStats subPhaseStats ->
+                assert subPhaseStats.total == scanned[phase.name][subPhase].total
+                assert subPhaseStats.percentile99 == scanned[phase.name][subPhase].percentile99
+            }
+        }
+    }
+
+    private static GCLogFile generate(int cycles, int subPhases) {
+        Random random = new Random(42)
+        GCLogFile gcLogFile = new GCLogFile(new SymbolTable())
+        for (long cycle = 0; cycle < cycles; cycle++) {
+            gcLogFile.newPhase(cycle, PHASES[random.nextInt(PHASES.size())], cycle * 100_000_000L)
+            for (int subPhase = 0; subPhase < subPhases; subPhase++) {
+                gcLogFile.addSubPhaseTime(cycle, "Sub-phase ${subPhase}".toString(), BigDecimal.valueOf(random.nextInt(10_000), 2))
+            }
+            gcLogFile.addSizesAndTime(cycle, 200, 100, 1024, BigDecimal.valueOf(random.nextInt(100_000), 3))
+        }
+        return gcLogFile
+    }
+
+    private static Map<String, Map<String, OneFiledAllStats>> scanPerPhase(GCCycleStore cycles, Collection<String> phases, Collection<String> subPhases,
+                                                                           IntUnaryOperator phaseOfCycle) {
+        Map<String, Map<String, OneFiledAllStats>> stats = [:]
+        for (String phase : phases) {
+            int phaseId = cycles.symbol(phase)
+            int[] phaseCycles = cycles.select { int cycle -> phaseOfCycle.applyAsInt(cycle) == phaseId }
+            Map<String, OneFiledAllStats> subPhasesStats = [:]
+            for (String subPhase : subPhases) {
+                int subPhaseId = cycles.symbol(subPhase)
+                double[] times = new double[phaseCycles.length]
+                int count = 0
+                for (int cycle : phaseCycles) {
+                    int index = cycles.subPhaseIndex(cycle, subPhaseId)
+                    if (index >= 0) {
+                        times[count++] = cycles.subPhaseTimeAsDouble(cycle, index)
+                    }
+                }
+                subPhasesStats[subPhase] = OneFiledAllStatsUtil.create(Arrays.copyOf(times, count))
+            }
+            double[] times = new double[phaseCycles.length]
+            for (int i = 0; i < phaseCycles.length; i++) {
+                times[i] = cycles.timeMsAsDouble(phaseCycles[i])
+            }
+            subPhasesStats[TIME] = OneFiledAllStatsUtil.create(times)
+            stats[phase] = subPhasesStats
+        }
+        return stats
+    }
+
+    private static void report(String name, long start) {
+        printf("%s: %.2fs%n", name, (System.nanoTime() - start) / 1_000_000_000d)
+    }
+}
@@ -0,0 +1,82 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import groovy.transform.CompileStatic
+
+import static pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser.PARSERS
+import static pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser.PATTERNS
+
+/**
+ * Not run by surefire. Compares selecting the GC line parser with per rule {@code contains} scans against a single
+ * pass of the multi pattern matcher, on a G1 log written with {@code -Xlog:gc*=trace}:
+ * <pre>
+ * mvn -pl safepoint-analyzer-commons -am install -DskipTests
+ * mvn -pl safepoint-analyzer-commons dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp safepoint-analyzer-commons/target/test-classes:safepoint-analyzer-commons/target/classes:$(cat safepoint-analyzer-commons/target/cp.txt) \
+ *     pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GcLineMatchingBenchmark [gc log]
+ * </pre>
+ */
+@CompileStatic
+class GcLineMatchingBenchmark {
+    private static final int ROUNDS = 5
+    private static final int MIN_LINES = 5_000_000
+
+    static void main(String[] args) {
+        List<String> log = args.length > 0 ?
+                new File(args[0]).readLines() :
+                GcLineMatchingBenchmark.getResourceAsStream("/merge/unified.log").readLines()
+        List<String> lines = []
+        while (lines.size() < MIN_LINES) {
+            lines.addAll(log)
+        }
+        println "Lines: ${lines.size()}"
+
+        ROUNDS.times {
+            long start = System.nanoTime()
+            long selectedByContains = 0
+            for (String line : lines) {
+                selectedByContains += selectByContains(line)
+            }
+            report("contains per rule    ", lines.size(), start)
+
+            start = System.nanoTime()
+            long selectedByMatcher = 0
+            for (String line : lines) {
+                selectedByMatcher += selectByMatcher(line)
+            }
+            report("multi pattern matcher", lines.size(), start)
+            assert selectedByContains == selectedByMatcher
+        }
+    }
+
+    private static void report(String name, int lines, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d
+        printf("%s: %.2fs, %,.0f lines/s%n", name, seconds, lines / seconds)
+    }
+
+    private static int selectByContains(String line) {
+        if (!line.contains("gc") || !line.contains("GC(")) {
+            return -1
+        }
+        for (int i = 0; i < PARSERS.size(); i++) {
+            GCUnifiedLogFileParser.GcLineParser parser = PARSERS[i]
+            if (parser.included.stream().allMatch { String it -> line.contains(it) }
+                    && parser.excluded.stream().noneMatch { String it -> line.contains(it) }) {
+                return i
+            }
+        }
+        return -1
+    }
+
+    private static int selectByMatcher(String line) {
+        long found = PATTERNS.find(line)
+        if (!GCUnifiedLogFileParser.isGcLog(found)) {
+            return -1
+        }
+        for (int i = 0; i < PARSERS.size(); i++) {
+            if (PARSERS[i].accepts(found)) {
+                return i
+            }
+        }
+        return -1
+    }
+}
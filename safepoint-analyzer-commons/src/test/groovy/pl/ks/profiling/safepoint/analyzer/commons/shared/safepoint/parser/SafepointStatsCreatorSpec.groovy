@@ -0,0 +1,59 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser
+
+import spock.lang.Specification
+
+class SafepointStatsCreatorSpec extends Specification {
+    def "should cut phases into intervals and group operations by name in one pass"() {
+        given:
+        SafepointUnifiedLogFileParser parser = new SafepointUnifiedLogFileParser()
+        parser.parseLine(line("1.000", "A", 1_500_000_000, 100_000_000, 600_000_000))
+        parser.parseLine(line("3.000", "B", 1_000_000_000, 0, 0))
+        parser.parseLine(line("4.000", "A", 2_500_000_000, 200_000_000, 700_000_000))
+
+        when:
+        SafepointOperationStats stats = parser.fetchData().safepointOperationStats
+
+        then:
+        stats.totalCount == 3
+        stats.timesInTimes2sec.collect { [it.startTime, it.endTime, it.applicationTime, it.tts, it.operationTime] } == [
+                [1.000G, 3.000G, 1.5G, 0.1G, 0.4G],
+                [3.000G, 5.000G, 1.9G, 0G, 0.1G],
+                [5.000G, 7.000G, 1.6G, 0.2G, 0.2G]
+        ]
+        stats.timesInTimes5sec.collect { [it.startTime, it.applicationTime, it.tts, it.operationTime] } == [[1.000G, 4.4G, 0.1G, 0.5G]]
+        stats.timesInTimes15sec.empty
+
+        SafepointOperationStatsByName a = stats.statsByNames.find { it.operationName == "A" }
+        a.count == 2
+        a.countPercent == 66.67G
+        a.operationTime.total == 1000G
+        a.statsByTime.sort { it.count }.collect { [it.count, it.time, it.timeSpent] } == [[1L, 0G, 0.5G], [2L, 3.1G, 1.0G]]
+        a.statsByTime.is(a.statsByTime)
+        stats.statsByNames.find { it.operationName == "B" }.countPercent == 33.33G
+    }
+
+    def "should keep operations in name order and times with the scale of the log"() {
+        given:
+        SafepointUnifiedLogFileParser parser = new SafepointUnifiedLogFileParser()
+        ["G1Concurrent", "Cleanup", "G1Concurrent"].eachWithIndex { String name, int i ->
+            parser.parseLine("[${i + 1}.000s][info][safepoint] Application time: 0.1000000 seconds")
+            parser.parseLine("[${i + 1}.000s][info][safepoint] Entering safepoint region: ${name}")
+            parser.parseLine("[${i + 1}.000s][info][safepoint] Leaving safepoint region")
+            parser.parseLine("[${i + 1}.000s][info][safepoint] Total time for which application threads were stopped: 0.0001000 seconds, Stopping threads took: 0.0000100 seconds")
+        }
+        parser.parseLine("[4.000s][info][safepoint] Application time: 0.1000000 seconds")
+
+        when:
+        SafepointLogFile logFile = parser.fetchData()
+
+        then:
+        logFile.safepointOperationStats.statsByNames*.operationName == ["Cleanup", "G1Concurrent"]
+        logFile.store.seconds(logFile.store.stoppedTimeNanos(0) + logFile.store.ttsNanos(0)).multiply(1000G).toString() == "0.1100000"
+        logFile.safepoints[0].stoppedTime.toString() == "0.0001000"
+        logFile.safepointOperationStats.statsByNames[1].statsByTime*.timeSpent.every { it.scale() == 7 }
+    }
+
+    private static String line(String uptime, String name, long sinceLast, long reaching, long total) {
+        "[${uptime}s][info][safepoint] Safepoint \"${name}\", Time since last: ${sinceLast} ns, Reaching safepoint: ${reaching} ns, At safepoint: ${total - reaching} ns, Total: ${total} ns"
+    }
+}
@@ -0,0 +1,39 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser
+
+import java.math.RoundingMode
+import pl.ks.profiling.safepoint.analyzer.commons.shared.SymbolTable
+import spock.lang.Specification
+
+class SafepointStoreSpec extends Specification {
+    def "should round milliseconds like the former BigDecimal arithmetic"() {
+        expect:
+        SafepointStore.toMillis(nanos) == SafepointStore.toSeconds(nanos).multiply(1000G).setScale(2, RoundingMode.HALF_EVEN).doubleValue()
+
+        where:
+        nanos << [0L, 21958L, 5000L, 15000L, 25000L, 107250L, 113387188L, -52000000L, -15000L, 5972932511L]
+    }
+
+    def "should keep safepoints when stores are appended and trimmed"() {
+        given:
+        SymbolTable symbols = new SymbolTable()
+        SafepointStore first = new SafepointStore(symbols)
+        SafepointStore second = new SafepointStore(symbols)
+        first.add(0, 87_000_000, 18_420_792, 21_958, 107_250, symbols.id("ChangeBreakpoints"))
+        second.add(0, 5_086_354_000_000, 5_972_932_511, 108_298, 113_387_188, symbols.id("G1CollectForAllocation"))
+        second.add(1, 5_087_000_000_000, 0, 0, 0, SymbolTable.NO_SYMBOL)
+
+        when:
+        first.addAll(second, 1)
+        first.trimToSize()
+        first.add(3, 5_088_000_000_000, 1, 2, 3, symbols.id("Cleanup"))
+
+        then:
+        first.size() == 4
+        first.entries()*.sequenceId == [0L, 1L, 2L, 3L]
+        first.entries()*.operationName == ["ChangeBreakpoints", "G1CollectForAllocation", null, "Cleanup"]
+        first.timeStamp(1) == 5086.354G
+        first.operationTimeNanos(1) == 113_278_890
+        first.operationTimeMillis() == [0.09d, 113.28d, 0.0d, 0.0d] as double[]
+        first.entry(1).stoppedTime == 0.113387188G
+    }
+}
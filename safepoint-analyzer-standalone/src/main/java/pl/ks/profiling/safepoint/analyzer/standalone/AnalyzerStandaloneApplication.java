@@ -23,6 +23,7 @@ import org.springframework.boot.builder.SpringApplicationBuilder;
 import pl.ks.profiling.io.ConcatenationProgress;
 import pl.ks.profiling.io.FilesConcatenation;
 import pl.ks.profiling.io.InputUtils;
+import pl.ks.profiling.io.OutputCompression;
 import pl.ks.profiling.io.source.LogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParsingProgress;
@@ -285,7 +286,7 @@ public class AnalyzerStandaloneApplication extends JFrame {
 
         @Override
         protected Boolean doInBackground() throws Exception {
-            FilesConcatenation.concatenate(sortedFiles, saveFile, this::publish);
+            FilesConcatenation.concatenate(sortedFiles, saveFile, OutputCompression.forFile(saveFile), this::publish);
             return true;
         }
 
@@ -17,10 +17,22 @@ package pl.ks.profiling.safepoint.analyzer.web;
 
 import pl.ks.profiling.io.source.LogsSource;
 
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 public interface ParsingExecutor {
     ParsingStatus enqueue(LogsSource logsSource, Function<String, String> resultLocationFactory);
 
+    /**
+     * Enqueues logs only if a worker can start parsing them right away, e.g. logs read from a request that cannot
+     * outlive it. Returns null without creating the source when every worker is busy.
+     */
+    ParsingStatus enqueueIfWorkerIdle(Callable<LogsSource> logsSource, Function<String, String> resultLocationFactory) throws Exception;
+
+    /**
+     * Marks a parsing as failed from outside of it, e.g. when its logs cannot be read any more.
+     */
+    void markAsFailed(String parsingId);
+
     ParsingStatus getParsingStatus(String parsingId);
 }
@@ -21,12 +21,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import pl.ks.profiling.io.source.LogsSource;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParsingOptions;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParsingProgress;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.StatsService;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 @Slf4j
@@ -37,6 +40,8 @@ public class ParsingExecutorSimple implements ParsingExecutor {
     private final Cache<String, ParsingStatus> statuses;
     private final ExecutorService executor;
     private final ParsingProperties parsingProperties;
+    private final ParsingOptions parsingOptions;
+    private final AtomicInteger pendingParsings = new AtomicInteger();
 
     public ParsingExecutorSimple(StatsService statsService, StatsRepository statsRepository, ParsingProperties parsingProperties) {
         this.statsService = statsService;
@@ -44,20 +49,49 @@ public class ParsingExecutorSimple implements ParsingExecutor {
         this.parsingProperties = parsingProperties;
         this.statuses = CacheBuilder.newBuilder().expireAfterAccess(parsingProperties.results.expiration).build();
         this.executor = Executors.newFixedThreadPool(parsingProperties.workerThreads, new CustomizableThreadFactory("parsing-"));
+        this.parsingOptions = ParsingOptions.SEQUENTIAL
+                .withReadAhead(parsingProperties.readAhead)
+                .withParserThreads(parsingProperties.parserThreads);
     }
 
     public ParsingStatus enqueue(LogsSource logsSource, Function<String, String> resultLocationFactory) {
+        pendingParsings.incrementAndGet();
+        return submit(logsSource, resultLocationFactory);
+    }
+
+    public ParsingStatus enqueueIfWorkerIdle(Callable<LogsSource> logsSource, Function<String, String> resultLocationFactory) throws Exception {
+        int pending;
+        do {
+            pending = pendingParsings.get();
+            if (pending >= parsingProperties.workerThreads) {
+                return null;
+            }
+        } while (!pendingParsings.compareAndSet(pending, pending + 1));
+        LogsSource source;
+        try {
+            source = logsSource.call();
+        } catch (Exception e) {
+            pendingParsings.decrementAndGet();
+            throw e;
+        }
+        return submit(source, resultLocationFactory);
+    }
+
+    private ParsingStatus submit(LogsSource logsSource, Function<String, String> resultLocationFactory) {
         String parsingId = UUID.randomUUID().toString();
         executor.submit(() -> {
             log.info("Submitting parsing {} to parser", parsingId);
             try {
                 statsService.createAllStatsUnifiedLogger(
                         logsSource,
+                        parsingOptions,
                         (ParsingProgress p) -> updateParsingProgress(parsingId, p),
                         (JvmLogFile f) -> storeInRepo(parsingId, f));
             } catch (Throwable t) {
                 log.error("Error while processing parsing " + parsingId, t);
                 markAsFailed(parsingId);
+            } finally {
+                pendingParsings.decrementAndGet();
             }
         });
         ParsingStatus parsingStatus = createParsingInitialParsingStatus(resultLocationFactory, parsingId, logsSource);
@@ -80,7 +114,7 @@ public class ParsingExecutorSimple implements ParsingExecutor {
         }
     }
 
-    private void markAsFailed(String parsingId) {
+    public void markAsFailed(String parsingId) {
         ParsingStatus current = statuses.getIfPresent(parsingId);
         if (current != null) {
             statuses.put(parsingId, current.withFailed(true));
@@ -27,6 +27,11 @@ import java.time.Duration;
 public class ParsingProperties {
     @Min(1)
     int workerThreads;
+    boolean readAhead;
+    @Min(1)
+    int parserThreads = 1;
+    @NotNull
+    Duration streamedUploadTimeout = Duration.ofMinutes(30);
     ResultsProperties results;
 }
 
@@ -18,26 +18,44 @@ package pl.ks.profiling.safepoint.analyzer.web;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import pl.ks.profiling.io.InputUtils;
 import pl.ks.profiling.io.StorageUtils;
+import pl.ks.profiling.io.TeeInputStream;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.web.commons.WelcomePage;
 
 import jakarta.servlet.http.HttpServletRequest;
-
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.http.HttpStatus.LENGTH_REQUIRED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
 
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 class StatsController {
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
     @Value("${safepoint.files.dir}")
     private String INPUTS_PATH;
 
@@ -81,6 +99,69 @@ class StatsController {
         log.debug("Copying file {} to persistent storage.", originalFilename);
         String savedLocation = StorageUtils.createCopy(INPUTS_PATH, originalFilename, file.getInputStream());
         log.debug("File {} has been copied. Enqueuing.", originalFilename);
+        return enqueueSaved(savedLocation, originalFilename, request);
+    }
+
+    @PostMapping(value = "/enqueue-stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ResponseBody
+    ParsingStatus enqueueStream(@RequestParam("name") String originalFilename, HttpServletRequest request) throws Exception {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            throw new ResponseStatusException(LENGTH_REQUIRED, "Upload length is required");
+        }
+        if (contentLength > maxFileSize.toBytes()) {
+            throw new ResponseStatusException(PAYLOAD_TOO_LARGE, "Upload is bigger than " + maxFileSize.toMegabytes() + "MB");
+        }
+        log.info("New request to enqueue streamed file {} of {} bytes", originalFilename, contentLength);
+        String savedLocation = StorageUtils.createCopyLocation(INPUTS_PATH, originalFilename);
+        TeeInputStream upload = new TeeInputStream(StreamUtils.nonClosing(request.getInputStream()), new BufferedOutputStream(new FileOutputStream(savedLocation), UPLOAD_BUFFER_SIZE));
+        InputStream markableUpload = new BufferedInputStream(upload, UPLOAD_BUFFER_SIZE);
+        if (!InputUtils.isStreamable(markableUpload)) {
+            log.debug("File {} is an archive, parsing after upload", originalFilename);
+            return enqueueAfterUpload(markableUpload, savedLocation, originalFilename, request);
+        }
+
+        ParsingStatus initialStatus = parsingExecutor.enqueueIfWorkerIdle(
+                () -> InputUtils.getLogsSource(originalFilename, markableUpload),
+                (String parsingId) -> createParsingProgressUrl(request, parsingId));
+        if (initialStatus == null) {
+            log.debug("No parsing worker is idle, parsing file {} after upload", originalFilename);
+            return enqueueAfterUpload(markableUpload, savedLocation, originalFilename, request);
+        }
+        // the request body can be read only as long as the request lasts
+        try {
+            upload.completion().get(parsingProperties.getStreamedUploadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("File {} has not been streamed within {}, its parsing is stopped", originalFilename, parsingProperties.getStreamedUploadTimeout());
+            abortStreamedParsing(upload, savedLocation, initialStatus, new IOException("Upload not completed within " + parsingProperties.getStreamedUploadTimeout()));
+            return parsingExecutor.getParsingStatus(initialStatus.getParsingId());
+        } catch (ExecutionException e) {
+            log.warn("File {} has not been streamed, its parsing is stopped", originalFilename, e.getCause());
+            abortStreamedParsing(upload, savedLocation, initialStatus, new IOException("Upload failed", e.getCause()));
+            throw new IOException("Unable to stream file " + originalFilename, e.getCause());
+        }
+        log.debug("File {} has been streamed and saved with status {}", originalFilename, initialStatus);
+        return initialStatus;
+    }
+
+    // the parsing fails on its next read of the upload, the copy is incomplete
+    private void abortStreamedParsing(TeeInputStream upload, String savedLocation, ParsingStatus initialStatus, IOException failure) throws IOException {
+        try {
+            upload.abort(failure);
+        } finally {
+            parsingExecutor.markAsFailed(initialStatus.getParsingId());
+            Files.deleteIfExists(Path.of(savedLocation));
+        }
+    }
+
+    private ParsingStatus enqueueAfterUpload(InputStream markableUpload, String savedLocation, String originalFilename, HttpServletRequest request) throws IOException {
+        try (InputStream upload = markableUpload) {
+            upload.transferTo(OutputStream.nullOutputStream());
+        }
+        return enqueueSaved(savedLocation, originalFilename, request);
+    }
+
+    private ParsingStatus enqueueSaved(String savedLocation, String originalFilename, HttpServletRequest request) throws IOException {
         ParsingStatus initialStatus = parsingExecutor.enqueue(
                 InputUtils.getLogsSource(savedLocation, originalFilename, ParserUtils::getTimeStamp),
                 (String parsingId) -> createParsingProgressUrl(request, parsingId));